@@ -0,0 +1,279 @@
+package sn.ssi.sigmap.client.replica;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a local, read-only copy of some referentials of the referential service, for the services looking them up
+ * often.
+ * <p>
+ * The referentials are loaded page by page on start, then the replica polls {@code GET /api/referentiels/_changes}
+ * and applies the changes: the changed entities are read again by id, the deleted ones removed, and a referential is
+ * reloaded when the service cannot list the changes since the last poll, for example after a restart of the whole
+ * service, which starts a new epoch of sequence numbers. The lookups never leave the process; their staleness is
+ * bounded by the poll interval while the service answers and has all the changes, see {@link #getStaleness()}.
+ * <p>
+ * The {@link RestOperations} given to the replica must authenticate its requests, for example a {@code RestTemplate}
+ * with the interceptor adding the service token. With Spring:
+ * <pre>
+ * &#64;Bean(initMethod = "start", destroyMethod = "stop")
+ * public ReferentielReplica referentielReplica(RestTemplate restTemplate, ObjectMapper objectMapper) {
+ *     return new ReferentielReplica(restTemplate, "http://referentielms", objectMapper, Duration.ofSeconds(5),
+ *         ReplicatedReferentiel.of("pays", PaysDTO.class, PaysDTO::getId).withVersion(PaysDTO::getVersion).withCode(PaysDTO::getCodepays));
+ * }
+ * </pre>
+ * This module only depends on Spring Web, Jackson and Micrometer, it is published as the
+ * {@code referentielms-client} artifact.
+ */
+public class ReferentielReplica implements MeterBinder {
+
+    static final int PAGE_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielReplica.class);
+
+    private final RestOperations restOperations;
+
+    private final String baseUrl;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration pollInterval;
+
+    private final Map<String, ReplicatedReferentiel<?>> referentiels = new LinkedHashMap<>();
+
+    private final AtomicLong reloads = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Sequence number until which all the changes are applied, {@code null} before the first load.
+     */
+    private Long since;
+
+    /**
+     * Epoch of {@link #since}, {@code null} before the first load or when the service does not give it.
+     */
+    private Long epoch;
+
+    private volatile long lastSyncMillis;
+
+    public ReferentielReplica(RestOperations restOperations, String baseUrl, ObjectMapper objectMapper, Duration pollInterval,
+                              ReplicatedReferentiel<?>... referentiels) {
+        this.restOperations = restOperations;
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.pollInterval = pollInterval;
+        for (ReplicatedReferentiel<?> referentiel : referentiels) {
+            this.referentiels.put(referentiel.getResourceName(), referentiel);
+        }
+    }
+
+    /**
+     * Load the referentials, then poll their changes. When the service cannot be reached, the lookups find nothing
+     * until a later poll succeeds.
+     */
+    public synchronized void start() {
+        syncQuietly();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "referentiel-replica");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::syncQuietly, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> ReplicatedReferentiel<T> getReferentiel(String resourceName, Class<T> type) {
+        ReplicatedReferentiel<?> referentiel = referentiels.get(resourceName);
+        if (referentiel == null || !referentiel.getType().equals(type)) {
+            throw new IllegalArgumentException("Referential not replicated: " + resourceName + " as " + type.getSimpleName());
+        }
+        return (ReplicatedReferentiel<T>) referentiel;
+    }
+
+    /**
+     * @return the time since the replica was last known to be up to date, or empty before it is loaded.
+     */
+    public Optional<Duration> getStaleness() {
+        long last = lastSyncMillis;
+        return last == 0 ? Optional.empty() : Optional.of(Duration.ofMillis(System.currentTimeMillis() - last));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("referentiel.replica.staleness", this, TimeUnit.MILLISECONDS,
+            replica -> replica.getStaleness().map(Duration::toMillis).map(Long::doubleValue).orElse(Double.NaN))
+            .description("Time since the replicated referentials were last known to be up to date")
+            .register(registry);
+        FunctionCounter.builder("referentiel.replica.reloads", reloads, AtomicLong::get).register(registry);
+        FunctionCounter.builder("referentiel.replica.sync.failures", failures, AtomicLong::get).register(registry);
+        for (ReplicatedReferentiel<?> referentiel : referentiels.values()) {
+            Gauge.builder("referentiel.replica.entities", referentiel, ReplicatedReferentiel::size)
+                .tag("referentiel", referentiel.getResourceName())
+                .register(registry);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RestClientException | IllegalStateException e) {
+            failures.incrementAndGet();
+            log.warn("Could not update the replicated referentials, they may be stale: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply the changes since the last call. A failed call is retried from the same sequence number, the changes
+     * already applied are applied again.
+     * <p>
+     * The service only releases a change once all the previous ones are, so all the changes until {@code latest} are
+     * applied, and the next call asks for the changes after it. A change above {@code latest} is left for a later
+     * call. While the service is {@code waiting} for a missing change, the replica is not known to be up to date.
+     */
+    synchronized void sync() {
+        JsonNode response = restOperations.getForObject(changesUri(), JsonNode.class);
+        if (response == null) {
+            throw new IllegalStateException("Empty response to the changes request");
+        }
+        long latest = response.path("latest").asLong();
+        Long responseEpoch = response.hasNonNull("epoch") ? response.get("epoch").asLong() : null;
+        boolean reload = since == null || response.path("reset").asBoolean() ||
+            epoch != null && responseEpoch != null && !epoch.equals(responseEpoch);
+        if (reload) {
+            for (ReplicatedReferentiel<?> referentiel : referentiels.values()) {
+                reload(referentiel);
+            }
+        } else {
+            apply(response.path("changes"), latest);
+        }
+        // Another node of the service may not have released the changes already applied
+        since = reload ? latest : Math.max(since, latest);
+        epoch = responseEpoch;
+        if (reload || !response.path("waiting").asBoolean()) {
+            lastSyncMillis = System.currentTimeMillis();
+        }
+    }
+
+    private void apply(JsonNode released, long latest) {
+        List<JsonNode> changes = new ArrayList<>();
+        for (JsonNode change : released) {
+            if (change.path("sequence").asLong() <= latest) {
+                changes.add(change);
+            }
+        }
+        Set<String> reloaded = new HashSet<>();
+        for (JsonNode change : changes) {
+            String resourceName = change.path("referentiel").asText();
+            if (!change.hasNonNull("id") && referentiels.containsKey(resourceName) && reloaded.add(resourceName)) {
+                reload(referentiels.get(resourceName));
+            }
+        }
+        for (JsonNode change : changes) {
+            ReplicatedReferentiel<?> referentiel = referentiels.get(change.path("referentiel").asText());
+            if (referentiel == null || reloaded.contains(referentiel.getResourceName())) {
+                continue;
+            }
+            Long id = change.get("id").asLong();
+            Long version = change.hasNonNull("version") ? change.get("version").asLong() : null;
+            if ("DELETED".equals(change.path("op").asText())) {
+                referentiel.remove(id);
+            } else if (!referentiel.isUpToDate(id, version)) {
+                fetch(referentiel, id);
+            }
+        }
+    }
+
+    private <T> void fetch(ReplicatedReferentiel<T> referentiel, Long id) {
+        URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl)
+            .path("/api/{resourceName}/{id}")
+            .buildAndExpand(referentiel.getResourceName(), id)
+            .toUri();
+        try {
+            referentiel.put(read(restOperations.getForObject(uri, JsonNode.class), referentiel.getType()));
+        } catch (HttpClientErrorException.NotFound e) {
+            referentiel.remove(id);
+        }
+    }
+
+    private <T> void reload(ReplicatedReferentiel<T> referentiel) {
+        log.debug("Loading the replicated referential {}", referentiel.getResourceName());
+        List<T> entities = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl)
+                .path("/api/{resourceName}")
+                .queryParam("page", page)
+                .queryParam("size", PAGE_SIZE)
+                .queryParam("sort", "id,asc")
+                .buildAndExpand(referentiel.getResourceName())
+                .toUri();
+            JsonNode items = restOperations.getForObject(uri, JsonNode.class);
+            if (items == null) {
+                break;
+            }
+            for (JsonNode item : items) {
+                entities.add(read(item, referentiel.getType()));
+            }
+            if (items.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+        referentiel.replaceAll(entities);
+        reloads.incrementAndGet();
+    }
+
+    private <T> T read(JsonNode node, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(node, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read a " + type.getSimpleName(), e);
+        }
+    }
+
+    private URI changesUri() {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl)
+            .path("/api/referentiels/_changes")
+            .queryParam("referentiel", referentiels.keySet().toArray());
+        if (since != null) {
+            builder.queryParam("since", since);
+        }
+        if (epoch != null) {
+            builder.queryParam("epoch", epoch);
+        }
+        return builder.build().toUri();
+    }
+}
@@ -0,0 +1,155 @@
+package sn.ssi.sigmap.client.replica;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The local, read-only copy of one referential, kept up to date by a {@link ReferentielReplica}.
+ * <p>
+ * The entities are read into the client's own class, for example its DTO, and indexed by id and optionally by code.
+ * The lookups only read in-memory maps, they never call the referential service.
+ *
+ * @param <T> the class the entities are read into.
+ */
+public class ReplicatedReferentiel<T> {
+
+    private final String resourceName;
+
+    private final Class<T> type;
+
+    private final Function<T, Long> idGetter;
+
+    private Function<T, Long> versionGetter;
+
+    private Function<T, String> codeGetter;
+
+    private volatile Index<T> index = new Index<>();
+
+    private ReplicatedReferentiel(String resourceName, Class<T> type, Function<T, Long> idGetter) {
+        this.resourceName = Objects.requireNonNull(resourceName);
+        this.type = Objects.requireNonNull(type);
+        this.idGetter = Objects.requireNonNull(idGetter);
+    }
+
+    /**
+     * @param resourceName the name of the referential resource, for example {@code pays}.
+     * @param type the class the entities are read into.
+     * @param idGetter the getter of the id.
+     * @return the referential to replicate.
+     */
+    public static <T> ReplicatedReferentiel<T> of(String resourceName, Class<T> type, Function<T, Long> idGetter) {
+        return new ReplicatedReferentiel<>(resourceName, type, idGetter);
+    }
+
+    /**
+     * Skip the changes already applied, using the version of the entities.
+     */
+    public ReplicatedReferentiel<T> withVersion(Function<T, Long> versionGetter) {
+        this.versionGetter = versionGetter;
+        return this;
+    }
+
+    /**
+     * Index the entities by code too, see {@link #findByCode(String)}.
+     */
+    public ReplicatedReferentiel<T> withCode(Function<T, String> codeGetter) {
+        this.codeGetter = codeGetter;
+        return this;
+    }
+
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public Optional<T> findById(Long id) {
+        return Optional.ofNullable(index.byId.get(id));
+    }
+
+    public Optional<T> findByCode(String code) {
+        return Optional.ofNullable(index.byCode.get(code));
+    }
+
+    public Collection<T> findAll() {
+        return Collections.unmodifiableCollection(index.byId.values());
+    }
+
+    public int size() {
+        return index.byId.size();
+    }
+
+    Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return {@code true} if the local copy already has this version of the entity, or a later one.
+     */
+    boolean isUpToDate(Long id, Long version) {
+        if (versionGetter == null || version == null) {
+            return false;
+        }
+        T current = index.byId.get(id);
+        Long currentVersion = current == null ? null : versionGetter.apply(current);
+        return currentVersion != null && currentVersion >= version;
+    }
+
+    /**
+     * Replace all the entities at once, the lookups see either the previous or the new ones.
+     */
+    void replaceAll(Collection<T> entities) {
+        Index<T> replacement = new Index<>();
+        for (T entity : entities) {
+            replacement.put(entity, idGetter, codeGetter);
+        }
+        index = replacement;
+    }
+
+    void put(T entity) {
+        index.put(entity, idGetter, codeGetter);
+    }
+
+    void remove(Long id) {
+        index.remove(id, codeGetter);
+    }
+
+    /**
+     * The indexes are only written by the replica's thread.
+     */
+    private static final class Index<T> {
+
+        private final Map<Long, T> byId = new ConcurrentHashMap<>();
+
+        private final Map<String, T> byCode = new ConcurrentHashMap<>();
+
+        void put(T entity, Function<T, Long> idGetter, Function<T, String> codeGetter) {
+            Long id = idGetter.apply(entity);
+            T previous = byId.put(id, entity);
+            if (codeGetter != null) {
+                removeCode(previous, codeGetter);
+                String code = codeGetter.apply(entity);
+                if (code != null) {
+                    byCode.put(code, entity);
+                }
+            }
+        }
+
+        void remove(Long id, Function<T, String> codeGetter) {
+            T previous = byId.remove(id);
+            if (codeGetter != null) {
+                removeCode(previous, codeGetter);
+            }
+        }
+
+        private void removeCode(T previous, Function<T, String> codeGetter) {
+            String code = previous == null ? null : codeGetter.apply(previous);
+            if (code != null) {
+                byCode.remove(code, previous);
+            }
+        }
+    }
+}
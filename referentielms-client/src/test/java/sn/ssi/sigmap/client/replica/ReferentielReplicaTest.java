@@ -0,0 +1,202 @@
+package sn.ssi.sigmap.client.replica;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Unit tests for {@link ReferentielReplica}.
+ */
+class ReferentielReplicaTest {
+
+    private static final String BASE_URL = "http://referentielms";
+
+    private static final String CHANGES_URL = BASE_URL + "/api/referentiels/_changes?referentiel=pays";
+
+    private static final String PAGE_URL = BASE_URL + "/api/pays?page=0&size=" + ReferentielReplica.PAGE_SIZE + "&sort=id,asc";
+
+    private MockRestServiceServer server;
+
+    private ReplicatedReferentiel<PaysDTO> pays;
+
+    private ReferentielReplica replica;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        pays = ReplicatedReferentiel.of("pays", PaysDTO.class, PaysDTO::getId)
+            .withVersion(PaysDTO::getVersion)
+            .withCode(PaysDTO::getCodepays);
+        ObjectMapper objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        replica = new ReferentielReplica(restTemplate, BASE_URL, objectMapper, Duration.ofSeconds(5), pays);
+    }
+
+    @Test
+    void firstSyncLoadsTheReferentials() {
+        expectJson(CHANGES_URL, "{\"latest\":10,\"reset\":false,\"changes\":[]}");
+        expectJson(PAGE_URL, "[" + pays(1, 0, "SN") + "," + pays(2, 0, "ML") + "]");
+        assertThat(replica.getStaleness()).isEmpty();
+
+        replica.sync();
+
+        server.verify();
+        assertThat(pays.size()).isEqualTo(2);
+        assertThat(pays.findById(2L)).map(PaysDTO::getCodepays).contains("ML");
+        assertThat(pays.findByCode("SN")).map(PaysDTO::getId).contains(1L);
+        assertThat(replica.getStaleness()).isPresent();
+        assertThat(replica.getReferentiel("pays", PaysDTO.class)).isSameAs(pays);
+    }
+
+    @Test
+    void syncAppliesTheChanges() {
+        loadTwoPays();
+        expectJson(CHANGES_URL + "&since=10", "{\"latest\":14,\"reset\":false,\"changes\":[" +
+            "{\"sequence\":11,\"referentiel\":\"pays\",\"id\":1,\"version\":1,\"op\":\"UPDATED\"}," +
+            "{\"sequence\":12,\"referentiel\":\"pays\",\"id\":2,\"version\":1,\"op\":\"DELETED\"}," +
+            "{\"sequence\":13,\"referentiel\":\"pays\",\"id\":1,\"version\":0,\"op\":\"UPDATED\"}," +
+            "{\"sequence\":14,\"referentiel\":\"pays\",\"id\":3,\"version\":0,\"op\":\"CREATED\"}]}");
+        expectJson(BASE_URL + "/api/pays/1", pays(1, 1, "SEN"));
+        server.expect(requestTo(BASE_URL + "/api/pays/3")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        replica.sync();
+
+        server.verify();
+        assertThat(pays.findById(1L)).map(PaysDTO::getVersion).contains(1L);
+        assertThat(pays.findByCode("SEN")).isPresent();
+        assertThat(pays.findByCode("SN")).isEmpty();
+        assertThat(pays.findById(2L)).isEmpty();
+        assertThat(pays.findByCode("ML")).isEmpty();
+        assertThat(pays.findById(3L)).isEmpty();
+    }
+
+    @Test
+    void syncSendsTheEpochAndReloadsWhenItChanges() {
+        expectJson(CHANGES_URL, "{\"epoch\":1000,\"latest\":10,\"reset\":false,\"changes\":[]}");
+        expectJson(PAGE_URL, "[" + pays(1, 0, "SN") + "," + pays(2, 0, "ML") + "]");
+        expectJson(CHANGES_URL + "&since=10&epoch=1000", "{\"epoch\":2000,\"latest\":3,\"reset\":false,\"changes\":[]}");
+        expectJson(PAGE_URL, "[" + pays(2, 0, "ML") + "]");
+        expectJson(CHANGES_URL + "&since=3&epoch=2000", "{\"epoch\":2000,\"latest\":3,\"reset\":false,\"changes\":[]}");
+
+        replica.sync();
+        replica.sync();
+        replica.sync();
+
+        server.verify();
+        assertThat(pays.findAll()).extracting(PaysDTO::getId).containsExactly(2L);
+    }
+
+    @Test
+    void syncReloadsAfterAReset() {
+        loadTwoPays();
+        expectJson(CHANGES_URL + "&since=10", "{\"latest\":2000,\"reset\":true,\"changes\":[]}");
+        expectJson(PAGE_URL, "[" + pays(2, 4, "ML") + "]");
+        expectJson(CHANGES_URL + "&since=2000", "{\"latest\":2000,\"reset\":false,\"changes\":[]}");
+
+        replica.sync();
+        replica.sync();
+
+        server.verify();
+        assertThat(pays.findAll()).extracting(PaysDTO::getId).containsExactly(2L);
+        assertThat(pays.findByCode("SN")).isEmpty();
+    }
+
+    @Test
+    void syncReloadsAnInvalidatedReferentialOnce() {
+        loadTwoPays();
+        expectJson(CHANGES_URL + "&since=10", "{\"latest\":12,\"reset\":false,\"changes\":[" +
+            "{\"sequence\":11,\"referentiel\":\"pays\",\"op\":\"INVALIDATED\"}," +
+            "{\"sequence\":12,\"referentiel\":\"pays\",\"op\":\"INVALIDATED\"}]}");
+        expectJson(PAGE_URL, "[" + pays(1, 3, "SN") + "]");
+
+        replica.sync();
+
+        server.verify();
+        assertThat(pays.findById(1L)).map(PaysDTO::getVersion).contains(3L);
+        assertThat(pays.findById(2L)).isEmpty();
+    }
+
+    @Test
+    void syncOnlyAdvancesToTheReleasedChanges() throws Exception {
+        loadTwoPays();
+        Thread.sleep(100);
+        expectJson(CHANGES_URL + "&since=10", "{\"latest\":11,\"reset\":false,\"waiting\":true,\"changes\":[" +
+            "{\"sequence\":11,\"referentiel\":\"pays\",\"id\":1,\"version\":1,\"op\":\"UPDATED\"}," +
+            "{\"sequence\":13,\"referentiel\":\"pays\",\"id\":2,\"version\":1,\"op\":\"DELETED\"}]}");
+        expectJson(BASE_URL + "/api/pays/1", pays(1, 1, "SEN"));
+        expectJson(CHANGES_URL + "&since=11", "{\"latest\":13,\"reset\":false,\"waiting\":false,\"changes\":[" +
+            "{\"sequence\":13,\"referentiel\":\"pays\",\"id\":2,\"version\":1,\"op\":\"DELETED\"}]}");
+
+        replica.sync();
+
+        assertThat(pays.findById(2L)).isPresent();
+        assertThat(replica.getStaleness()).hasValueSatisfying(staleness -> assertThat(staleness).isGreaterThanOrEqualTo(Duration.ofMillis(100)));
+
+        replica.sync();
+
+        server.verify();
+        assertThat(pays.findById(2L)).isEmpty();
+        assertThat(replica.getStaleness()).hasValueSatisfying(staleness -> assertThat(staleness).isLessThan(Duration.ofMillis(100)));
+    }
+
+    private void loadTwoPays() {
+        expectJson(CHANGES_URL, "{\"latest\":10,\"reset\":false,\"changes\":[]}");
+        expectJson(PAGE_URL, "[" + pays(1, 0, "SN") + "," + pays(2, 0, "ML") + "]");
+        replica.sync();
+        server.verify();
+        server.reset();
+    }
+
+    private void expectJson(String url, String body) {
+        server.expect(requestTo(url)).andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+    }
+
+    private static String pays(long id, long version, String code) {
+        return "{\"id\":" + id + ",\"version\":" + version + ",\"libelle\":\"AAAAAAAAAA\",\"codepays\":\"" + code + "\"}";
+    }
+
+    public static class PaysDTO {
+
+        private Long id;
+
+        private Long version;
+
+        private String codepays;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public void setVersion(Long version) {
+            this.version = version;
+        }
+
+        public String getCodepays() {
+            return codepays;
+        }
+
+        public void setCodepays(String codepays) {
+            this.codepays = codepays;
+        }
+    }
+}
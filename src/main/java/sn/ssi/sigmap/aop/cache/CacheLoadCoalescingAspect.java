@@ -0,0 +1,138 @@
+package sn.ssi.sigmap.aop.cache;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import sn.ssi.sigmap.service.cache.CacheEarlyRefresher;
+import sn.ssi.sigmap.service.cache.CacheLoadCoalescer;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect sending the reads of the referential REST controllers to the {@link CacheLoadCoalescer}.
+ * <p>
+ * The reads of an entity by its id and of a page of entities are coalesced before the controller, or its service,
+ * opens a transaction: the concurrent requests share its response, whose entities are detached once it is committed.
+ * The calls made in a transaction which is already active, as in the tests, are left alone, as their entities belong
+ * to its persistence context.
+ */
+@Aspect
+@Order(CacheLoadCoalescingAspect.ORDER)
+public class CacheLoadCoalescingAspect {
+
+    /**
+     * Runs just before the transactions, which have the lowest precedence.
+     */
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    private final CacheLoadCoalescer cacheLoadCoalescer;
+
+    private final CacheEarlyRefresher cacheEarlyRefresher;
+
+    private final Map<Method, Class<?>> entityClasses = new ConcurrentHashMap<>();
+
+    public CacheLoadCoalescingAspect(CacheLoadCoalescer cacheLoadCoalescer, CacheEarlyRefresher cacheEarlyRefresher) {
+        this.cacheLoadCoalescer = cacheLoadCoalescer;
+        this.cacheEarlyRefresher = cacheEarlyRefresher;
+    }
+
+    /**
+     * Pointcut that matches the reads of the REST controllers.
+     */
+    @Pointcut("within(sn.ssi.sigmap.web.rest.*Resource) && @annotation(org.springframework.web.bind.annotation.GetMapping)")
+    public void getMappingPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the reads of an entity by its id.
+     */
+    @Pointcut("getMappingPointcut() && execution(org.springframework.http.ResponseEntity *(Long))")
+    public void findByIdPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the reads of a page of entities.
+     */
+    @Pointcut("getMappingPointcut() && execution(org.springframework.http.ResponseEntity *(org.springframework.data.domain.Pageable))")
+    public void findPagePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Shares the read of an entity, then refreshes it in its cache region if its expiration is close.
+     *
+     * @param joinPoint join point for advice.
+     * @return the response with the entity.
+     * @throws Throwable throws the exception of the read.
+     */
+    @Around("findByIdPointcut()")
+    public Object findById(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> entityClass = getEntityClass(joinPoint, 0);
+        Object id = joinPoint.getArgs()[0];
+        if (entityClass == null || id == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        Object result = cacheLoadCoalescer.loadEntity(entityClass, id, joinPoint::proceed);
+        if (result instanceof ResponseEntity && ((ResponseEntity<?>) result).hasBody()) {
+            cacheEarlyRefresher.onRead(entityClass, id, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Shares the read of a page of entities.
+     * <p>
+     * The pagination links are built from the request, so the requests only share the read of the same URL.
+     *
+     * @param joinPoint join point for advice.
+     * @return the response with the page.
+     * @throws Throwable throws the exception of the read.
+     */
+    @Around("findPagePointcut()")
+    public Object findPage(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> entityClass = getEntityClass(joinPoint, 0, 0);
+        String url = getRequestUrl();
+        if (entityClass == null || url == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        return cacheLoadCoalescer.load(Arrays.asList(entityClass, joinPoint.getArgs()[0], url), joinPoint::proceed);
+    }
+
+    /**
+     * @return the referential entity in the body of the response, or null if it is not a referential.
+     */
+    private Class<?> getEntityClass(ProceedingJoinPoint joinPoint, int... genericIndexes) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> entityClass = entityClasses.computeIfAbsent(method, returning ->
+            ResolvableType.forMethodReturnType(returning).getGeneric(genericIndexes).resolve(Object.class));
+        return Referentiel.fromEntityClass(entityClass).isPresent() ? entityClass : null;
+    }
+
+    private static String getRequestUrl() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        return request.getQueryString() == null ? request.getRequestURL().toString() :
+            request.getRequestURL().append('?').append(request.getQueryString()).toString();
+    }
+}
@@ -0,0 +1,153 @@
+package sn.ssi.sigmap.aop.writebehind;
+
+import io.github.jhipster.web.util.HeaderUtil;
+import io.github.jhipster.web.util.ResponseUtil;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.annotation.Order;
+import sn.ssi.sigmap.aop.cache.CacheLoadCoalescingAspect;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.WriteBehindService;
+import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+
+import javax.persistence.PersistenceUnitUtil;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Aspect sending the partial updates of the referential REST controllers to the {@link WriteBehindService}.
+ * <p>
+ * Every other call to these controllers first writes the pending partial updates of their referential, so that a
+ * client always reads its own writes. So do the reads of the batch, bundle and reactive controllers, which serve the
+ * referentials by their resource name. The exceptions are listed on {@link WriteBehindService}. The updates are
+ * written before the reads are coalesced by the {@link CacheLoadCoalescingAspect}.
+ */
+@Aspect
+@Order(CacheLoadCoalescingAspect.ORDER - 1)
+public class WriteBehindAspect {
+
+    private static final String RESOURCE_SUFFIX = "Resource";
+
+    private final WriteBehindService writeBehindService;
+
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    private final String applicationName;
+
+    public WriteBehindAspect(WriteBehindService writeBehindService, PersistenceUnitUtil persistenceUnitUtil, String applicationName) {
+        this.writeBehindService = writeBehindService;
+        this.persistenceUnitUtil = persistenceUnitUtil;
+        this.applicationName = applicationName;
+    }
+
+    /**
+     * Pointcut that matches all the REST controllers.
+     */
+    @Pointcut("within(sn.ssi.sigmap.web.rest.*Resource) && execution(public * *(..))")
+    public void resourcePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the partial updates of the REST controllers.
+     */
+    @Pointcut("resourcePointcut() && execution(* partialUpdate*(Long, *))")
+    public void partialUpdatePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the REST controllers reading a referential from its resource name, their first argument.
+     */
+    @Pointcut("(within(sn.ssi.sigmap.web.rest.ReferentielBatchResource) || within(sn.ssi.sigmap.web.rest.ReactiveReferentielResource))" +
+        " && execution(public * *(String, ..))")
+    public void resourceNamePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the REST controllers reading several referentials at once.
+     */
+    @Pointcut("within(sn.ssi.sigmap.web.rest.ReferentielBundleResource) && execution(public * *(..))")
+    public void bundlePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Accepts a partial update without writing it.
+     *
+     * @param joinPoint join point for advice.
+     * @return the entity with all its pending updates.
+     * @throws Throwable throws {@link BadRequestAlertException} if the partial update is not valid.
+     */
+    @Around("partialUpdatePointcut()")
+    public Object partialUpdate(ProceedingJoinPoint joinPoint) throws Throwable {
+        Optional<Referentiel> referentiel = getReferentiel(joinPoint);
+        if (!referentiel.isPresent()) {
+            return joinPoint.proceed();
+        }
+        Long id = (Long) joinPoint.getArgs()[0];
+        Object patch = joinPoint.getArgs()[1];
+        String entityName = "referentielms" + referentiel.get().getEntityClass().getSimpleName();
+        Object patchId = persistenceUnitUtil.getIdentifier(patch);
+        if (patchId == null) {
+            throw new BadRequestAlertException("Invalid id", entityName, "idnull");
+        }
+        if (!Objects.equals(id, patchId)) {
+            throw new BadRequestAlertException("Invalid ID", entityName, "idinvalid");
+        }
+        Optional<Object> result = writeBehindService.patch(referentiel.get(), id, patch);
+        if (!result.isPresent()) {
+            throw new BadRequestAlertException("Entity not found", entityName, "idnotfound");
+        }
+        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, true, entityName, id.toString()));
+    }
+
+    /**
+     * Writes the pending partial updates before any other call, of the entity if its id is the first argument, or
+     * else of its whole referential.
+     *
+     * @param joinPoint join point for advice.
+     */
+    @Before("resourcePointcut() && !partialUpdatePointcut()")
+    public void flushPendingUpdates(JoinPoint joinPoint) {
+        getReferentiel(joinPoint).ifPresent(referentiel -> {
+            Object[] args = joinPoint.getArgs();
+            writeBehindService.flush(referentiel, args.length > 0 && args[0] instanceof Long ? (Long) args[0] : null);
+        });
+    }
+
+    /**
+     * Writes the pending partial updates of a referential read by its resource name, of the entity if its id follows.
+     *
+     * @param joinPoint join point for advice.
+     */
+    @Before("resourceNamePointcut()")
+    public void flushPendingUpdatesByResourceName(JoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        Referentiel.fromResourceName((String) args[0]).ifPresent(referentiel ->
+            writeBehindService.flush(referentiel, args.length > 1 && args[1] instanceof Long ? (Long) args[1] : null)
+        );
+    }
+
+    /**
+     * Writes all the pending partial updates before a bundle is read.
+     */
+    @Before("bundlePointcut()")
+    public void flushAllPendingUpdates() {
+        writeBehindService.flush();
+    }
+
+    private Optional<Referentiel> getReferentiel(JoinPoint joinPoint) {
+        String resourceName = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        if (!resourceName.endsWith(RESOURCE_SUFFIX)) {
+            return Optional.empty();
+        }
+        String entityName = resourceName.substring(0, resourceName.length() - RESOURCE_SUFFIX.length());
+        return Referentiel.fromEntityName(entityName);
+    }
+}
@@ -0,0 +1,38 @@
+package sn.ssi.sigmap.client;
+
+import feign.RequestInterceptor;
+import feign.codec.Encoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Feign client configuration exchanging Smile, the binary form of JSON, instead of JSON.
+ * <p>
+ * Use it with {@code @FeignClient(name = "...", configuration = SmileFeignClientConfiguration.class)}. The request
+ * bodies are encoded and the responses decoded by the Smile message converter configured in
+ * {@link sn.ssi.sigmap.config.JacksonConfiguration}, so the target service must offer Smile too. This class is not
+ * annotated with {@code @Configuration}, so it does not apply to the other Feign clients.
+ */
+public class SmileFeignClientConfiguration {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public RequestInterceptor smileAcceptRequestInterceptor() {
+        return template -> template.header(HttpHeaders.ACCEPT, APPLICATION_SMILE_VALUE);
+    }
+
+    @Bean
+    public Encoder feignEncoder(ObjectFactory<HttpMessageConverters> messageConverters) {
+        SpringEncoder springEncoder = new SpringEncoder(messageConverters);
+        return (object, bodyType, template) -> {
+            if (!template.headers().containsKey(HttpHeaders.CONTENT_TYPE)) {
+                template.header(HttpHeaders.CONTENT_TYPE, APPLICATION_SMILE_VALUE);
+            }
+            springEncoder.encode(object, bodyType, template);
+        };
+    }
+}
@@ -1,7 +1,18 @@
 package sn.ssi.sigmap.config;
 
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MaxSizeConfig;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import sn.ssi.sigmap.config.limit.LimitAlgorithm;
+import sn.ssi.sigmap.repository.support.CountStrategy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Properties specific to Referentielms.
  * <p>
@@ -10,4 +21,1095 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Cache cache = new Cache();
+
+    private final Referentiel referentiel = new Referentiel();
+
+    private final Compression compression = new Compression();
+
+    private final SlowQueries slowQueries = new SlowQueries();
+
+    private final Pagination pagination = new Pagination();
+
+    private final ServerTiming serverTiming = new ServerTiming();
+
+    private final Profiling profiling = new Profiling();
+
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Referentiel getReferentiel() {
+        return referentiel;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public SlowQueries getSlowQueries() {
+        return slowQueries;
+    }
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public ServerTiming getServerTiming() {
+        return serverTiming;
+    }
+
+    public Profiling getProfiling() {
+        return profiling;
+    }
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public static class Cache {
+
+        private final WarmUp warmUp = new WarmUp();
+
+        private final Region defaultRegion = new Region();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        private final LoadCoalescing loadCoalescing = new LoadCoalescing();
+
+        private final Dictionary dictionary = new Dictionary();
+
+        /**
+         * Region settings keyed by the simple name of the domain entity, for example {@code Fournisseur}.
+         */
+        private Map<String, Region> regions = new HashMap<>();
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public Region getDefaultRegion() {
+            return defaultRegion;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public LoadCoalescing getLoadCoalescing() {
+            return loadCoalescing;
+        }
+
+        public Dictionary getDictionary() {
+            return dictionary;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+
+        public static class Region {
+
+            private int maxSize = 10000;
+
+            private MaxSizeConfig.MaxSizePolicy maxSizePolicy = MaxSizeConfig.MaxSizePolicy.PER_NODE;
+
+            private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+            /**
+             * Defaults to {@code jhipster.cache.hazelcast.time-to-live-seconds} when not set.
+             */
+            private Integer timeToLiveSeconds;
+
+            private int maxIdleSeconds = 0;
+
+            /**
+             * Defaults to {@code jhipster.cache.hazelcast.backup-count} when not set.
+             */
+            private Integer backupCount;
+
+            private InMemoryFormat inMemoryFormat = InMemoryFormat.BINARY;
+
+            /**
+             * Overrides the concurrency strategy of the {@code @Cache} annotation when set, see
+             * {@link sn.ssi.sigmap.config.cache.CacheConcurrencyStrategies}.
+             */
+            private CacheConcurrencyStrategy concurrencyStrategy;
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public MaxSizeConfig.MaxSizePolicy getMaxSizePolicy() {
+                return maxSizePolicy;
+            }
+
+            public void setMaxSizePolicy(MaxSizeConfig.MaxSizePolicy maxSizePolicy) {
+                this.maxSizePolicy = maxSizePolicy;
+            }
+
+            public EvictionPolicy getEvictionPolicy() {
+                return evictionPolicy;
+            }
+
+            public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+                this.evictionPolicy = evictionPolicy;
+            }
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public int getMaxIdleSeconds() {
+                return maxIdleSeconds;
+            }
+
+            public void setMaxIdleSeconds(int maxIdleSeconds) {
+                this.maxIdleSeconds = maxIdleSeconds;
+            }
+
+            public Integer getBackupCount() {
+                return backupCount;
+            }
+
+            public void setBackupCount(Integer backupCount) {
+                this.backupCount = backupCount;
+            }
+
+            public InMemoryFormat getInMemoryFormat() {
+                return inMemoryFormat;
+            }
+
+            public void setInMemoryFormat(InMemoryFormat inMemoryFormat) {
+                this.inMemoryFormat = inMemoryFormat;
+            }
+
+            public CacheConcurrencyStrategy getConcurrencyStrategy() {
+                return concurrencyStrategy;
+            }
+
+            public void setConcurrencyStrategy(CacheConcurrencyStrategy concurrencyStrategy) {
+                this.concurrencyStrategy = concurrencyStrategy;
+            }
+        }
+
+        public static class Invalidation {
+
+            private final DatabaseListener databaseListener = new DatabaseListener();
+
+            public DatabaseListener getDatabaseListener() {
+                return databaseListener;
+            }
+
+            /**
+             * Listens to the PostgreSQL notifications sent by the cache invalidation triggers.
+             */
+            public static class DatabaseListener {
+
+                private boolean enabled = false;
+
+                private String channel = "referentiel_invalidation";
+
+                /**
+                 * Name given to the database connections of the application: the triggers do not notify their changes,
+                 * which Hibernate already invalidates.
+                 */
+                private String applicationName = "referentielms";
+
+                private int pollTimeoutMs = 500;
+
+                private long retryDelayMs = 5000;
+
+                public boolean isEnabled() {
+                    return enabled;
+                }
+
+                public void setEnabled(boolean enabled) {
+                    this.enabled = enabled;
+                }
+
+                public String getChannel() {
+                    return channel;
+                }
+
+                public void setChannel(String channel) {
+                    this.channel = channel;
+                }
+
+                public String getApplicationName() {
+                    return applicationName;
+                }
+
+                public void setApplicationName(String applicationName) {
+                    this.applicationName = applicationName;
+                }
+
+                public int getPollTimeoutMs() {
+                    return pollTimeoutMs;
+                }
+
+                public void setPollTimeoutMs(int pollTimeoutMs) {
+                    this.pollTimeoutMs = pollTimeoutMs;
+                }
+
+                public long getRetryDelayMs() {
+                    return retryDelayMs;
+                }
+
+                public void setRetryDelayMs(long retryDelayMs) {
+                    this.retryDelayMs = retryDelayMs;
+                }
+            }
+        }
+
+        /**
+         * Sharing of the concurrent loads of an entity, or of a page, see
+         * {@link sn.ssi.sigmap.service.cache.CacheLoadCoalescer}.
+         */
+        public static class Dictionary {
+
+            /**
+             * Store the repeated values of the cached entities as codes of a dictionary shared by the cluster, see StringDictionary.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Attributes stored as codes, keyed by the simple name of the domain entity. Only attributes with few
+             * distinct values save memory.
+             */
+            private Map<String, List<String>> attributes = new HashMap<>();
+
+            /**
+             * Free-text attributes whose comma-separated fragments are stored as codes, keyed by the simple name of the
+             * domain entity.
+             */
+            private Map<String, List<String>> fragmentedAttributes = new HashMap<>();
+
+            /**
+             * Number of times a member stores a string before giving it a code, so that unique values are stored as
+             * they are.
+             */
+            private int minOccurrences = 2;
+
+            /**
+             * Number of codes above which new values are stored as they are.
+             */
+            private int maxEntries = 100000;
+
+            /**
+             * Length above which a value is stored as it is.
+             */
+            private int maxLength = 256;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Map<String, List<String>> getAttributes() {
+                return attributes;
+            }
+
+            public void setAttributes(Map<String, List<String>> attributes) {
+                this.attributes = attributes;
+            }
+
+            public Map<String, List<String>> getFragmentedAttributes() {
+                return fragmentedAttributes;
+            }
+
+            public void setFragmentedAttributes(Map<String, List<String>> fragmentedAttributes) {
+                this.fragmentedAttributes = fragmentedAttributes;
+            }
+
+            public int getMinOccurrences() {
+                return minOccurrences;
+            }
+
+            public void setMinOccurrences(int minOccurrences) {
+                this.minOccurrences = minOccurrences;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public int getMaxLength() {
+                return maxLength;
+            }
+
+            public void setMaxLength(int maxLength) {
+                this.maxLength = maxLength;
+            }
+        }
+
+        public static class LoadCoalescing {
+
+            private boolean enabled = true;
+
+            /**
+             * Also serializes the loads of an entity across the cluster, with a lock of a Hazelcast map.
+             */
+            private boolean clusterWide = false;
+
+            /**
+             * The load runs without the cluster lock once this time is elapsed.
+             */
+            private long clusterLockTimeoutMs = 2000;
+
+            /**
+             * Reloads the hot entities in the cache before their time to live is reached.
+             */
+            private boolean earlyRefresh = true;
+
+            /**
+             * Above 1 the entities are refreshed earlier, below 1 later.
+             */
+            private double earlyRefreshBeta = 1.0;
+
+            private int maxTrackedEntities = 10000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public boolean isClusterWide() {
+                return clusterWide;
+            }
+
+            public void setClusterWide(boolean clusterWide) {
+                this.clusterWide = clusterWide;
+            }
+
+            public long getClusterLockTimeoutMs() {
+                return clusterLockTimeoutMs;
+            }
+
+            public void setClusterLockTimeoutMs(long clusterLockTimeoutMs) {
+                this.clusterLockTimeoutMs = clusterLockTimeoutMs;
+            }
+
+            public boolean isEarlyRefresh() {
+                return earlyRefresh;
+            }
+
+            public void setEarlyRefresh(boolean earlyRefresh) {
+                this.earlyRefresh = earlyRefresh;
+            }
+
+            public double getEarlyRefreshBeta() {
+                return earlyRefreshBeta;
+            }
+
+            public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+                this.earlyRefreshBeta = earlyRefreshBeta;
+            }
+
+            public int getMaxTrackedEntities() {
+                return maxTrackedEntities;
+            }
+
+            public void setMaxTrackedEntities(int maxTrackedEntities) {
+                this.maxTrackedEntities = maxTrackedEntities;
+            }
+        }
+
+        public static class WarmUp {
+
+            private boolean enabled = false;
+
+            /**
+             * Simple names of the domain entities to preload, all cached entities when empty.
+             */
+            private List<String> entities = new ArrayList<>();
+
+            private int fetchSize = 500;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getEntities() {
+                return entities;
+            }
+
+            public void setEntities(List<String> entities) {
+                this.entities = entities;
+            }
+
+            public int getFetchSize() {
+                return fetchSize;
+            }
+
+            public void setFetchSize(int fetchSize) {
+                this.fetchSize = fetchSize;
+            }
+        }
+    }
+
+    public static class Referentiel {
+
+        private final Bundle bundle = new Bundle();
+
+        private final Reactive reactive = new Reactive();
+
+        private final WriteBehind writeBehind = new WriteBehind();
+
+        private final Events events = new Events();
+
+        private final Snapshot snapshot = new Snapshot();
+
+        public Bundle getBundle() {
+            return bundle;
+        }
+
+        public Reactive getReactive() {
+            return reactive;
+        }
+
+        public WriteBehind getWriteBehind() {
+            return writeBehind;
+        }
+
+        public Events getEvents() {
+            return events;
+        }
+
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public static class Bundle {
+
+            /**
+             * Resource names of the referentials that can be part of a bundle, all referentials when empty.
+             */
+            private List<String> sections = new ArrayList<>();
+
+            public List<String> getSections() {
+                return sections;
+            }
+
+            public void setSections(List<String> sections) {
+                this.sections = sections;
+            }
+        }
+
+        public static class Reactive {
+
+            /**
+             * Threads running the blocking JPA calls of the reactive API, at most the size of the connection pool.
+             */
+            private int jdbcThreads = 10;
+
+            private int jdbcQueueSize = 1000;
+
+            /**
+             * Number of entities loaded by each query of a streamed referential.
+             */
+            private int pageSize = 500;
+
+            public int getJdbcThreads() {
+                return jdbcThreads;
+            }
+
+            public void setJdbcThreads(int jdbcThreads) {
+                this.jdbcThreads = jdbcThreads;
+            }
+
+            public int getJdbcQueueSize() {
+                return jdbcQueueSize;
+            }
+
+            public void setJdbcQueueSize(int jdbcQueueSize) {
+                this.jdbcQueueSize = jdbcQueueSize;
+            }
+
+            public int getPageSize() {
+                return pageSize;
+            }
+
+            public void setPageSize(int pageSize) {
+                this.pageSize = pageSize;
+            }
+        }
+
+        public static class WriteBehind {
+
+            /**
+             * Merge the partial updates in memory and write them in batches, see WriteBehindService.
+             */
+            private boolean enabled = false;
+
+            private long flushIntervalMs = 200;
+
+            /**
+             * Number of entities with pending updates above which they are written immediately.
+             */
+            private int maxPendingEntities = 1000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getFlushIntervalMs() {
+                return flushIntervalMs;
+            }
+
+            public void setFlushIntervalMs(long flushIntervalMs) {
+                this.flushIntervalMs = flushIntervalMs;
+            }
+
+            public int getMaxPendingEntities() {
+                return maxPendingEntities;
+            }
+
+            public void setMaxPendingEntities(int maxPendingEntities) {
+                this.maxPendingEntities = maxPendingEntities;
+            }
+        }
+
+        public static class Events {
+
+            /**
+             * Number of recent changes kept on each node, replayed to the clients resuming with a Last-Event-ID.
+             */
+            private int replayBufferSize = 1000;
+
+            /**
+             * Interval of the comments sent on idle streams, so that the proxies keep them open.
+             */
+            private long heartbeatIntervalMs = 15000;
+
+            /**
+             * Duration after which a stream is closed, the clients reconnect with their Last-Event-ID.
+             */
+            private long timeoutMs = 1800000;
+
+            /**
+             * Time waited for a missing change before the following ones are released without it.
+             */
+            private long gapTimeoutMs = 2000;
+
+            public int getReplayBufferSize() {
+                return replayBufferSize;
+            }
+
+            public void setReplayBufferSize(int replayBufferSize) {
+                this.replayBufferSize = replayBufferSize;
+            }
+
+            public long getHeartbeatIntervalMs() {
+                return heartbeatIntervalMs;
+            }
+
+            public void setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+                this.heartbeatIntervalMs = heartbeatIntervalMs;
+            }
+
+            public long getTimeoutMs() {
+                return timeoutMs;
+            }
+
+            public void setTimeoutMs(long timeoutMs) {
+                this.timeoutMs = timeoutMs;
+            }
+
+            public long getGapTimeoutMs() {
+                return gapTimeoutMs;
+            }
+
+            public void setGapTimeoutMs(long gapTimeoutMs) {
+                this.gapTimeoutMs = gapTimeoutMs;
+            }
+        }
+
+        public static class Snapshot {
+
+            /**
+             * Write the snapshots periodically and serve the bundles from the latest one on start, see ReferentielSnapshotService.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Directory of the snapshot files, required when enabled: a persistent volume, so that the nodes restart from it.
+             */
+            private String directory;
+
+            private long intervalMs = 300000;
+
+            /**
+             * Number of snapshot files kept in the directory.
+             */
+            private int retained = 2;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            public long getIntervalMs() {
+                return intervalMs;
+            }
+
+            public void setIntervalMs(long intervalMs) {
+                this.intervalMs = intervalMs;
+            }
+
+            public int getRetained() {
+                return retained;
+            }
+
+            public void setRetained(int retained) {
+                this.retained = retained;
+            }
+        }
+    }
+
+    public static class Compression {
+
+        /**
+         * Bodies smaller than this number of bytes are never compressed.
+         */
+        private int minResponseSize = 1024;
+
+        /**
+         * Number of compressed responses kept in memory.
+         */
+        private int maxCachedResponses = 256;
+
+        /**
+         * Number of bytes of the compressed responses kept in memory, with their uncompressed body.
+         */
+        private long maxCachedBytes = 64L * 1024 * 1024;
+
+        /**
+         * Keep the listings of the referentials with their gzip variant too, see PrecompressedPageFilter.
+         */
+        private boolean pages = true;
+
+        public int getMinResponseSize() {
+            return minResponseSize;
+        }
+
+        public void setMinResponseSize(int minResponseSize) {
+            this.minResponseSize = minResponseSize;
+        }
+
+        public int getMaxCachedResponses() {
+            return maxCachedResponses;
+        }
+
+        public void setMaxCachedResponses(int maxCachedResponses) {
+            this.maxCachedResponses = maxCachedResponses;
+        }
+
+        public long getMaxCachedBytes() {
+            return maxCachedBytes;
+        }
+
+        public void setMaxCachedBytes(long maxCachedBytes) {
+            this.maxCachedBytes = maxCachedBytes;
+        }
+
+        public boolean isPages() {
+            return pages;
+        }
+
+        public void setPages(boolean pages) {
+            this.pages = pages;
+        }
+    }
+
+    /**
+     * Capture of the slow statements, listed by {@code /management/slow-queries}.
+     */
+    public static class SlowQueries {
+
+        private boolean enabled = true;
+
+        /**
+         * Statements taking at least this time, including the fetch of their rows, are kept.
+         */
+        private long thresholdMs = 500;
+
+        /**
+         * Number of statements kept, the oldest ones are dropped first.
+         */
+        private int capacity = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getThresholdMs() {
+            return thresholdMs;
+        }
+
+        public void setThresholdMs(long thresholdMs) {
+            this.thresholdMs = thresholdMs;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    public static class Pagination {
+
+        /**
+         * Count strategies keyed by the simple name of the domain entity, {@code EXACT} when not set.
+         */
+        private Map<String, CountStrategy> countStrategies = new HashMap<>();
+
+        /**
+         * Tables with fewer rows in the PostgreSQL statistics are counted exactly by the {@code ESTIMATED} strategy.
+         */
+        private long estimatedMinRows = 100000;
+
+        private long cachedCountMaxAgeSeconds = 300;
+
+        public Map<String, CountStrategy> getCountStrategies() {
+            return countStrategies;
+        }
+
+        public void setCountStrategies(Map<String, CountStrategy> countStrategies) {
+            this.countStrategies = countStrategies;
+        }
+
+        public long getEstimatedMinRows() {
+            return estimatedMinRows;
+        }
+
+        public void setEstimatedMinRows(long estimatedMinRows) {
+            this.estimatedMinRows = estimatedMinRows;
+        }
+
+        public long getCachedCountMaxAgeSeconds() {
+            return cachedCountMaxAgeSeconds;
+        }
+
+        public void setCachedCountMaxAgeSeconds(long cachedCountMaxAgeSeconds) {
+            this.cachedCountMaxAgeSeconds = cachedCountMaxAgeSeconds;
+        }
+    }
+
+    /**
+     * Breakdown of the time spent by the API requests, see ServerTimingFilter.
+     */
+    public static class ServerTiming {
+
+        private boolean enabled = false;
+
+        /**
+         * Send the breakdown to the clients in the {@code Server-Timing} header, otherwise it is only recorded in the
+         * metrics. The header is sent to all the clients, authenticated or not.
+         */
+        private boolean header = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isHeader() {
+            return header;
+        }
+
+        public void setHeader(boolean header) {
+            this.header = header;
+        }
+    }
+
+    /**
+     * Java Flight Recorder recordings started by {@code /management/profiling}.
+     */
+    public static class Profiling {
+
+        private boolean enabled = true;
+
+        private String directory = System.getProperty("java.io.tmpdir") + "/referentielms-profiling";
+
+        /**
+         * Duration of a recording when none is given.
+         */
+        private long defaultDurationSeconds = 60;
+
+        /**
+         * A recording is stopped after this duration at the latest.
+         */
+        private long maxDurationSeconds = 600;
+
+        /**
+         * The oldest events of a recording are dropped above this size.
+         */
+        private long maxSizeMegabytes = 100;
+
+        /**
+         * Number of stopped recordings kept, the oldest files are deleted first.
+         */
+        private int retained = 3;
+
+        /**
+         * Number of hot methods, allocation sites and contended locks in the summary of a recording.
+         */
+        private int summarySize = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getDefaultDurationSeconds() {
+            return defaultDurationSeconds;
+        }
+
+        public void setDefaultDurationSeconds(long defaultDurationSeconds) {
+            this.defaultDurationSeconds = defaultDurationSeconds;
+        }
+
+        public long getMaxDurationSeconds() {
+            return maxDurationSeconds;
+        }
+
+        public void setMaxDurationSeconds(long maxDurationSeconds) {
+            this.maxDurationSeconds = maxDurationSeconds;
+        }
+
+        public long getMaxSizeMegabytes() {
+            return maxSizeMegabytes;
+        }
+
+        public void setMaxSizeMegabytes(long maxSizeMegabytes) {
+            this.maxSizeMegabytes = maxSizeMegabytes;
+        }
+
+        public int getRetained() {
+            return retained;
+        }
+
+        public void setRetained(int retained) {
+            this.retained = retained;
+        }
+
+        public int getSummarySize() {
+            return summarySize;
+        }
+
+        public void setSummarySize(int summarySize) {
+            this.summarySize = summarySize;
+        }
+    }
+
+    /**
+     * Adaptive concurrency limits of the API requests, see ConcurrencyLimitFilter.
+     */
+    public static class ConcurrencyLimit {
+
+        private boolean enabled = false;
+
+        /**
+         * Value of the {@code Retry-After} header of the rejected requests.
+         */
+        private long retryAfterSeconds = 1;
+
+        /**
+         * Paths read with {@code GET} but limited with the exports, as they are expensive and long to download.
+         */
+        private List<String> exportPaths = new ArrayList<>();
+
+        /**
+         * Paths never limited, such as the long-lived streams.
+         */
+        private List<String> excludedPaths = new ArrayList<>();
+
+        private final Pool reads = new Pool(LimitAlgorithm.GRADIENT, 100, 10, 500);
+
+        private final Pool writes = new Pool(LimitAlgorithm.AIMD, 20, 2, 100);
+
+        /**
+         * Their download time follows the size of the export and the bandwidth of the client, so the default timeout
+         * only reduces the limit for the downloads stuck for minutes.
+         */
+        private final Pool exports = new Pool(LimitAlgorithm.AIMD, 4, 1, 10, 600000);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(long retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public List<String> getExportPaths() {
+            return exportPaths;
+        }
+
+        public void setExportPaths(List<String> exportPaths) {
+            this.exportPaths = exportPaths;
+        }
+
+        public List<String> getExcludedPaths() {
+            return excludedPaths;
+        }
+
+        public void setExcludedPaths(List<String> excludedPaths) {
+            this.excludedPaths = excludedPaths;
+        }
+
+        public Pool getReads() {
+            return reads;
+        }
+
+        public Pool getWrites() {
+            return writes;
+        }
+
+        public Pool getExports() {
+            return exports;
+        }
+
+        public static class Pool {
+
+            private LimitAlgorithm algorithm;
+
+            private int initialLimit;
+
+            private int minLimit;
+
+            private int maxLimit;
+
+            /**
+             * AIMD only: a request slower than this reduces the limit, as a failed one.
+             */
+            private long timeoutMs = 2000;
+
+            public Pool(LimitAlgorithm algorithm, int initialLimit, int minLimit, int maxLimit) {
+                this.algorithm = algorithm;
+                this.initialLimit = initialLimit;
+                this.minLimit = minLimit;
+                this.maxLimit = maxLimit;
+            }
+
+            public Pool(LimitAlgorithm algorithm, int initialLimit, int minLimit, int maxLimit, long timeoutMs) {
+                this(algorithm, initialLimit, minLimit, maxLimit);
+                this.timeoutMs = timeoutMs;
+            }
+
+            public LimitAlgorithm getAlgorithm() {
+                return algorithm;
+            }
+
+            public void setAlgorithm(LimitAlgorithm algorithm) {
+                this.algorithm = algorithm;
+            }
+
+            public int getInitialLimit() {
+                return initialLimit;
+            }
+
+            public void setInitialLimit(int initialLimit) {
+                this.initialLimit = initialLimit;
+            }
+
+            public int getMinLimit() {
+                return minLimit;
+            }
+
+            public void setMinLimit(int minLimit) {
+                this.minLimit = minLimit;
+            }
+
+            public int getMaxLimit() {
+                return maxLimit;
+            }
+
+            public void setMaxLimit(int maxLimit) {
+                this.maxLimit = maxLimit;
+            }
+
+            public long getTimeoutMs() {
+                return timeoutMs;
+            }
+
+            public void setTimeoutMs(long timeoutMs) {
+                this.timeoutMs = timeoutMs;
+            }
+        }
+    }
 }
@@ -7,9 +7,17 @@ import com.hazelcast.config.*;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.Hazelcast;
 
+import sn.ssi.sigmap.config.cache.CacheConcurrencyStrategies;
+import sn.ssi.sigmap.config.cache.CacheEntryFactory;
+import sn.ssi.sigmap.config.cache.CacheSerializers;
+import sn.ssi.sigmap.config.cache.StringDictionary;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.autoconfigure.web.ServerProperties;
 
 import org.springframework.cache.CacheManager;
@@ -17,6 +25,7 @@ import org.springframework.cache.CacheManager;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
 import io.github.jhipster.config.cache.PrefixedKeyGenerator;
 import org.springframework.cache.annotation.EnableCaching;
@@ -28,6 +37,7 @@ import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
 
 import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
 
 @Configuration
 @EnableCaching
@@ -69,11 +79,38 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties) {
+    public HibernatePropertiesCustomizer cacheConcurrencyStrategiesCustomizer(ApplicationProperties applicationProperties) {
+        return hibernateProperties -> CacheConcurrencyStrategies.configure(hibernateProperties, applicationProperties.getCache());
+    }
+
+    @Bean
+    public StringDictionary stringDictionary(ApplicationProperties applicationProperties) {
+        return new StringDictionary(applicationProperties.getCache().getDictionary());
+    }
+
+    @Bean
+    public CacheEntryFactory cacheEntryFactory() {
+        return new CacheEntryFactory();
+    }
+
+    @Bean
+    public SmartInitializingSingleton cacheSerializersEntitiesBinder(CacheEntryFactory cacheEntryFactory, StringDictionary stringDictionary,
+                                                                     EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            cacheEntryFactory.bind(sessionFactory);
+            stringDictionary.bindEntities(sessionFactory);
+        };
+    }
+
+    @Bean
+    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties,
+                                               CacheEntryFactory cacheEntryFactory, StringDictionary stringDictionary) {
         log.debug("Configuring Hazelcast");
         HazelcastInstance hazelCastInstance = Hazelcast.getHazelcastInstanceByName("referentielms");
         if (hazelCastInstance != null) {
             log.debug("Hazelcast already initialized");
+            stringDictionary.bind(hazelCastInstance);
             return hazelCastInstance;
         }
         Config config = new Config();
@@ -109,12 +146,23 @@ public class CacheConfiguration {
                 }
             }
         }
-        config.getMapConfigs().put("default", initializeDefaultMapConfig(jHipsterProperties));
+        config.getMapConfigs().put("default",
+            initializeDefaultMapConfig(jHipsterProperties, applicationProperties.getCache().getDefaultRegion()));
+        checkHeapRegions(applicationProperties.getCache());
+        CacheSerializers.configure(config.getSerializationConfig(), cacheEntryFactory,
+            applicationProperties.getCache().getDictionary().isEnabled() ? stringDictionary : null);
 
         // Full reference is available at: https://docs.hazelcast.org/docs/management-center/3.9/manual/html/Deploying_and_Starting.html
         config.setManagementCenterConfig(initializeDefaultManagementCenterConfig(jHipsterProperties));
-        config.getMapConfigs().put("sn.ssi.sigmap.domain.*", initializeDomainMapConfig(jHipsterProperties));
-        return Hazelcast.newHazelcastInstance(config);
+        config.getMapConfigs().put("sn.ssi.sigmap.domain.*",
+            initializeDomainMapConfig(jHipsterProperties, applicationProperties.getCache().getDefaultRegion()));
+        // An exact map name takes precedence over the wildcard configuration above
+        applicationProperties.getCache().getRegions().forEach((entityName, region) ->
+            config.getMapConfigs().put("sn.ssi.sigmap.domain." + entityName, initializeDomainMapConfig(jHipsterProperties, region)));
+        config.getMapConfigs().put("referentielms-dictionary-*", initializeDictionaryMapConfig(jHipsterProperties));
+        hazelCastInstance = Hazelcast.newHazelcastInstance(config);
+        stringDictionary.bind(hazelCastInstance);
+        return hazelCastInstance;
     }
 
     private ManagementCenterConfig initializeDefaultManagementCenterConfig(JHipsterProperties jHipsterProperties) {
@@ -125,7 +173,17 @@ public class CacheConfiguration {
         return managementCenterConfig;
     }
 
-    private MapConfig initializeDefaultMapConfig(JHipsterProperties jHipsterProperties) {
+    private void checkHeapRegions(ApplicationProperties.Cache cache) {
+        // The NATIVE in-memory format needs Hazelcast Enterprise HD, the open source edition would fail on the first put
+        boolean nativeRegions = cache.getDefaultRegion().getInMemoryFormat() == InMemoryFormat.NATIVE ||
+            cache.getRegions().values().stream().anyMatch(region -> region.getInMemoryFormat() == InMemoryFormat.NATIVE);
+        if (nativeRegions) {
+            throw new IllegalStateException("The NATIVE in-memory format of the cache regions requires Hazelcast Enterprise HD, " +
+                "use BINARY or OBJECT");
+        }
+    }
+
+    private MapConfig initializeDefaultMapConfig(JHipsterProperties jHipsterProperties, ApplicationProperties.Cache.Region defaultRegion) {
         MapConfig mapConfig = new MapConfig();
 
         /*
@@ -142,22 +200,46 @@ public class CacheConfiguration {
         LFU (Least Frequently Used).
         NONE is the default.
         */
-        mapConfig.setEvictionPolicy(EvictionPolicy.LRU);
+        mapConfig.setEvictionPolicy(defaultRegion.getEvictionPolicy());
 
         /*
         Maximum size of the map. When max size is reached,
         map is evicted based on the policy defined.
-        Any integer between 0 and Integer.MAX_VALUE. 0 means
-        Integer.MAX_VALUE. Default is 0.
+        The other maps, such as the query cache and the Spring caches,
+        are bounded like the default second-level cache region.
         */
-        mapConfig.setMaxSizeConfig(new MaxSizeConfig(0, MaxSizeConfig.MaxSizePolicy.USED_HEAP_SIZE));
+        mapConfig.setMaxSizeConfig(new MaxSizeConfig(defaultRegion.getMaxSize(), defaultRegion.getMaxSizePolicy()));
+
+        return mapConfig;
+    }
 
+    private MapConfig initializeDomainMapConfig(JHipsterProperties jHipsterProperties, ApplicationProperties.Cache.Region region) {
+        MapConfig mapConfig = new MapConfig();
+        JHipsterProperties.Cache.Hazelcast hazelcast = jHipsterProperties.getCache().getHazelcast();
+        mapConfig.setTimeToLiveSeconds(region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : hazelcast.getTimeToLiveSeconds());
+        mapConfig.setMaxIdleSeconds(region.getMaxIdleSeconds());
+        mapConfig.setBackupCount(region.getBackupCount() != null ? region.getBackupCount() : hazelcast.getBackupCount());
+        mapConfig.setEvictionPolicy(region.getEvictionPolicy());
+        /*
+        Each region is bounded on its own, so that a large region such as
+        Fournisseur only evicts its own entries. PER_NODE is a number of
+        entries, the USED_HEAP_* and FREE_HEAP_* policies are heap based.
+        */
+        mapConfig.setMaxSizeConfig(new MaxSizeConfig(region.getMaxSize(), region.getMaxSizePolicy()));
+        mapConfig.setInMemoryFormat(region.getInMemoryFormat());
         return mapConfig;
     }
 
-    private MapConfig initializeDomainMapConfig(JHipsterProperties jHipsterProperties) {
+    private MapConfig initializeDictionaryMapConfig(JHipsterProperties jHipsterProperties) {
         MapConfig mapConfig = new MapConfig();
-        mapConfig.setTimeToLiveSeconds(jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds());
+        /*
+        A code lost with its partition cannot be decoded anymore, so the
+        dictionary is never evicted and always has a backup.
+        */
+        mapConfig.setBackupCount(Math.max(jHipsterProperties.getCache().getHazelcast().getBackupCount(), 1));
+        mapConfig.setEvictionPolicy(EvictionPolicy.NONE);
+        mapConfig.setTimeToLiveSeconds(0);
+        mapConfig.setMaxIdleSeconds(0);
         return mapConfig;
     }
 
@@ -0,0 +1,19 @@
+package sn.ssi.sigmap.config;
+
+import sn.ssi.sigmap.aop.cache.CacheLoadCoalescingAspect;
+import sn.ssi.sigmap.service.cache.CacheEarlyRefresher;
+import sn.ssi.sigmap.service.cache.CacheLoadCoalescer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "application.cache.load-coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheLoadCoalescingConfiguration {
+
+    @Bean
+    public CacheLoadCoalescingAspect cacheLoadCoalescingAspect(CacheLoadCoalescer cacheLoadCoalescer, CacheEarlyRefresher cacheEarlyRefresher) {
+        return new CacheLoadCoalescingAspect(cacheLoadCoalescer, cacheEarlyRefresher);
+    }
+}
@@ -0,0 +1,33 @@
+package sn.ssi.sigmap.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sn.ssi.sigmap.service.referentiel.ReferentielGenerations;
+import sn.ssi.sigmap.web.rest.compression.PrecompressedPageFilter;
+import sn.ssi.sigmap.web.rest.compression.PrecompressedResponses;
+
+@Configuration
+@ConditionalOnProperty(prefix = "application.compression", name = "pages", havingValue = "true", matchIfMissing = true)
+public class CompressionConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(CompressionConfiguration.class);
+
+    /**
+     * Runs after the security filters, as the kept listings are served without reaching the controllers.
+     */
+    @Bean
+    public FilterRegistrationBean<PrecompressedPageFilter> precompressedPageFilter(PrecompressedResponses precompressedResponses,
+                                                                                   ReferentielGenerations referentielGenerations) {
+        log.debug("Keeping the listings of the referentials precompressed");
+        FilterRegistrationBean<PrecompressedPageFilter> registration =
+            new FilterRegistrationBean<>(new PrecompressedPageFilter(precompressedResponses, referentielGenerations));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,43 @@
+package sn.ssi.sigmap.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import sn.ssi.sigmap.config.limit.AdaptiveLimit;
+import sn.ssi.sigmap.config.limit.ConcurrencyLimitFilter;
+import sn.ssi.sigmap.config.limit.ConcurrencyLimiter;
+
+@Configuration
+@ConditionalOnProperty(prefix = "application.concurrency-limit", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitConfiguration.class);
+
+    /**
+     * Runs before the security filters, so that a rejected request costs as little as possible.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ApplicationProperties applicationProperties,
+                                                                                 MeterRegistry meterRegistry) {
+        ApplicationProperties.ConcurrencyLimit properties = applicationProperties.getConcurrencyLimit();
+        log.debug("Limiting the concurrency of the API requests, {} reads, {} writes and {} exports to start with",
+            properties.getReads().getInitialLimit(), properties.getWrites().getInitialLimit(), properties.getExports().getInitialLimit());
+        ConcurrencyLimiter reads = new ConcurrencyLimiter("reads", AdaptiveLimit.create(properties.getReads()));
+        ConcurrencyLimiter writes = new ConcurrencyLimiter("writes", AdaptiveLimit.create(properties.getWrites()));
+        ConcurrencyLimiter exports = new ConcurrencyLimiter("exports", AdaptiveLimit.create(properties.getExports()));
+        reads.bindTo(meterRegistry);
+        writes.bindTo(meterRegistry);
+        exports.bindTo(meterRegistry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(new ConcurrencyLimitFilter(
+            reads, writes, exports, properties.getExportPaths(), properties.getExcludedPaths(), properties.getRetryAfterSeconds()));
+        registration.addUrlPatterns("/api/*");
+        // After the Server-Timing filter, so that the rejected requests are timed too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
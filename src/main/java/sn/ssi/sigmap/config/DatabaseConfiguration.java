@@ -9,10 +9,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import sn.ssi.sigmap.repository.support.CountingJpaRepositoryFactoryBean;
 
 
 @Configuration
-@EnableJpaRepositories("sn.ssi.sigmap.repository")
+@EnableJpaRepositories(value = "sn.ssi.sigmap.repository", repositoryFactoryBeanClass = CountingJpaRepositoryFactoryBean.class)
 @EnableJpaAuditing(auditorAwareRef = "springSecurityAuditorAware")
 @EnableTransactionManagement
 public class DatabaseConfiguration {
@@ -0,0 +1,34 @@
+package sn.ssi.sigmap.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sn.ssi.sigmap.config.profiling.FlightRecordings;
+import sn.ssi.sigmap.config.profiling.ProfilingEndpoint;
+
+/**
+ * Java Flight Recorder is part of the JDK from Java 11, the endpoint is not available on older runtimes.
+ */
+@Configuration
+@ConditionalOnClass(name = "jdk.jfr.FlightRecorder")
+@ConditionalOnProperty(prefix = "application.profiling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfilingConfiguration.class);
+
+    @Bean
+    public FlightRecordings flightRecordings(ApplicationProperties applicationProperties) {
+        if (!FlightRecordings.isAvailable()) {
+            log.warn("Java Flight Recorder is not available, /management/profiling cannot start recordings");
+        }
+        return new FlightRecordings(applicationProperties.getProfiling());
+    }
+
+    @Bean
+    public ProfilingEndpoint profilingEndpoint(FlightRecordings flightRecordings) {
+        return new ProfilingEndpoint(flightRecordings);
+    }
+}
@@ -0,0 +1,24 @@
+package sn.ssi.sigmap.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ReactiveConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(ReactiveConfiguration.class);
+
+    /**
+     * Scheduler of the blocking JPA calls made by the reactive API, so that they never run on the request threads.
+     */
+    @Bean(name = "jdbcScheduler", destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Referentiel.Reactive reactive = applicationProperties.getReferentiel().getReactive();
+        log.debug("Creating JDBC Scheduler with {} threads", reactive.getJdbcThreads());
+        return Schedulers.newBoundedElastic(reactive.getJdbcThreads(), reactive.getJdbcQueueSize(), "referentielms-jdbc");
+    }
+}
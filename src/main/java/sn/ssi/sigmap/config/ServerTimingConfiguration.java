@@ -0,0 +1,49 @@
+package sn.ssi.sigmap.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import sn.ssi.sigmap.config.timing.ServerTimingFilter;
+import sn.ssi.sigmap.config.timing.TimingJackson2HttpMessageConverter;
+import sn.ssi.sigmap.config.timing.TimingSessionEventListener;
+
+@Configuration
+@ConditionalOnProperty(prefix = "application.server-timing", name = "enabled", havingValue = "true")
+public class ServerTimingConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingConfiguration.class);
+
+    /**
+     * Runs before the security filters, so that the authentication is timed.
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        log.debug("Timing the API requests");
+        FilterRegistrationBean<ServerTimingFilter> registration =
+            new FilterRegistrationBean<>(new ServerTimingFilter(meterRegistry, applicationProperties.getServerTiming().isHeader()));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer timingSessionEventListenerCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, TimingSessionEventListener.class.getName());
+    }
+
+    /**
+     * Replaces the JSON converter of Spring Boot.
+     */
+    @Bean
+    public TimingJackson2HttpMessageConverter timingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimingJackson2HttpMessageConverter(objectMapper);
+    }
+}
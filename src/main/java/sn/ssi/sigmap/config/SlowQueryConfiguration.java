@@ -0,0 +1,50 @@
+package sn.ssi.sigmap.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sn.ssi.sigmap.config.jdbc.SlowQueriesEndpoint;
+import sn.ssi.sigmap.config.jdbc.SlowQueryDataSource;
+import sn.ssi.sigmap.config.jdbc.SlowQueryLog;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "application.slow-queries", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryConfiguration.class);
+
+    @Bean
+    public SlowQueryLog slowQueryLog(ApplicationProperties applicationProperties) {
+        ApplicationProperties.SlowQueries slowQueries = applicationProperties.getSlowQueries();
+        log.debug("Capturing the statements slower than {} ms", slowQueries.getThresholdMs());
+        return new SlowQueryLog(slowQueries.getThresholdMs(), slowQueries.getCapacity());
+    }
+
+    @Bean
+    public SlowQueriesEndpoint slowQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueriesEndpoint(slowQueryLog);
+    }
+
+    /**
+     * Wraps the data sources once they are configured, so that every statement run by Hibernate, Liquibase or the
+     * JDBC templates is timed.
+     */
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource((DataSource) bean, slowQueryLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
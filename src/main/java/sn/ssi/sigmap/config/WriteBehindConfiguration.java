@@ -0,0 +1,22 @@
+package sn.ssi.sigmap.config;
+
+import sn.ssi.sigmap.aop.writebehind.WriteBehindAspect;
+import sn.ssi.sigmap.service.referentiel.WriteBehindService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@ConditionalOnProperty(prefix = "application.referentiel.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfiguration {
+
+    @Bean
+    public WriteBehindAspect writeBehindAspect(WriteBehindService writeBehindService, EntityManagerFactory entityManagerFactory,
+                                               @Value("${jhipster.clientApp.name}") String applicationName) {
+        return new WriteBehindAspect(writeBehindService, entityManagerFactory.getPersistenceUnitUtil(), applicationName);
+    }
+}
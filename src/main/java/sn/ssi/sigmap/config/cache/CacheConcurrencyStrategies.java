@@ -0,0 +1,78 @@
+package sn.ssi.sigmap.config.cache;
+
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.domain.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Overrides the {@link org.hibernate.annotations.Cache} concurrency strategy of the cached entities from the region
+ * settings.
+ * <p>
+ * A region without a strategy keeps the one of its annotation. {@code READ_WRITE} takes a soft lock in the Hazelcast
+ * map around every update; {@code NONSTRICT_READ_WRITE} only evicts the entry after the commit, so a node which read
+ * the row before the commit can put the former state back until the entry expires; {@code READ_ONLY} rejects the
+ * updates, which are made in the database and followed by an invalidation of the region.
+ */
+public final class CacheConcurrencyStrategies {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheConcurrencyStrategies.class);
+
+    private static final List<Class<?>> CACHED_ENTITIES = Collections.unmodifiableList(Arrays.asList(
+        Banque.class,
+        CategorieFournisseur.class,
+        ConfigurationTaux.class,
+        CriteresQualification.class,
+        Delais.class,
+        Departement.class,
+        Direction.class,
+        Fonction.class,
+        Fournisseur.class,
+        Garantie.class,
+        GroupesImputation.class,
+        Hierarchie.class,
+        JoursFeries.class,
+        ModeSelection.class,
+        NaturesGarantie.class,
+        Pays.class,
+        PersonnesRessources.class,
+        PiecesAdministratives.class,
+        SituationMatrimoniale.class,
+        SourcesFinancement.class,
+        SpecialitesPersonnel.class,
+        TypeAutoriteContractante.class,
+        TypesMarches.class
+    ));
+
+    private CacheConcurrencyStrategies() {
+    }
+
+    public static List<Class<?>> getCachedEntities() {
+        return CACHED_ENTITIES;
+    }
+
+    public static void configure(Map<String, Object> hibernateProperties, ApplicationProperties.Cache cache) {
+        for (Class<?> entityClass : CACHED_ENTITIES) {
+            ApplicationProperties.Cache.Region region = cache.getRegions().get(entityClass.getSimpleName());
+            CacheConcurrencyStrategy strategy = region != null && region.getConcurrencyStrategy() != null ?
+                region.getConcurrencyStrategy() : cache.getDefaultRegion().getConcurrencyStrategy();
+            if (strategy == null) {
+                continue;
+            }
+            if (strategy == CacheConcurrencyStrategy.NONE || strategy == CacheConcurrencyStrategy.TRANSACTIONAL) {
+                throw new IllegalStateException("The " + strategy + " cache concurrency strategy is not supported by " +
+                    "the Hazelcast regions, see the region of " + entityClass.getSimpleName());
+            }
+            log.debug("Using the {} cache concurrency strategy for {}", strategy, entityClass.getSimpleName());
+            hibernateProperties.put(AvailableSettings.CLASS_CACHE_PREFIX + "." + entityClass.getName(),
+                strategy.toAccessType().getExternalName());
+        }
+    }
+}
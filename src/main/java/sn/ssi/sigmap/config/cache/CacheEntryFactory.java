@@ -0,0 +1,66 @@
+package sn.ssi.sigmap.config.cache;
+
+import org.hibernate.MappingException;
+import org.hibernate.cache.spi.entry.StandardCacheEntryImpl;
+import org.hibernate.cache.spi.entry.StructuredCacheEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rebuilds the entries of the Hibernate second-level cache from their disassembled state.
+ * <p>
+ * The constructor of {@link StandardCacheEntryImpl} taking a disassembled state is not public, so the entries are
+ * rebuilt through the public {@link StructuredCacheEntry} structure, which Hibernate uses for the same purpose when
+ * {@code hibernate.cache.use_structured_entries} is set. The entity persisters are only known once the session
+ * factory is started, see {@link #bind(SessionFactoryImplementor)}.
+ */
+public class CacheEntryFactory {
+
+    private final Map<String, StructuredCacheEntry> structures = new ConcurrentHashMap<>();
+
+    private volatile SessionFactoryImplementor sessionFactory;
+
+    public void bind(SessionFactoryImplementor sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        structures.clear();
+    }
+
+    /**
+     * @param subclass the entity name of the entry.
+     * @param version the version of the entity, or null.
+     * @param state the disassembled state of the entity, in the order of the properties of its persister.
+     * @return the cache entry.
+     * @throws IOException if the session factory is not started, or if the state does not match the entity.
+     */
+    public StandardCacheEntryImpl create(String subclass, Object version, Serializable[] state) throws IOException {
+        SessionFactoryImplementor factory = sessionFactory;
+        if (factory == null) {
+            throw new IOException("The cache entry of " + subclass + " is read before the session factory is started");
+        }
+        EntityPersister persister;
+        try {
+            persister = factory.getMetamodel().entityPersister(subclass);
+        } catch (MappingException e) {
+            throw new IOException("The cache entry of " + subclass + " is not an entity of this member", e);
+        }
+        String[] propertyNames = persister.getPropertyNames();
+        if (propertyNames.length != state.length) {
+            throw new IOException("The cache entry of " + subclass + " has " + state.length + " values instead of " +
+                propertyNames.length);
+        }
+        Map<String, Object> structured = new HashMap<>(propertyNames.length + 2, 1f);
+        structured.put(StructuredCacheEntry.SUBCLASS_KEY, subclass);
+        structured.put(StructuredCacheEntry.VERSION_KEY, version);
+        for (int i = 0; i < propertyNames.length; i++) {
+            structured.put(propertyNames[i], state[i]);
+        }
+        StructuredCacheEntry structure = structures.computeIfAbsent(subclass, name -> new StructuredCacheEntry(persister));
+        return (StandardCacheEntryImpl) structure.destructure(structured, factory);
+    }
+}
@@ -0,0 +1,38 @@
+package sn.ssi.sigmap.config.cache;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.config.SerializerConfig;
+import org.hibernate.cache.spi.entry.StandardCacheEntryImpl;
+
+/**
+ * Registers the compact serializer of the second-level cache entries in the Hazelcast configuration.
+ * <p>
+ * Type identifiers are shared by all the members of the cluster: existing identifiers must never be changed or
+ * reused. The second-level cache regions only store the disassembled state of the entities, so the cache entries are
+ * the only type with a serializer of their own.
+ */
+public final class CacheSerializers {
+
+    public static final int HIBERNATE_CACHE_ENTRY_TYPE_ID = 1000;
+
+    private CacheSerializers() {
+    }
+
+    /**
+     * @param entryFactory rebuilds the cache entries once the session factory is started.
+     */
+    public static void configure(SerializationConfig serializationConfig, CacheEntryFactory entryFactory) {
+        configure(serializationConfig, entryFactory, null);
+    }
+
+    /**
+     * @param entryFactory rebuilds the cache entries once the session factory is started.
+     * @param dictionary the dictionary of the repeated values of the cache entries, or null to store them as they are.
+     */
+    public static void configure(SerializationConfig serializationConfig, CacheEntryFactory entryFactory,
+                                 StringDictionary dictionary) {
+        serializationConfig.addSerializerConfig(new SerializerConfig()
+            .setTypeClass(StandardCacheEntryImpl.class)
+            .setImplementation(new HibernateCacheEntryStreamSerializer(HIBERNATE_CACHE_ENTRY_TYPE_ID, entryFactory, dictionary)));
+    }
+}
@@ -0,0 +1,141 @@
+package sn.ssi.sigmap.config.cache;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import org.hibernate.cache.spi.entry.StandardCacheEntryImpl;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Compact Hazelcast serializer for the entity entries of the Hibernate second-level cache.
+ * <p>
+ * An entry holds the disassembled state of an entity: its column values and the identifiers of its associations.
+ * Each value is written with the Hazelcast built-in serializers, which avoids the Java serialization of the whole
+ * entry and of its class descriptors. The values of the attributes kept in the {@link StringDictionary} are written
+ * as their code, and the fragmented ones as the number of their fragments followed by the code of each fragment: the
+ * entry starts with the masks of their positions. Entries are rebuilt by the {@link CacheEntryFactory}.
+ * <p>
+ * An entry with a code lost by the dictionary is read as null, which Hibernate takes as a cache miss: the entity is
+ * loaded from the database and cached again.
+ */
+public class HibernateCacheEntryStreamSerializer implements StreamSerializer<StandardCacheEntryImpl> {
+
+    private final int typeId;
+
+    private final CacheEntryFactory entryFactory;
+
+    private final StringDictionary dictionary;
+
+    public HibernateCacheEntryStreamSerializer(int typeId, CacheEntryFactory entryFactory, StringDictionary dictionary) {
+        this.typeId = typeId;
+        this.entryFactory = entryFactory;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public int getTypeId() {
+        return typeId;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, StandardCacheEntryImpl entry) throws IOException {
+        out.writeUTF(entry.getSubclass());
+        out.writeObject(entry.getVersion());
+        Serializable[] state = entry.getDisassembledState();
+        long encoded = dictionary == null ? 0 : dictionary.getEncodedProperties(entry.getSubclass());
+        long fragmented = dictionary == null ? 0 : dictionary.getFragmentedProperties(entry.getSubclass());
+        out.writeInt(state.length);
+        out.writeLong(encoded);
+        out.writeLong(fragmented);
+        for (int i = 0; i < state.length; i++) {
+            if (isEncoded(fragmented, i)) {
+                if (state[i] instanceof String) {
+                    writeFragments(out, dictionary.splitFragments((String) state[i]));
+                    continue;
+                }
+                out.writeInt(StringDictionary.NO_CODE);
+            } else if (isEncoded(encoded, i)) {
+                int code = dictionary.encodeValue(state[i]);
+                out.writeInt(code);
+                if (code != StringDictionary.NO_CODE) {
+                    continue;
+                }
+            }
+            out.writeObject(state[i]);
+        }
+    }
+
+    @Override
+    public StandardCacheEntryImpl read(ObjectDataInput in) throws IOException {
+        String subclass = in.readUTF();
+        Object version = in.readObject();
+        Serializable[] state = new Serializable[in.readInt()];
+        long encoded = in.readLong();
+        long fragmented = in.readLong();
+        boolean lost = false;
+        for (int i = 0; i < state.length; i++) {
+            if (isEncoded(fragmented, i)) {
+                int count = in.readInt();
+                if (count != StringDictionary.NO_CODE) {
+                    String[] fragments = readFragments(in, count, subclass);
+                    lost |= fragments == null;
+                    state[i] = fragments == null ? null : dictionary.joinFragments(fragments);
+                    continue;
+                }
+            } else if (isEncoded(encoded, i)) {
+                int code = in.readInt();
+                if (code != StringDictionary.NO_CODE) {
+                    state[i] = (Serializable) decode(code, subclass);
+                    lost |= state[i] == null;
+                    continue;
+                }
+            }
+            state[i] = in.readObject();
+        }
+        // The whole entry is read, so that the input is left at its end
+        return lost ? null : entryFactory.create(subclass, version, state);
+    }
+
+    private void writeFragments(ObjectDataOutput out, String[] fragments) throws IOException {
+        out.writeInt(fragments.length);
+        for (String fragment : fragments) {
+            int code = dictionary.encodeValue(fragment);
+            out.writeInt(code);
+            if (code == StringDictionary.NO_CODE) {
+                out.writeUTF(fragment);
+            }
+        }
+    }
+
+    /**
+     * @return the fragments, or null if the code of one of them is lost.
+     */
+    private String[] readFragments(ObjectDataInput in, int count, String subclass) throws IOException {
+        String[] fragments = new String[count];
+        boolean lost = false;
+        for (int i = 0; i < count; i++) {
+            int code = in.readInt();
+            fragments[i] = code == StringDictionary.NO_CODE ? in.readUTF() : (String) decode(code, subclass);
+            lost |= fragments[i] == null;
+        }
+        return lost ? null : fragments;
+    }
+
+    private Object decode(int code, String subclass) throws IOException {
+        if (dictionary == null) {
+            throw new IOException("The cache entry of " + subclass + " needs the cache dictionary");
+        }
+        return dictionary.decodeValue(code);
+    }
+
+    private static boolean isEncoded(long encoded, int index) {
+        return index < Long.SIZE && (encoded & (1L << index)) != 0;
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to release
+    }
+}
@@ -0,0 +1,300 @@
+package sn.ssi.sigmap.config.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IAtomicLong;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Dictionary of the repeated values of the cached entities, shared by the members of the cluster.
+ * <p>
+ * The attributes listed in {@code application.cache.dictionary.attributes}, such as the function of a person, take
+ * few distinct values. In the second-level cache entries they are stored as the 4 bytes code of their value, see
+ * {@link HibernateCacheEntryStreamSerializer}, and decoded when the entry is read. The decoded values are the instances
+ * held by the dictionary, so the entities read from the cache share them instead of holding a copy each. The free-text
+ * attributes listed in {@code fragmented-attributes}, such as the address of a supplier, are mostly unique as a whole:
+ * they are split on their commas, and each fragment, such as the district or the city, is encoded on its own.
+ * <p>
+ * The codes are kept in two Hazelcast maps, a code is never changed once given: each member keeps the codes it has
+ * seen, and only asks the cluster for the unknown ones. A string is only given a code once this member has stored it
+ * {@code min-occurrences} times, so that the unique values do not fill the maps. Values longer than
+ * {@code max-length}, and new values once the dictionary holds {@code max-entries} codes, are stored as they are.
+ * Enumerated values are encoded like strings, from their first occurrence.
+ * <p>
+ * A code can be lost with the maps of the cluster, for instance when all the members holding them are restarted while
+ * the cache entries are kept elsewhere: it is then decoded as null, and its entry is read as a cache miss.
+ */
+public class StringDictionary implements MeterBinder {
+
+    public static final String CODES_MAP_NAME = "referentielms-dictionary-codes";
+
+    public static final String VALUES_MAP_NAME = "referentielms-dictionary-values";
+
+    public static final String SEQUENCE_NAME = "referentielms-dictionary-sequence";
+
+    /**
+     * Written instead of a code when the value is stored as it is.
+     */
+    public static final int NO_CODE = -1;
+
+    private static final Pattern FRAGMENT_SEPARATOR = Pattern.compile(",");
+
+    private static final String ENUM_PREFIX = "\u0000E";
+
+    private final Logger log = LoggerFactory.getLogger(StringDictionary.class);
+
+    private final ApplicationProperties.Cache.Dictionary properties;
+
+    private final Map<String, Long> encodedProperties = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> fragmentedProperties = new ConcurrentHashMap<>();
+
+    private final Map<Object, Integer> localCodes = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Object> localValues = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> occurrences;
+
+    private final AtomicLong lostCodes = new AtomicLong();
+
+    private volatile ConcurrentMap<String, Integer> codes;
+
+    private volatile ConcurrentMap<Integer, String> values;
+
+    private volatile LongSupplier sequence;
+
+    private volatile boolean full;
+
+    public StringDictionary(ApplicationProperties.Cache.Dictionary properties) {
+        this.properties = properties;
+        this.occurrences = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > properties.getMaxEntries();
+            }
+        };
+    }
+
+    /**
+     * Store the codes in the maps of the cluster. Until then, all the values are stored as they are.
+     */
+    public void bind(HazelcastInstance hazelcastInstance) {
+        IAtomicLong atomicLong = hazelcastInstance.getAtomicLong(SEQUENCE_NAME);
+        bind(hazelcastInstance.getMap(CODES_MAP_NAME), hazelcastInstance.getMap(VALUES_MAP_NAME), atomicLong::incrementAndGet);
+    }
+
+    void bind(ConcurrentMap<String, Integer> codes, ConcurrentMap<Integer, String> values, LongSupplier sequence) {
+        this.values = values;
+        this.sequence = sequence;
+        this.codes = codes;
+    }
+
+    /**
+     * Find the positions of the configured attributes in the cached state of the entities.
+     */
+    public void bindEntities(SessionFactoryImplementor sessionFactory) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            String simpleName = persister.getMappedClass().getSimpleName();
+            List<String> propertyNames = Arrays.asList(persister.getPropertyNames());
+            List<String> attributes = properties.getAttributes().getOrDefault(simpleName, Collections.emptyList());
+            if (!attributes.isEmpty()) {
+                setEncodedProperties(persister.getEntityName(), propertyNames, attributes);
+            }
+            List<String> fragmentedAttributes = properties.getFragmentedAttributes().getOrDefault(simpleName, Collections.emptyList());
+            if (!fragmentedAttributes.isEmpty()) {
+                setFragmentedProperties(persister.getEntityName(), propertyNames, fragmentedAttributes);
+            }
+        }
+    }
+
+    void setEncodedProperties(String entityName, List<String> propertyNames, List<String> attributes) {
+        encodedProperties.put(entityName, mask(entityName, propertyNames, attributes));
+    }
+
+    void setFragmentedProperties(String entityName, List<String> propertyNames, List<String> attributes) {
+        fragmentedProperties.put(entityName, mask(entityName, propertyNames, attributes));
+    }
+
+    private long mask(String entityName, List<String> propertyNames, List<String> attributes) {
+        long mask = 0;
+        for (String attribute : attributes) {
+            int index = propertyNames.indexOf(attribute);
+            if (index < 0 || index >= Long.SIZE) {
+                log.warn("The attribute {} of {} cannot be stored in the cache dictionary", attribute, entityName);
+            } else {
+                mask |= 1L << index;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @param entityName the entity name, as in the cache entries.
+     * @return a mask of the positions of its state stored as codes, without the fragmented ones.
+     */
+    public long getEncodedProperties(String entityName) {
+        Long mask = encodedProperties.get(entityName);
+        return mask == null || codes == null ? 0 : mask & ~getFragmentedProperties(entityName);
+    }
+
+    /**
+     * @param entityName the entity name, as in the cache entries.
+     * @return a mask of the positions of its state stored as the codes of their fragments.
+     */
+    public long getFragmentedProperties(String entityName) {
+        Long mask = fragmentedProperties.get(entityName);
+        return mask == null || codes == null ? 0 : mask;
+    }
+
+    /**
+     * @return the fragments of the value, which {@link #joinFragments(String[])} puts back together as they were.
+     */
+    public String[] splitFragments(String value) {
+        return FRAGMENT_SEPARATOR.split(value, -1);
+    }
+
+    public String joinFragments(String[] fragments) {
+        return String.join(FRAGMENT_SEPARATOR.pattern(), fragments);
+    }
+
+    /**
+     * @return the code of the value, given if the value is repeated enough, or {@link #NO_CODE} if it is stored as it
+     * is.
+     */
+    public int encodeValue(Object value) {
+        String key = toKey(value);
+        if (key == null) {
+            return NO_CODE;
+        }
+        Integer code = localCodes.get(value);
+        if (code != null) {
+            return code;
+        }
+        ConcurrentMap<String, Integer> clusterCodes = codes;
+        if (clusterCodes == null) {
+            return NO_CODE;
+        }
+        code = clusterCodes.get(key);
+        if (code == null) {
+            if (full || !isRepeated(value, key)) {
+                return NO_CODE;
+            }
+            long next = sequence.getAsLong();
+            if (next > properties.getMaxEntries()) {
+                full = true;
+                log.warn("The cache dictionary is full, the new values are stored as they are");
+                return NO_CODE;
+            }
+            // The value is known before its code is given, so that a member reading the code can always decode it
+            values.put((int) next, key);
+            Integer existing = clusterCodes.putIfAbsent(key, (int) next);
+            code = existing != null ? existing : (int) next;
+        }
+        remember(code, value);
+        return code;
+    }
+
+    /**
+     * @return the value of the code, or null if the code is lost, in which case its entry must be read as a miss.
+     */
+    public Object decodeValue(int code) {
+        Object value = localValues.get(code);
+        if (value != null) {
+            return value;
+        }
+        ConcurrentMap<Integer, String> clusterValues = values;
+        String key = clusterValues == null ? null : clusterValues.get(code);
+        value = key == null ? null : fromKey(key);
+        if (value == null) {
+            lostCodes.incrementAndGet();
+            log.debug("The code {} of the cache dictionary is lost, its entry is read as a miss", code);
+            return null;
+        }
+        remember(code, value);
+        return localValues.get(code);
+    }
+
+    public int size() {
+        return localValues.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cache.dictionary.entries", this, StringDictionary::size)
+            .description("Number of values of the cache dictionary known to this member")
+            .register(registry);
+        FunctionCounter.builder("cache.dictionary.lost", lostCodes, AtomicLong::get)
+            .description("Number of cache entries read as a miss as the code of one of their values is lost")
+            .register(registry);
+    }
+
+    /**
+     * @return true if the string has been stored {@code min-occurrences} times, counting this one.
+     */
+    private boolean isRepeated(Object value, String key) {
+        if (!(value instanceof String) || properties.getMinOccurrences() <= 1) {
+            return true;
+        }
+        synchronized (occurrences) {
+            int count = occurrences.merge(key, 1, Integer::sum);
+            if (count < properties.getMinOccurrences()) {
+                return false;
+            }
+            occurrences.remove(key);
+            return true;
+        }
+    }
+
+    private void remember(int code, Object value) {
+        Object previous = localValues.putIfAbsent(code, value);
+        localCodes.putIfAbsent(previous != null ? previous : value, code);
+    }
+
+    private String toKey(Object value) {
+        if (value instanceof String) {
+            String string = (String) value;
+            return string.length() > properties.getMaxLength() || string.startsWith(ENUM_PREFIX) ? null : string;
+        }
+        if (value instanceof Enum) {
+            Enum<?> constant = (Enum<?>) value;
+            return ENUM_PREFIX + constant.getDeclaringClass().getName() + "#" + constant.name();
+        }
+        return null;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object fromKey(String key) {
+        if (!key.startsWith(ENUM_PREFIX)) {
+            return key;
+        }
+        int separator = key.lastIndexOf('#');
+        try {
+            Class enumClass = Class.forName(key.substring(ENUM_PREFIX.length(), separator), true, StringDictionary.class.getClassLoader());
+            return Enum.valueOf(enumClass, key.substring(separator + 1));
+        } catch (ClassNotFoundException | IllegalArgumentException e) {
+            log.warn("Cannot decode the value {} of the cache dictionary: {}", key.substring(ENUM_PREFIX.length()), e.toString());
+            return null;
+        }
+    }
+}
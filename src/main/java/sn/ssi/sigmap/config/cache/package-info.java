@@ -0,0 +1,4 @@
+/**
+ * Hazelcast serialization and concurrency strategies of the cached data.
+ */
+package sn.ssi.sigmap.config.cache;
@@ -0,0 +1,59 @@
+package sn.ssi.sigmap.config.jdbc;
+
+import java.time.Instant;
+
+/**
+ * A statement slower than the capture threshold.
+ */
+public class SlowQuery {
+
+    private final String sql;
+
+    private final long elapsedMs;
+
+    private final long rows;
+
+    private final Instant timestamp;
+
+    public SlowQuery(String sql, long elapsedMs, long rows, Instant timestamp) {
+        this.sql = sql;
+        this.elapsedMs = elapsedMs;
+        this.rows = rows;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the SQL, with its literals replaced by {@code ?} and its {@code IN} lists collapsed.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return the time from the execution to the closing of the result set, which includes the fetch of the rows.
+     */
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    /**
+     * @return the number of rows read from the result set, or updated by the statement.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowQuery{" +
+            "sql='" + sql + "'" +
+            ", elapsedMs=" + elapsedMs +
+            ", rows=" + rows +
+            ", timestamp='" + timestamp + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,85 @@
+package sn.ssi.sigmap.config.jdbc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Ring buffer of the last statements slower than a threshold.
+ * <p>
+ * The SQL is only normalized for the statements which are kept, so the capture costs a clock read per statement.
+ * Once the buffer is full, the oldest statement is overwritten.
+ */
+public class SlowQueryLog {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long thresholdNanos;
+
+    private final SlowQuery[] entries;
+
+    private int next;
+
+    public SlowQueryLog(long thresholdMs, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the slow query log must be positive");
+        }
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.entries = new SlowQuery[capacity];
+    }
+
+    /**
+     * Keep a statement if it is slower than the threshold.
+     *
+     * @param sql the SQL of the statement.
+     * @param elapsedNanos the time from its execution to the closing of its result set.
+     * @param rows the number of rows read or updated.
+     */
+    public void record(String sql, long elapsedNanos, long rows) {
+        if (elapsedNanos < thresholdNanos || sql == null) {
+            return;
+        }
+        SlowQuery slowQuery = new SlowQuery(normalize(sql), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows, Instant.now());
+        synchronized (this) {
+            entries[next] = slowQuery;
+            next = (next + 1) % entries.length;
+        }
+    }
+
+    /**
+     * @return the slow statements, the most recent first.
+     */
+    public synchronized List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> slowQueries = new ArrayList<>(entries.length);
+        for (int i = 1; i <= entries.length; i++) {
+            SlowQuery slowQuery = entries[(next - i + entries.length) % entries.length];
+            if (slowQuery == null) {
+                break;
+            }
+            slowQueries.add(slowQuery);
+        }
+        return slowQueries;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = null;
+        }
+        next = 0;
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (...)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
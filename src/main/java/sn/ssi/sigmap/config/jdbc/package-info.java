@@ -0,0 +1,4 @@
+/**
+ * Capture of the slow SQL statements.
+ */
+package sn.ssi.sigmap.config.jdbc;
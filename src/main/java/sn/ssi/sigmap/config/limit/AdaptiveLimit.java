@@ -0,0 +1,55 @@
+package sn.ssi.sigmap.config.limit;
+
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A concurrency limit adapted from the latency of the requests.
+ */
+public abstract class AdaptiveLimit {
+
+    protected final int minLimit;
+
+    protected final int maxLimit;
+
+    private volatile int limit;
+
+    protected AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.limit = clamp(initialLimit);
+    }
+
+    public static AdaptiveLimit create(ApplicationProperties.ConcurrencyLimit.Pool pool) {
+        switch (pool.getAlgorithm()) {
+            case AIMD:
+                return new AimdLimit(pool.getInitialLimit(), pool.getMinLimit(), pool.getMaxLimit(),
+                    TimeUnit.MILLISECONDS.toNanos(pool.getTimeoutMs()));
+            case GRADIENT:
+            default:
+                return new GradientLimit(pool.getInitialLimit(), pool.getMinLimit(), pool.getMaxLimit());
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Adapt the limit to a completed request.
+     *
+     * @param rttNanos the time taken by the request.
+     * @param inflight the number of requests running when it completed, including itself.
+     * @param dropped whether the request failed because of the load, for example a timeout.
+     */
+    public synchronized void onSample(long rttNanos, int inflight, boolean dropped) {
+        limit = clamp(update(limit, rttNanos, inflight, dropped));
+    }
+
+    protected abstract int update(int limit, long rttNanos, int inflight, boolean dropped);
+
+    private int clamp(int value) {
+        return Math.min(maxLimit, Math.max(minLimit, value));
+    }
+}
@@ -0,0 +1,28 @@
+package sn.ssi.sigmap.config.limit;
+
+/**
+ * Additive increase, multiplicative decrease, see {@link LimitAlgorithm#AIMD}.
+ */
+public class AimdLimit extends AdaptiveLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final long timeoutNanos;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, long timeoutNanos) {
+        super(initialLimit, minLimit, maxLimit);
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    @Override
+    protected int update(int limit, long rttNanos, int inflight, boolean dropped) {
+        if (dropped || rttNanos > timeoutNanos) {
+            return (int) (limit * BACKOFF_RATIO);
+        }
+        // The limit only grows when it is used, otherwise it would grow without bound while the load is low
+        if (inflight * 2 >= limit) {
+            return limit + 1;
+        }
+        return limit;
+    }
+}
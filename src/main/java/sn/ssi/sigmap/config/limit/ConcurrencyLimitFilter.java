@@ -0,0 +1,155 @@
+package sn.ssi.sigmap.config.limit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds the API requests above the concurrency limit of their class, with a {@code 503 Service Unavailable} and a
+ * {@code Retry-After} header.
+ * <p>
+ * The reads ({@code GET} and {@code HEAD}, mostly served by the cache), the writes (the other methods) and the
+ * exports (the reads of the export paths) have their own {@link ConcurrencyLimiter}, so that slow writes cannot take
+ * the capacity of the reads, and the long downloads of the exports do not reduce the limit of the writes. A rejected request is answered at once, without waiting for a database connection, and the latency of
+ * the accepted ones stays that of a server running at its limit. The long-lived streams, such as the server-sent
+ * events, are not limited.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ConcurrencyLimiter reads;
+
+    private final ConcurrencyLimiter writes;
+
+    private final ConcurrencyLimiter exports;
+
+    private final List<String> exportPaths;
+
+    private final List<String> excludedPaths;
+
+    private final String retryAfter;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter reads, ConcurrencyLimiter writes, ConcurrencyLimiter exports,
+                                  List<String> exportPaths, List<String> excludedPaths, long retryAfterSeconds) {
+        this.reads = reads;
+        this.writes = writes;
+        this.exports = exports;
+        this.exportPaths = exportPaths;
+        this.excludedPaths = excludedPaths;
+        this.retryAfter = Long.toString(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/") || matches(excludedPaths, path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        ConcurrencyLimiter limiter = limiterOf(request);
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // The request holds its permit until the asynchronous processing completes
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(limiter, start));
+                released = true;
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            limiter.release(start, true);
+            released = true;
+            throw e;
+        } finally {
+            if (!released) {
+                limiter.release(start, isDropped(response.getStatus()));
+            }
+        }
+    }
+
+    ConcurrencyLimiter limiterOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return writes;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return matches(exportPaths, path) ? exports : reads;
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The server errors due to the load, such as a timeout waiting for a database connection.
+     */
+    private static boolean isDropped(int status) {
+        return status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    private static final class ReleasingAsyncListener implements AsyncListener {
+
+        private final ConcurrencyLimiter limiter;
+
+        private final long start;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingAsyncListener(ConcurrencyLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // The permit is released once, when the whole processing ends
+        }
+
+        private void release(boolean dropped) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(start, dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package sn.ssi.sigmap.config.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets at most {@link AdaptiveLimit#getLimit()} requests run at once, the others are rejected at once rather than
+ * queued.
+ */
+public class ConcurrencyLimiter {
+
+    private final String name;
+
+    private final AdaptiveLimit limit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private Counter rejected;
+
+    public ConcurrencyLimiter(String name, AdaptiveLimit limit) {
+        this.name = name;
+        this.limit = limit;
+    }
+
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("http.server.concurrency.limit", limit, AdaptiveLimit::getLimit)
+            .description("Number of API requests allowed to run at once")
+            .tag("class", name)
+            .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.inflight", inflight, AtomicInteger::get)
+            .description("Number of API requests running")
+            .tag("class", name)
+            .register(meterRegistry);
+        rejected = Counter.builder("http.server.requests.rejected")
+            .description("Number of API requests rejected above the concurrency limit")
+            .tag("class", name)
+            .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * @return {@code true} if the request can run, then {@link #release(long, boolean)} must be called once it ends.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit.getLimit()) {
+                if (rejected != null) {
+                    rejected.increment();
+                }
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param startNanos the {@link System#nanoTime()} at which the request was acquired.
+     * @param dropped whether the request failed because of the load.
+     */
+    public void release(long startNanos, boolean dropped) {
+        int current = inflight.getAndDecrement();
+        limit.onSample(System.nanoTime() - startNanos, current, dropped);
+    }
+}
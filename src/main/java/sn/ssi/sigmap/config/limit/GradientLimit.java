@@ -0,0 +1,49 @@
+package sn.ssi.sigmap.config.limit;
+
+/**
+ * Limit following the latency gradient, see {@link LimitAlgorithm#GRADIENT}.
+ * <p>
+ * A long-term average of the latency stands for the latency without load. The limit is multiplied by the ratio of
+ * this average to the latency of the last request, between 0.5 and 1, then given a headroom of its square root, at least
+ * {@link #MIN_HEADROOM}, so that it can grow again. Requests up to {@link #TOLERANCE} times slower than usual do not reduce the limit.
+ */
+public class GradientLimit extends AdaptiveLimit {
+
+    static final double TOLERANCE = 1.5;
+
+    static final double SMOOTHING = 0.2;
+
+    static final int LONG_WINDOW = 600;
+
+    static final double MIN_HEADROOM = 4;
+
+    private double longRtt;
+
+    private long samples;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        super(initialLimit, minLimit, maxLimit);
+    }
+
+    @Override
+    protected int update(int limit, long rttNanos, int inflight, boolean dropped) {
+        double shortRtt = Math.max(rttNanos, 1);
+        samples++;
+        if (samples == 1) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / Math.min(samples, LONG_WINDOW);
+        }
+        // Once the load is gone, the average recovers faster from a period of high latency
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // A limit which is not used gives no information about the capacity
+        if (inflight < limit / 2) {
+            return limit;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.max(Math.sqrt(limit), MIN_HEADROOM);
+        return (int) Math.round(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+}
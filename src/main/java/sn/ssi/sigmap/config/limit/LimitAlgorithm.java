@@ -0,0 +1,18 @@
+package sn.ssi.sigmap.config.limit;
+
+/**
+ * How a {@link ConcurrencyLimiter} adapts its limit, see {@link AdaptiveLimit#create}.
+ */
+public enum LimitAlgorithm {
+
+    /**
+     * Grows by one while the requests succeed, shrinks by 10 % when one fails or exceeds its timeout.
+     */
+    AIMD,
+
+    /**
+     * Follows the ratio of the usual latency to the current one: the limit shrinks as soon as the latency grows, before
+     * the requests fail.
+     */
+    GRADIENT
+}
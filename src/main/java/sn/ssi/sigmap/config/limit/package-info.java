@@ -0,0 +1,4 @@
+/**
+ * Adaptive concurrency limits of the REST API, shedding the requests above them.
+ */
+package sn.ssi.sigmap.config.limit;
@@ -0,0 +1,165 @@
+package sn.ssi.sigmap.config.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Starts and keeps the Java Flight Recorder recordings of {@code /management/profiling}.
+ * <p>
+ * The recordings are bounded: one at a time, stopped after {@code max-duration-seconds}, their oldest events dropped
+ * above {@code max-size-megabytes}, and only the last {@code retained} ones are kept. They use the event templates of
+ * the JDK: {@code default}, with a low overhead, or {@code profile}, which samples the threads and the allocations more
+ * often.
+ */
+public class FlightRecordings {
+
+    public static final List<String> TEMPLATES = Collections.unmodifiableList(Arrays.asList("default", "profile"));
+
+    private final Logger log = LoggerFactory.getLogger(FlightRecordings.class);
+
+    private final ApplicationProperties.Profiling properties;
+
+    private final Map<Long, ProfilingRecording> recordings = new LinkedHashMap<>();
+
+    public FlightRecordings(ApplicationProperties.Profiling properties) {
+        this.properties = properties;
+    }
+
+    public static boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+    /**
+     * Start a recording.
+     *
+     * @param template the event template, {@code profile} when not given.
+     * @param durationSeconds the duration, {@code default-duration-seconds} when not given.
+     * @return the recording.
+     * @throws IllegalArgumentException if the template or the duration is not allowed.
+     * @throws IllegalStateException if a recording is already running.
+     * @throws IOException if the recording cannot be started.
+     */
+    public synchronized ProfilingRecording start(String template, Long durationSeconds) throws IOException {
+        String name = template == null ? "profile" : template;
+        if (!TEMPLATES.contains(name)) {
+            throw new IllegalArgumentException("Unknown template " + name + ", use one of " + TEMPLATES);
+        }
+        long seconds = durationSeconds == null ? properties.getDefaultDurationSeconds() : durationSeconds;
+        if (seconds <= 0 || seconds > properties.getMaxDurationSeconds()) {
+            throw new IllegalArgumentException("The duration must be between 1 and " + properties.getMaxDurationSeconds() + " seconds");
+        }
+        if (recordings.values().stream().anyMatch(recording -> recording.getState() == RecordingState.RUNNING ||
+            recording.getState() == RecordingState.DELAYED)) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(name);
+        } catch (ParseException e) {
+            throw new IOException("Cannot read the template " + name, e);
+        }
+        Path directory = Paths.get(properties.getDirectory());
+        Files.createDirectories(directory);
+        Recording recording = new Recording(configuration);
+        Path file = directory.resolve(String.format("referentielms-%d-%d.jfr", System.currentTimeMillis(), recording.getId()));
+        recording.setName("referentielms-" + name);
+        recording.setToDisk(true);
+        recording.setDuration(Duration.ofSeconds(seconds));
+        recording.setMaxSize(properties.getMaxSizeMegabytes() * 1024 * 1024);
+        recording.setDestination(file);
+        recording.start();
+        log.info("Started the {} recording {} for {} seconds", name, recording.getId(), seconds);
+        ProfilingRecording profilingRecording = new ProfilingRecording(recording, name, file);
+        recordings.put(recording.getId(), profilingRecording);
+        deleteOldRecordings();
+        return profilingRecording;
+    }
+
+    public synchronized List<ProfilingRecording> getRecordings() {
+        return new ArrayList<>(recordings.values());
+    }
+
+    public synchronized Optional<ProfilingRecording> find(long id) {
+        return Optional.ofNullable(recordings.get(id));
+    }
+
+    /**
+     * Stop a recording before its duration, which writes its file.
+     */
+    public synchronized Optional<ProfilingRecording> stop(long id) {
+        ProfilingRecording recording = recordings.get(id);
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.getRecording().stop();
+            log.info("Stopped the recording {}", id);
+        }
+        return Optional.ofNullable(recording);
+    }
+
+    /**
+     * Stop a recording if needed, and delete it with its file.
+     *
+     * @return {@code true} if the recording existed.
+     */
+    public synchronized boolean delete(long id) {
+        ProfilingRecording recording = recordings.remove(id);
+        if (recording == null) {
+            return false;
+        }
+        close(recording);
+        return true;
+    }
+
+    public RecordingSummary getSummary(ProfilingRecording recording) throws IOException {
+        return recording.getSummary(ReferentielmsApp.class.getPackage().getName(), properties.getSummarySize());
+    }
+
+    @PreDestroy
+    public synchronized void closeAll() {
+        recordings.values().forEach(this::close);
+        recordings.clear();
+    }
+
+    private void deleteOldRecordings() {
+        long finished = recordings.values().stream().filter(recording -> recording.getState() == RecordingState.STOPPED).count();
+        Iterator<ProfilingRecording> iterator = recordings.values().iterator();
+        while (finished > Math.max(properties.getRetained(), 1) && iterator.hasNext()) {
+            ProfilingRecording recording = iterator.next();
+            if (recording.getState() == RecordingState.STOPPED) {
+                iterator.remove();
+                close(recording);
+                finished--;
+            }
+        }
+    }
+
+    private void close(ProfilingRecording recording) {
+        recording.getRecording().close();
+        try {
+            Files.deleteIfExists(recording.getFile());
+        } catch (IOException e) {
+            log.warn("Could not delete the recording {}: {}", recording.getFile(), e.getMessage());
+        }
+    }
+}
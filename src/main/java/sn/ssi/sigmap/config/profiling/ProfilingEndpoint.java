@@ -0,0 +1,94 @@
+package sn.ssi.sigmap.config.profiling;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@code /management/profiling} endpoint, starting the recordings of {@link FlightRecordings}.
+ * <ul>
+ * <li>{@code POST /management/profiling} starts a recording, with an optional {@code template} and
+ * {@code durationSeconds};</li>
+ * <li>{@code POST /management/profiling/{id}} stops it before its duration;</li>
+ * <li>{@code GET /management/profiling/{id}} gives the recording and, once stopped, its summary;</li>
+ * <li>{@code GET /management/profiling/{id}/jfr} downloads the recording file, to open in JDK Mission Control;</li>
+ * <li>{@code DELETE /management/profiling/{id}} deletes it.</li>
+ * </ul>
+ * Like the other management endpoints, it requires {@code ROLE_ADMIN}.
+ */
+@WebEndpoint(id = "profiling")
+public class ProfilingEndpoint {
+
+    static final int STATUS_CONFLICT = 409;
+
+    private final FlightRecordings flightRecordings;
+
+    public ProfilingEndpoint(FlightRecordings flightRecordings) {
+        this.flightRecordings = flightRecordings;
+    }
+
+    @ReadOperation
+    public List<ProfilingRecording> recordings() {
+        return flightRecordings.getRecordings();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<ProfilingRecording> start(@Nullable String template, @Nullable Long durationSeconds) throws IOException {
+        try {
+            return new WebEndpointResponse<>(flightRecordings.start(template, durationSeconds));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(STATUS_CONFLICT);
+        }
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Map<String, Object>> recording(@Selector long id) throws IOException {
+        Optional<ProfilingRecording> recording = flightRecordings.find(id);
+        if (!recording.isPresent()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("recording", recording.get());
+        body.put("summary", recording.get().isWritten() ? flightRecordings.getSummary(recording.get()) : null);
+        return new WebEndpointResponse<>(body);
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> file(@Selector long id, @Selector String format) {
+        Optional<ProfilingRecording> recording = flightRecordings.find(id);
+        if (!"jfr".equals(format) || !recording.isPresent()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (!recording.get().isWritten()) {
+            return new WebEndpointResponse<>(STATUS_CONFLICT);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(recording.get().getFile()));
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<ProfilingRecording> stop(@Selector long id) {
+        return flightRecordings.stop(id)
+            .map(WebEndpointResponse::new)
+            .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> delete(@Selector long id) {
+        return new WebEndpointResponse<>(flightRecordings.delete(id) ? WebEndpointResponse.STATUS_NO_CONTENT : WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
@@ -0,0 +1,93 @@
+package sn.ssi.sigmap.config.profiling;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * A recording started by {@link FlightRecordings}, written to its file when it stops.
+ */
+public final class ProfilingRecording {
+
+    private final Recording recording;
+
+    private final String template;
+
+    private final Path file;
+
+    private RecordingSummary summary;
+
+    ProfilingRecording(Recording recording, String template, Path file) {
+        this.recording = recording;
+        this.template = template;
+        this.file = file;
+    }
+
+    public long getId() {
+        return recording.getId();
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public RecordingState getState() {
+        return recording.getState();
+    }
+
+    public Instant getStartTime() {
+        return recording.getStartTime();
+    }
+
+    public Instant getStopTime() {
+        return recording.getStopTime();
+    }
+
+    public long getDurationSeconds() {
+        return recording.getDuration() == null ? 0 : recording.getDuration().getSeconds();
+    }
+
+    /**
+     * @return the size of the file, or {@code 0} until the recording is stopped.
+     */
+    public long getSize() {
+        try {
+            return isWritten() ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @JsonIgnore
+    public Path getFile() {
+        return file;
+    }
+
+    @JsonIgnore
+    public boolean isWritten() {
+        return recording.getState() == RecordingState.STOPPED && Files.isRegularFile(file);
+    }
+
+    /**
+     * @return the summary of the recording, read once from its file.
+     * @throws IllegalStateException if the recording is not stopped.
+     */
+    synchronized RecordingSummary getSummary(String applicationPackage, int size) throws IOException {
+        if (!isWritten()) {
+            throw new IllegalStateException("The recording " + getId() + " is not stopped");
+        }
+        if (summary == null) {
+            summary = RecordingSummary.read(file, applicationPackage, size);
+        }
+        return summary;
+    }
+
+    Recording getRecording() {
+        return recording;
+    }
+}
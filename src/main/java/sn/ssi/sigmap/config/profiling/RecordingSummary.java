@@ -0,0 +1,235 @@
+package sn.ssi.sigmap.config.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The hot methods, allocation sites and contended locks of a recording.
+ * <p>
+ * Each site is attributed to the first frame of its stack in the application package, so that the time spent in the
+ * libraries is charged to the code calling them. The hot methods are also given by their own top frame.
+ */
+public final class RecordingSummary {
+
+    static final String OUTSIDE_APPLICATION = "(outside the application)";
+
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+
+    private static final String ALLOCATION_IN_NEW_TLAB = "jdk.ObjectAllocationInNewTLAB";
+
+    private static final String ALLOCATION_OUTSIDE_TLAB = "jdk.ObjectAllocationOutsideTLAB";
+
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+
+    private static final String THREAD_PARK = "jdk.ThreadPark";
+
+    private final long executionSamples;
+
+    private final List<Site> hotMethods;
+
+    private final List<Site> hotApplicationMethods;
+
+    private final List<Site> allocationSites;
+
+    private final List<Site> lockContention;
+
+    private RecordingSummary(long executionSamples, List<Site> hotMethods, List<Site> hotApplicationMethods,
+                             List<Site> allocationSites, List<Site> lockContention) {
+        this.executionSamples = executionSamples;
+        this.hotMethods = hotMethods;
+        this.hotApplicationMethods = hotApplicationMethods;
+        this.allocationSites = allocationSites;
+        this.lockContention = lockContention;
+    }
+
+    /**
+     * Read a recording file, one event at a time.
+     *
+     * @param file the recording.
+     * @param applicationPackage the package of the application, for example {@code sn.ssi.sigmap}.
+     * @param size the number of sites kept in each list.
+     * @return the summary.
+     * @throws IOException if the file cannot be read.
+     */
+    public static RecordingSummary read(Path file, String applicationPackage, int size) throws IOException {
+        String prefix = applicationPackage + ".";
+        long executionSamples = 0;
+        Map<Site, Site> hotMethods = new HashMap<>();
+        Map<Site, Site> hotApplicationMethods = new HashMap<>();
+        Map<Site, Site> allocationSites = new HashMap<>();
+        Map<Site, Site> lockContention = new HashMap<>();
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                String eventName = event.getEventType().getName();
+                RecordedStackTrace stackTrace = event.getStackTrace();
+                if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+                    continue;
+                }
+                switch (eventName) {
+                    case EXECUTION_SAMPLE:
+                        executionSamples++;
+                        add(hotMethods, frameName(stackTrace.getFrames().get(0)), null, 1);
+                        add(hotApplicationMethods, applicationFrame(stackTrace, prefix), null, 1);
+                        break;
+                    case ALLOCATION_IN_NEW_TLAB:
+                    case ALLOCATION_OUTSIDE_TLAB:
+                    case ALLOCATION_SAMPLE:
+                        add(allocationSites, applicationFrame(stackTrace, prefix), className(event, "objectClass"), allocationWeight(event));
+                        break;
+                    case MONITOR_ENTER:
+                        add(lockContention, applicationFrame(stackTrace, prefix), className(event, "monitorClass"), event.getDuration().toNanos());
+                        break;
+                    case THREAD_PARK:
+                        add(lockContention, applicationFrame(stackTrace, prefix), className(event, "parkedClass"), event.getDuration().toNanos());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return new RecordingSummary(executionSamples, top(hotMethods, size), top(hotApplicationMethods, size),
+            top(allocationSites, size), top(lockContention, size));
+    }
+
+    public long getExecutionSamples() {
+        return executionSamples;
+    }
+
+    /**
+     * @return the methods running when the threads were sampled, the total is the number of samples.
+     */
+    public List<Site> getHotMethods() {
+        return hotMethods;
+    }
+
+    /**
+     * @return the application methods running, or calling the method running, when the threads were sampled.
+     */
+    public List<Site> getHotApplicationMethods() {
+        return hotApplicationMethods;
+    }
+
+    /**
+     * @return the allocated classes by application method, the total is in bytes.
+     */
+    public List<Site> getAllocationSites() {
+        return allocationSites;
+    }
+
+    /**
+     * @return the monitors entered and the threads parked by application method, the total is in nanoseconds.
+     */
+    public List<Site> getLockContention() {
+        return lockContention;
+    }
+
+    private static void add(Map<Site, Site> sites, String frame, String detail, long total) {
+        Site key = new Site(frame, detail);
+        Site site = sites.computeIfAbsent(key, k -> k);
+        site.events++;
+        site.total += total;
+    }
+
+    private static List<Site> top(Map<Site, Site> sites, int size) {
+        List<Site> sorted = new ArrayList<>(sites.values());
+        sorted.sort(Comparator.comparingLong(Site::getTotal).reversed().thenComparing(Site::getFrame));
+        return Collections.unmodifiableList(sorted.subList(0, Math.min(size, sorted.size())));
+    }
+
+    private static String applicationFrame(RecordedStackTrace stackTrace, String prefix) {
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.getMethod() != null && frame.getMethod().getType().getName().startsWith(prefix)) {
+                return frameName(frame);
+            }
+        }
+        return OUTSIDE_APPLICATION;
+    }
+
+    private static String frameName(RecordedFrame frame) {
+        return frame.getMethod() == null ? "(unknown)" : frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static String className(RecordedEvent event, String field) {
+        return event.hasField(field) && event.getClass(field) != null ? event.getClass(field).getName() : null;
+    }
+
+    /**
+     * The allocations are sampled: a new TLAB is charged its whole size, as done by JDK Mission Control.
+     */
+    private static long allocationWeight(RecordedEvent event) {
+        if (event.hasField("weight")) {
+            return event.getLong("weight");
+        }
+        if (event.hasField("tlabSize")) {
+            return event.getLong("tlabSize");
+        }
+        return event.getLong("allocationSize");
+    }
+
+    /**
+     * A method, with the class allocated or locked there, and the number and total of its events.
+     */
+    public static final class Site {
+
+        private final String frame;
+
+        private final String detail;
+
+        private long events;
+
+        private long total;
+
+        Site(String frame, String detail) {
+            this.frame = frame;
+            this.detail = detail;
+        }
+
+        public String getFrame() {
+            return frame;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Site)) {
+                return false;
+            }
+            Site site = (Site) o;
+            return frame.equals(site.frame) && Objects.equals(detail, site.detail);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(frame, detail);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Java Flight Recorder recordings started on demand by {@code /management/profiling}.
+ */
+package sn.ssi.sigmap.config.profiling;
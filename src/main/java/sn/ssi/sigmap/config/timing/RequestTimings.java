@@ -0,0 +1,111 @@
+package sn.ssi.sigmap.config.timing;
+
+import java.util.Locale;
+
+/**
+ * The time spent in each {@link TimingMetric} by the current request.
+ * <p>
+ * The timings are bound to the thread of the request by the {@link ServerTimingFilter}. The instrumented code calls
+ * {@link #start()} then {@link #stop(TimingMetric, long)}, which only read a thread local when the timings are
+ * disabled. The work done on other threads, such as a cache load shared with another request, is not counted.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private static final TimingMetric[] METRICS = TimingMetric.values();
+
+    private final long startedAt = System.nanoTime();
+
+    private final long[] durations = new long[METRICS.length];
+
+    private final int[] counts = new int[METRICS.length];
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Time the current thread until {@link #unbind()}.
+     *
+     * @return the new timings.
+     */
+    static RequestTimings bind() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the timings of the current thread, or null if it is not timed.
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the start of a timed part, or {@code 0} if the current thread is not timed.
+     */
+    public static long start() {
+        return CURRENT.get() == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Add the time elapsed since {@code start} to a metric of the current request.
+     *
+     * @param metric the timed part.
+     * @param start the value returned by {@link #start()}.
+     */
+    public static void stop(TimingMetric metric, long start) {
+        if (start == 0) {
+            return;
+        }
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(metric, System.nanoTime() - start);
+        }
+    }
+
+    public void add(TimingMetric metric, long nanos) {
+        durations[metric.ordinal()] += nanos;
+        counts[metric.ordinal()]++;
+    }
+
+    public long getDuration(TimingMetric metric) {
+        return durations[metric.ordinal()];
+    }
+
+    public int getCount(TimingMetric metric) {
+        return counts[metric.ordinal()];
+    }
+
+    public long getElapsed() {
+        return System.nanoTime() - startedAt;
+    }
+
+    /**
+     * @return the value of the {@code Server-Timing} header: the timed parts, then the total, in milliseconds.
+     */
+    public String toHeaderValue() {
+        StringBuilder value = new StringBuilder();
+        for (TimingMetric metric : METRICS) {
+            if (counts[metric.ordinal()] > 0) {
+                appendMetric(value, metric.getHeaderName(), durations[metric.ordinal()],
+                    metric.getDescription() + " (" + counts[metric.ordinal()] + ")");
+                value.append(", ");
+            }
+        }
+        appendMetric(value, "total", getElapsed(), null);
+        return value.toString();
+    }
+
+    private static void appendMetric(StringBuilder value, String name, long nanos, String description) {
+        value.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+        if (description != null) {
+            value.append(";desc=\"").append(description).append('"');
+        }
+    }
+}
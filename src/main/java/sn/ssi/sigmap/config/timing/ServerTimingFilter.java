@@ -0,0 +1,192 @@
+package sn.ssi.sigmap.config.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the API requests, see {@link RequestTimings}.
+ * <p>
+ * The breakdown is sent in the {@code Server-Timing} header, added when the first byte of the body is written, and
+ * recorded in the {@code http.server.requests.breakdown} histograms, tagged by endpoint, method and metric. It must run
+ * before the security filters, so that the authentication is timed.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    static final String BREAKDOWN_METER = "http.server.requests.breakdown";
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean header;
+
+    public ServerTimingFilter(MeterRegistry meterRegistry, boolean header) {
+        this.meterRegistry = meterRegistry;
+        this.header = header;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.bind();
+        TimingResponse timingResponse = new TimingResponse(response, timings);
+        try {
+            filterChain.doFilter(request, timingResponse);
+        } finally {
+            RequestTimings.unbind();
+            if (!response.isCommitted()) {
+                timingResponse.addServerTiming();
+            }
+            record(request, timings);
+        }
+    }
+
+    /**
+     * The breakdown is not tagged by status, which would multiply the histograms.
+     */
+    private void record(HttpServletRequest request, RequestTimings timings) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        for (TimingMetric metric : TimingMetric.values()) {
+            if (timings.getCount(metric) > 0) {
+                Timer.builder(BREAKDOWN_METER)
+                    .description("Time of the API requests spent in each part")
+                    .tag("uri", uri)
+                    .tag("method", request.getMethod())
+                    .tag("metric", metric.getHeaderName())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(timings.getDuration(metric), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Adds the {@code Server-Timing} header just before the body is written, once the response is complete or about
+     * to be committed.
+     */
+    private final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTimings timings;
+
+        private boolean headerAdded;
+
+        private ServletOutputStream outputStream;
+
+        TimingResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        void addServerTiming() {
+            if (!headerAdded) {
+                headerAdded = true;
+                if (header) {
+                    setHeader(SERVER_TIMING_HEADER, timings.toHeaderValue());
+                }
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimingOutputStream(super.getOutputStream(), this);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+
+    private static final class TimingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream target;
+
+        private final TimingResponse response;
+
+        TimingOutputStream(ServletOutputStream target, TimingResponse response) {
+            this.target = target;
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            response.addServerTiming();
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            response.addServerTiming();
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            response.addServerTiming();
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            response.addServerTiming();
+            target.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+    }
+}
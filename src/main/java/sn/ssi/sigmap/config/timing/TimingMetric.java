@@ -0,0 +1,34 @@
+package sn.ssi.sigmap.config.timing;
+
+/**
+ * The parts of a request timed by the {@link RequestTimings}, with their name in the {@code Server-Timing} header.
+ * <p>
+ * The parts can overlap: the statements of the count query are also counted in {@link #DB}, and the statements of a
+ * flush in {@link #FLUSH}.
+ */
+public enum TimingMetric {
+
+    CACHE("cache", "Second-level cache"),
+    DB("db", "SQL statements"),
+    FLUSH("flush", "Hibernate flush"),
+    COUNT("count", "Count of the listing"),
+    SERIALIZATION("ser", "JSON serialization"),
+    SECURITY("auth", "JWT authentication");
+
+    private final String headerName;
+
+    private final String description;
+
+    TimingMetric(String headerName, String description) {
+        this.headerName = headerName;
+        this.description = description;
+    }
+
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
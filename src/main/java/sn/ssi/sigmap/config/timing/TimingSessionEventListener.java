@@ -0,0 +1,73 @@
+package sn.ssi.sigmap.config.timing;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time spent by Hibernate in the second-level cache, the SQL statements and the flushes to the
+ * {@link RequestTimings} of the current request.
+ * <p>
+ * A new listener is created for each session, see {@code hibernate.session.events.auto}. A statement is timed by its
+ * execution, the fetch of its rows is not included.
+ */
+public class TimingSessionEventListener extends BaseSessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient long cacheStart;
+
+    private transient long statementStart;
+
+    private transient long batchStart;
+
+    private transient long flushStart;
+
+    @Override
+    public void cacheGetStart() {
+        cacheStart = RequestTimings.start();
+    }
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        RequestTimings.stop(TimingMetric.CACHE, cacheStart);
+    }
+
+    @Override
+    public void cachePutStart() {
+        cacheStart = RequestTimings.start();
+    }
+
+    @Override
+    public void cachePutEnd() {
+        RequestTimings.stop(TimingMetric.CACHE, cacheStart);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = RequestTimings.start();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTimings.stop(TimingMetric.DB, statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = RequestTimings.start();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimings.stop(TimingMetric.DB, batchStart);
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart = RequestTimings.start();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestTimings.stop(TimingMetric.FLUSH, flushStart);
+    }
+}
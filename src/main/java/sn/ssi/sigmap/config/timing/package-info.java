@@ -0,0 +1,4 @@
+/**
+ * Breakdown of the time spent by the API requests, sent in the {@code Server-Timing} header.
+ */
+package sn.ssi.sigmap.config.timing;
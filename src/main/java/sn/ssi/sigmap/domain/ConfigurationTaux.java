@@ -25,6 +25,10 @@ public class ConfigurationTaux implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "code", nullable = false)
     private String code;
@@ -60,6 +64,14 @@ public class ConfigurationTaux implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getCode() {
         return code;
     }
@@ -20,6 +20,10 @@ public class CriteresQualification implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @Column(name = "libelle")
   private String libelle;
 
@@ -32,6 +36,14 @@ public class CriteresQualification implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public CriteresQualification id(Long id) {
     this.id = id;
     return this;
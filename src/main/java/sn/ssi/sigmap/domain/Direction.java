@@ -21,6 +21,10 @@ public class Direction implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @NotNull
   @Column(name = "sigle", nullable = false)
   private String sigle;
@@ -41,6 +45,14 @@ public class Direction implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public Direction id(Long id) {
     this.id = id;
     return this;
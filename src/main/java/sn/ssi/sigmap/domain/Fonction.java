@@ -21,6 +21,10 @@ public class Fonction implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @NotNull
   @Size(max = 255)
   @Column(name = "libelle", length = 255, nullable = false)
@@ -38,6 +42,14 @@ public class Fonction implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public Fonction id(Long id) {
     this.id = id;
     return this;
@@ -25,6 +25,10 @@ public class Fournisseur implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Size(max = 255)
     @Column(name = "raison_sociale", length = 255, nullable = false)
@@ -85,6 +89,14 @@ public class Fournisseur implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getRaisonSociale() {
         return raisonSociale;
     }
@@ -21,6 +21,10 @@ public class GroupesImputation implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @NotNull
   @Column(name = "libelle", nullable = false)
   private String libelle;
@@ -37,6 +41,14 @@ public class GroupesImputation implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public GroupesImputation id(Long id) {
     this.id = id;
     return this;
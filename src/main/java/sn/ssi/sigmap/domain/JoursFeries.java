@@ -24,6 +24,10 @@ public class JoursFeries implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "date", nullable = false)
     private Instant date;
@@ -40,6 +44,14 @@ public class JoursFeries implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Instant getDate() {
         return date;
     }
@@ -20,6 +20,10 @@ public class Pays implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @Column(name = "libelle")
   private String libelle;
 
@@ -35,6 +39,14 @@ public class Pays implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public Pays id(Long id) {
     this.id = id;
     return this;
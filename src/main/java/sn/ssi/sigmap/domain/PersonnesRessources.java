@@ -21,6 +21,10 @@ public class PersonnesRessources implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @NotNull
   @Column(name = "nom", nullable = false)
   private String nom;
@@ -53,6 +57,14 @@ public class PersonnesRessources implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public PersonnesRessources id(Long id) {
     this.id = id;
     return this;
@@ -22,6 +22,10 @@ public class PiecesAdministratives implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @NotNull
   @Column(name = "code", nullable = false)
   private String code;
@@ -50,6 +54,14 @@ public class PiecesAdministratives implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public PiecesAdministratives id(Long id) {
     this.id = id;
     return this;
@@ -23,6 +23,10 @@ public class SourcesFinancement implements Serializable {
     @SequenceGenerator(name = "sequenceGenerator")
     private Long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "code", nullable = false)
     private String code;
@@ -43,6 +47,14 @@ public class SourcesFinancement implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getCode() {
         return code;
     }
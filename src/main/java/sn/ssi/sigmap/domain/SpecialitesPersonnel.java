@@ -21,6 +21,10 @@ public class SpecialitesPersonnel implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @NotNull
   @Column(name = "libelle", nullable = false)
   private String libelle;
@@ -34,6 +38,14 @@ public class SpecialitesPersonnel implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public SpecialitesPersonnel id(Long id) {
     this.id = id;
     return this;
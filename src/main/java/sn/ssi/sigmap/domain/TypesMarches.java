@@ -21,6 +21,10 @@ public class TypesMarches implements Serializable {
   @SequenceGenerator(name = "sequenceGenerator")
   private Long id;
 
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
   @NotNull
   @Column(name = "code", nullable = false)
   private String code;
@@ -40,6 +44,14 @@ public class TypesMarches implements Serializable {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public TypesMarches id(Long id) {
     this.id = id;
     return this;
@@ -0,0 +1,21 @@
+package sn.ssi.sigmap.repository.support;
+
+/**
+ * How the total number of entities of a paginated listing is obtained.
+ */
+public enum CountStrategy {
+    /**
+     * A {@code count(*)} query for every page.
+     */
+    EXACT,
+
+    /**
+     * A {@code count(*)} query, kept until the entities change.
+     */
+    CACHED,
+
+    /**
+     * The number of rows of the PostgreSQL statistics for a large table, an exact count otherwise.
+     */
+    ESTIMATED
+}
@@ -0,0 +1,27 @@
+package sn.ssi.sigmap.repository.support;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page telling whether its total is an estimate.
+ *
+ * @param <T> the type of the entities.
+ */
+public class CountedPage<T> extends PageImpl<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean totalEstimated;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, boolean totalEstimated) {
+        super(content, pageable, total);
+        this.totalEstimated = totalEstimated;
+    }
+
+    public boolean isTotalEstimated() {
+        return totalEstimated;
+    }
+}
@@ -0,0 +1,51 @@
+package sn.ssi.sigmap.repository.support;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * Base class of the repositories, counting the entities of a page with the {@link CountStrategy} of their type.
+ * <p>
+ * As with {@link SimpleJpaRepository}, no count is made when the page is the last one and its size tells the total.
+ *
+ * @param <T> the type of the entities.
+ * @param <ID> the type of their id.
+ */
+public class CountingJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> {
+
+    private final EntityManager entityManager;
+
+    private final TotalCounts totalCounts;
+
+    public CountingJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager, TotalCounts totalCounts) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+        this.totalCounts = totalCounts;
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        // The exact counts go through TotalCounts too, so that the count query is timed apart from the page
+        if (pageable.isUnpaged()) {
+            return super.findAll(pageable);
+        }
+        TypedQuery<T> query = getQuery(null, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        List<T> content = query.getResultList();
+        if (!content.isEmpty() && content.size() < pageable.getPageSize()) {
+            return new CountedPage<>(content, pageable, pageable.getOffset() + content.size(), false);
+        }
+        if (content.isEmpty() && pageable.getOffset() == 0) {
+            return new CountedPage<>(content, pageable, 0, false);
+        }
+        TotalCounts.Total total = totalCounts.count(getDomainClass(), entityManager, this::count);
+        return new CountedPage<>(content, pageable, total.getCount(), total.isEstimated());
+    }
+}
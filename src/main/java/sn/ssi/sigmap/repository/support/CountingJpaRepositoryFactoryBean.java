@@ -0,0 +1,48 @@
+package sn.ssi.sigmap.repository.support;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Creates the repositories with the {@link CountingJpaRepository} base class.
+ *
+ * @param <R> the type of the repository.
+ * @param <T> the type of the entities.
+ * @param <ID> the type of their id.
+ */
+public class CountingJpaRepositoryFactoryBean<R extends Repository<T, ID>, T, ID> extends JpaRepositoryFactoryBean<R, T, ID> {
+
+    private TotalCounts totalCounts;
+
+    public CountingJpaRepositoryFactoryBean(Class<? extends R> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Autowired
+    public void setTotalCounts(TotalCounts totalCounts) {
+        this.totalCounts = totalCounts;
+    }
+
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+        return new JpaRepositoryFactory(entityManager) {
+            @Override
+            protected JpaRepositoryImplementation<?, ?> getTargetRepository(RepositoryInformation information, EntityManager entityManager) {
+                return new CountingJpaRepository<>(getEntityInformation(information.getDomainType()), entityManager, totalCounts);
+            }
+
+            @Override
+            protected Class<?> getRepositoryBaseClass(RepositoryMetadata metadata) {
+                return CountingJpaRepository.class;
+            }
+        };
+    }
+}
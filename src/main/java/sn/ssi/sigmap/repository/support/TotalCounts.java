@@ -0,0 +1,155 @@
+package sn.ssi.sigmap.repository.support;
+
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.config.timing.RequestTimings;
+import sn.ssi.sigmap.config.timing.TimingMetric;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangedEvent;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the entities of the paginated listings with the {@link CountStrategy} of their entity.
+ * <p>
+ * The cached counts are dropped when an entity of the same type is created, updated or deleted on any node, or
+ * invalidated in the database, and at the latest after {@code application.pagination.cached-count-max-age-seconds}.
+ */
+@Component
+public class TotalCounts {
+
+    private static final String ESTIMATE_QUERY = "select reltuples from pg_class where oid = to_regclass(?1)";
+
+    private final Logger log = LoggerFactory.getLogger(TotalCounts.class);
+
+    private final ApplicationProperties.Pagination properties;
+
+    private final ConcurrentMap<Class<?>, CachedCount> cachedCounts = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public TotalCounts(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getPagination();
+    }
+
+    public CountStrategy getCountStrategy(Class<?> domainClass) {
+        return properties.getCountStrategies().getOrDefault(domainClass.getSimpleName(), CountStrategy.EXACT);
+    }
+
+    /**
+     * Count the entities of a type.
+     *
+     * @param domainClass the entity class.
+     * @param entityManager the entity manager of its repository.
+     * @param exactCount the {@code count(*)} query.
+     * @return the total, with whether it is estimated.
+     */
+    public Total count(Class<?> domainClass, EntityManager entityManager, LongSupplier exactCount) {
+        long start = RequestTimings.start();
+        try {
+            return countWithStrategy(domainClass, entityManager, exactCount);
+        } finally {
+            RequestTimings.stop(TimingMetric.COUNT, start);
+        }
+    }
+
+    private Total countWithStrategy(Class<?> domainClass, EntityManager entityManager, LongSupplier exactCount) {
+        switch (getCountStrategy(domainClass)) {
+            case CACHED:
+                return new Total(cachedCount(domainClass, exactCount), false);
+            case ESTIMATED:
+                long estimate = estimate(domainClass, entityManager);
+                if (estimate >= properties.getEstimatedMinRows()) {
+                    return new Total(estimate, true);
+                }
+                return new Total(exactCount.getAsLong(), false);
+            default:
+                return new Total(exactCount.getAsLong(), false);
+        }
+    }
+
+    @EventListener
+    public void onReferentielChanged(ReferentielChangedEvent event) {
+        getGeneration(event.getReferentiel().getEntityClass()).incrementAndGet();
+    }
+
+    private long cachedCount(Class<?> domainClass, LongSupplier exactCount) {
+        long now = System.nanoTime();
+        // A change committed during the count makes it stale at once
+        long generation = getGeneration(domainClass).get();
+        CachedCount cachedCount = cachedCounts.get(domainClass);
+        if (cachedCount != null && cachedCount.generation == generation &&
+            now - cachedCount.countedAt < TimeUnit.SECONDS.toNanos(properties.getCachedCountMaxAgeSeconds())) {
+            return cachedCount.count;
+        }
+        long count = exactCount.getAsLong();
+        cachedCounts.put(domainClass, new CachedCount(count, generation, now));
+        return count;
+    }
+
+    private AtomicLong getGeneration(Class<?> domainClass) {
+        return generations.computeIfAbsent(domainClass, key -> new AtomicLong());
+    }
+
+    private long estimate(Class<?> domainClass, EntityManager entityManager) {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMetamodel().entityPersister(domainClass);
+        if (!(sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect) || !(persister instanceof AbstractEntityPersister)) {
+            return -1;
+        }
+        Object estimate = entityManager.createNativeQuery(ESTIMATE_QUERY)
+            .setParameter(1, ((AbstractEntityPersister) persister).getTableName())
+            .getResultList().stream().findFirst().orElse(null);
+        log.debug("Estimated number of {} : {}", domainClass.getSimpleName(), estimate);
+        return estimate instanceof Number ? ((Number) estimate).longValue() : -1;
+    }
+
+    /**
+     * The total number of entities, and whether it is estimated.
+     */
+    public static final class Total {
+
+        private final long count;
+
+        private final boolean estimated;
+
+        Total(long count, boolean estimated) {
+            this.count = count;
+            this.estimated = estimated;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public boolean isEstimated() {
+            return estimated;
+        }
+    }
+
+    private static final class CachedCount {
+
+        private final long count;
+
+        private final long generation;
+
+        private final long countedAt;
+
+        CachedCount(long count, long generation, long countedAt) {
+            this.count = count;
+            this.generation = generation;
+            this.countedAt = countedAt;
+        }
+    }
+}
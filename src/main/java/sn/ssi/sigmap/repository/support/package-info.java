@@ -0,0 +1,4 @@
+/**
+ * Base implementation of the Spring Data JPA repositories.
+ */
+package sn.ssi.sigmap.repository.support;
@@ -1,5 +1,8 @@
 package sn.ssi.sigmap.security.jwt;
 
+import sn.ssi.sigmap.config.timing.RequestTimings;
+import sn.ssi.sigmap.config.timing.TimingMetric;
+
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
@@ -29,12 +32,14 @@ public class JWTFilter extends GenericFilterBean {
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
         throws IOException, ServletException {
+        long start = RequestTimings.start();
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         String jwt = resolveToken(httpServletRequest);
         if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
             Authentication authentication = this.tokenProvider.getAuthentication(jwt);
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
+        RequestTimings.stop(TimingMetric.SECURITY, start);
         filterChain.doFilter(servletRequest, servletResponse);
     }
 
@@ -0,0 +1,155 @@
+package sn.ssi.sigmap.service.cache;
+
+import io.github.jhipster.config.JHipsterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reloads the hot entities in their second-level cache region before their time to live is reached, so that they
+ * do not expire while they are read.
+ * <p>
+ * Each read of an entity refreshes it with a probability growing as its expiration comes closer, and faster for the
+ * entities which are long to load ("probabilistic early expiration"): an entity read often is refreshed shortly
+ * before it expires, an entity read rarely simply expires. The refresh runs on the {@code taskExecutor}, with
+ * {@link CacheMode#REFRESH}, which puts the entity read from the database in the region and restarts its time to
+ * live. The expiration of an entity is only known once it was loaded or refreshed by this node.
+ */
+@Service
+public class CacheEarlyRefresher {
+
+    private final Logger log = LoggerFactory.getLogger(CacheEarlyRefresher.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheRegions cacheRegions;
+
+    private final Executor taskExecutor;
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final Map<Object, Expiration> expirations;
+
+    private final Counter refreshes;
+
+    public CacheEarlyRefresher(EntityManagerFactory entityManagerFactory, CacheRegions cacheRegions,
+                               @Qualifier("taskExecutor") Executor taskExecutor, ApplicationProperties applicationProperties,
+                               JHipsterProperties jHipsterProperties, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheRegions = cacheRegions;
+        this.taskExecutor = taskExecutor;
+        this.cacheProperties = applicationProperties.getCache();
+        this.jHipsterProperties = jHipsterProperties;
+        int maxTrackedEntities = cacheProperties.getLoadCoalescing().getMaxTrackedEntities();
+        this.expirations = Collections.synchronizedMap(new LinkedHashMap<Object, Expiration>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Expiration> eldest) {
+                return size() > maxTrackedEntities;
+            }
+        });
+        this.refreshes = Counter.builder("cache.early.refreshes")
+            .description("Number of entities reloaded in the second-level cache before their expiration")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record the read of a cached entity, and refresh it if its expiration is close.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     * @param loadNanos the time taken by the read.
+     */
+    public void onRead(Class<?> entityClass, Object id, long loadNanos) {
+        if (!cacheProperties.getLoadCoalescing().isEarlyRefresh() || !cacheRegions.findAccessType(entityClass).isPresent()) {
+            return;
+        }
+        long timeToLiveNanos = TimeUnit.SECONDS.toNanos(getTimeToLiveSeconds(entityClass));
+        if (timeToLiveNanos <= 0) {
+            return;
+        }
+        Object key = Arrays.asList(entityClass, id);
+        long now = System.nanoTime();
+        Expiration expiration = expirations.get(key);
+        if (expiration == null) {
+            expirations.put(key, new Expiration(now + timeToLiveNanos, loadNanos));
+        } else if (expiration.isDue(now, cacheProperties.getLoadCoalescing().getEarlyRefreshBeta()) && expiration.refreshing.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> refresh(key, entityClass, id, timeToLiveNanos, expiration));
+        }
+    }
+
+    private void refresh(Object key, Class<?> entityClass, Object id, long timeToLiveNanos, Expiration expiration) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            long start = System.nanoTime();
+            Session session = entityManager.unwrap(Session.class);
+            session.setCacheMode(CacheMode.REFRESH);
+            session.setDefaultReadOnly(true);
+            transaction.begin();
+            entityManager.find(entityClass, id);
+            transaction.commit();
+            long end = System.nanoTime();
+            expirations.put(key, new Expiration(end + timeToLiveNanos, end - start));
+            refreshes.increment();
+            log.debug("Refreshed the cached {} : {}", entityClass.getSimpleName(), id);
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the cached {} : {}: {}", entityClass.getSimpleName(), id, e.getMessage());
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            expiration.refreshing.set(false);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private long getTimeToLiveSeconds(Class<?> entityClass) {
+        ApplicationProperties.Cache.Region region = cacheProperties.getRegions().getOrDefault(entityClass.getSimpleName(),
+            cacheProperties.getDefaultRegion());
+        Integer timeToLiveSeconds = region.getTimeToLiveSeconds();
+        return timeToLiveSeconds != null ? timeToLiveSeconds : jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds();
+    }
+
+    private static final class Expiration {
+
+        private final long expiresAt;
+
+        private final long loadNanos;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Expiration(long expiresAt, long loadNanos) {
+            this.expiresAt = expiresAt;
+            this.loadNanos = loadNanos;
+        }
+
+        /**
+         * The expiration is brought forward by the load time, multiplied by {@code -beta * ln(random)}, which is
+         * rarely much larger than 1.
+         */
+        boolean isDue(long now, double beta) {
+            double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+            return now - loadNanos * beta * Math.log(random) >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package sn.ssi.sigmap.service.cache;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published in the local application context once the cached data of an entity has been invalidated on this node.
+ * <p>
+ * Caches kept outside of Hibernate, such as response caches, listen to this event to drop their own copies.
+ */
+public class CacheInvalidatedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Class<?> entityClass;
+
+    private final Long id;
+
+    private final boolean origin;
+
+    public CacheInvalidatedEvent(Object source, Class<?> entityClass, Long id, boolean origin) {
+        super(source);
+        this.entityClass = entityClass;
+        this.id = id;
+        this.origin = origin;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return the identifier of the invalidated entity, or {@code null} when the whole region is invalidated.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isWholeRegion() {
+        return id == null;
+    }
+
+    /**
+     * @return whether this node is the one reporting the invalidation to the rest of the cluster, every node being
+     * invalidated.
+     */
+    public boolean isOrigin() {
+        return origin;
+    }
+}
@@ -0,0 +1,38 @@
+package sn.ssi.sigmap.service.cache;
+
+import java.io.Serializable;
+
+/**
+ * A cache invalidation published on the cluster invalidation topic.
+ * <p>
+ * A message without identifier invalidates the whole region of the entity.
+ */
+public class CacheInvalidationMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    private final Long id;
+
+    public CacheInvalidationMessage(String entityName, Long id) {
+        this.entityName = entityName;
+        this.id = id;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidationMessage{" +
+            "entityName='" + entityName + "'" +
+            ", id=" + id +
+            "}";
+    }
+}
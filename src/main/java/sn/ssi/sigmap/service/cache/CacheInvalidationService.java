@@ -0,0 +1,125 @@
+package sn.ssi.sigmap.service.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Invalidates cached entities on every node of the cluster, independently of the region TTL.
+ * <p>
+ * Invalidations are published on a Hazelcast topic. Each node then evicts the entity, or its whole region, from the
+ * second-level cache, drops the query cache regions and publishes a {@link CacheInvalidatedEvent} so that the other
+ * local caches are cleared too. The node which published the invalidation is its origin, as is the oldest member of
+ * the cluster for the invalidations received by every node from the database.
+ */
+@Service
+public class CacheInvalidationService implements MessageListener<CacheInvalidationMessage> {
+
+    public static final String TOPIC_NAME = "referentielms-cache-invalidation";
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheRegions cacheRegions;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final MeterRegistry meterRegistry;
+
+    private String registrationId;
+
+    public CacheInvalidationService(HazelcastInstance hazelcastInstance, EntityManagerFactory entityManagerFactory,
+                                    CacheRegions cacheRegions, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheRegions = cacheRegions;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        registrationId = getTopic().addMessageListener(this);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        try {
+            getTopic().removeMessageListener(registrationId);
+        } catch (HazelcastInstanceNotActiveException e) {
+            log.debug("Hazelcast is already stopped");
+        }
+    }
+
+    /**
+     * Invalidate a cached entity on all the nodes of the cluster.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity, or {@code null} to invalidate the whole region.
+     */
+    public void invalidate(Class<?> entityClass, Long id) {
+        log.debug("Publishing cache invalidation of {} : {}", entityClass.getSimpleName(), id);
+        getTopic().publish(new CacheInvalidationMessage(entityClass.getSimpleName(), id));
+    }
+
+    @Override
+    public void onMessage(Message<CacheInvalidationMessage> message) {
+        CacheInvalidationMessage invalidation = message.getMessageObject();
+        boolean origin = message.getPublishingMember() != null && message.getPublishingMember().localMember();
+        cacheRegions.findCachedEntityType(invalidation.getEntityName()).ifPresent(entityType ->
+            invalidateLocally(entityType.getJavaType(), invalidation.getId(), origin)
+        );
+    }
+
+    /**
+     * Invalidate a cached entity on this node only, for an invalidation received by every node.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity, or {@code null} to invalidate the whole region.
+     */
+    public void invalidateLocally(Class<?> entityClass, Long id) {
+        invalidateLocally(entityClass, id, isOldestMember());
+    }
+
+    private void invalidateLocally(Class<?> entityClass, Long id, boolean origin) {
+        log.debug("Invalidating cached {} : {}", entityClass.getSimpleName(), id);
+        Cache cache = entityManagerFactory.getCache();
+        if (id == null) {
+            cache.evict(entityClass);
+        } else {
+            cache.evict(entityClass, id);
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        meterRegistry.counter("cache.invalidations", "region", CacheRegions.regionName(entityClass),
+            "scope", id == null ? "region" : "entity").increment();
+        eventPublisher.publishEvent(new CacheInvalidatedEvent(this, entityClass, id, origin));
+    }
+
+    private boolean isOldestMember() {
+        try {
+            return hazelcastInstance.getCluster().getMembers().iterator().next().localMember();
+        } catch (HazelcastInstanceNotActiveException e) {
+            return false;
+        }
+    }
+
+    private ITopic<CacheInvalidationMessage> getTopic() {
+        return hazelcastInstance.getTopic(TOPIC_NAME);
+    }
+}
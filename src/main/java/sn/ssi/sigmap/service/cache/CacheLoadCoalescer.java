@@ -0,0 +1,142 @@
+package sn.ssi.sigmap.service.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares a single load between the concurrent callers asking for the same entity or page, so that an expired entry
+ * of a second-level cache region sends one query to the database instead of one per request.
+ * <p>
+ * The callers arriving while a load is running wait for its result, which they receive as is: the loads must be
+ * made outside of a transaction, and their result must not be modified. The loads of an entity missing from its
+ * region can also be serialized across the cluster: the other nodes then find the entity in the region once they
+ * get the lock.
+ */
+@Service
+public class CacheLoadCoalescer {
+
+    public static final String LOCK_MAP_NAME = "referentielms-cache-loads";
+
+    /**
+     * A load, which can throw any exception of the coalesced method.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws Throwable;
+    }
+
+    private final Logger log = LoggerFactory.getLogger(CacheLoadCoalescer.class);
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties.Cache.LoadCoalescing properties;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter coalesced;
+
+    public CacheLoadCoalescer(HazelcastInstance hazelcastInstance, EntityManagerFactory entityManagerFactory,
+                              ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.entityManagerFactory = entityManagerFactory;
+        this.properties = applicationProperties.getCache().getLoadCoalescing();
+        this.coalesced = Counter.builder("cache.load.coalesced")
+            .description("Number of loads served by a load already running for the same key")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run a load, or wait for the one already running for the same key on this node.
+     *
+     * @param key the key of the load, for example the repository and the requested page.
+     * @param loader the load.
+     * @param <T> the type of the loaded value.
+     * @return the loaded value.
+     * @throws Throwable the exception thrown by the load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(Object key, Loader<T> loader) throws Throwable {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.increment();
+            return (T) await(running);
+        }
+        try {
+            T value = loader.load();
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Run the load of an entity, or wait for the one already running on this node.
+     * <p>
+     * When the loads are coalesced across the cluster and the entity is not in its region, the load waits for the
+     * ones of the other nodes.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     * @param loader the load.
+     * @param <T> the type of the loaded value.
+     * @return the loaded value.
+     * @throws Throwable the exception thrown by the load.
+     */
+    public <T> T loadEntity(Class<?> entityClass, Object id, Loader<T> loader) throws Throwable {
+        return load(Arrays.asList(entityClass, id), () ->
+            properties.isClusterWide() && !entityManagerFactory.getCache().contains(entityClass, id) ?
+                loadLocked(entityClass.getSimpleName() + ":" + id, loader) : loader.load());
+    }
+
+    private <T> T loadLocked(String clusterKey, Loader<T> loader) throws Throwable {
+        IMap<String, Boolean> locks = hazelcastInstance.getMap(LOCK_MAP_NAME);
+        boolean locked = false;
+        try {
+            locked = locks.tryLock(clusterKey, properties.getClusterLockTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!locked) {
+            log.debug("Loading {} without the cluster lock", clusterKey);
+        }
+        try {
+            return loader.load();
+        } finally {
+            if (locked) {
+                locks.unlock(clusterKey);
+            }
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) throws Throwable {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+}
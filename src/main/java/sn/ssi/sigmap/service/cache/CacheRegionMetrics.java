@@ -0,0 +1,43 @@
+package sn.ssi.sigmap.service.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.HazelcastCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports the size, hit and memory cost metrics of every second-level cache region.
+ * <p>
+ * The memory cost of each region is available as the {@code cache.entry.memory} gauge, tagged with
+ * the region name and with the {@code owned} or {@code backup} ownership.
+ */
+@Component
+public class CacheRegionMetrics {
+
+    private final Logger log = LoggerFactory.getLogger(CacheRegionMetrics.class);
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final CacheRegions cacheRegions;
+
+    private final MeterRegistry meterRegistry;
+
+    public CacheRegionMetrics(HazelcastInstance hazelcastInstance, CacheRegions cacheRegions, MeterRegistry meterRegistry) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.cacheRegions = cacheRegions;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindRegionMetrics() {
+        cacheRegions.getCachedEntityTypes().forEach(entityType -> {
+            String region = CacheRegions.regionName(entityType.getJavaType());
+            log.debug("Registering metrics for cache region {}", region);
+            HazelcastCacheMetrics.monitor(meterRegistry, hazelcastInstance.getMap(region));
+        });
+    }
+}
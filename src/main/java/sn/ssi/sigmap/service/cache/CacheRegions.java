@@ -0,0 +1,91 @@
+package sn.ssi.sigmap.service.cache;
+
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Lists the domain entities stored in the Hazelcast second-level cache.
+ * <p>
+ * Each cached entity has its own region, backed by a Hazelcast map named after the entity class.
+ */
+@Component
+public class CacheRegions {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheRegions(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * @return the entity types annotated with {@link org.hibernate.annotations.Cache}.
+     */
+    public List<EntityType<?>> getCachedEntityTypes() {
+        return entityManagerFactory.getMetamodel().getEntities().stream()
+            .filter(entityType -> entityType.getJavaType().isAnnotationPresent(org.hibernate.annotations.Cache.class))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Find a cached entity type from its simple name, for example {@code Pays}.
+     *
+     * @param entityName the entity name.
+     * @return the entity type, if it is cached.
+     */
+    public Optional<EntityType<?>> findCachedEntityType(String entityName) {
+        return getCachedEntityTypes().stream()
+            .filter(entityType -> entityType.getName().equals(entityName))
+            .findFirst();
+    }
+
+    /**
+     * Find a cached entity type from the name of its table, for example {@code types_marches}.
+     *
+     * @param tableName the table name, optionally prefixed by its schema.
+     * @return the entity type, if it is cached.
+     */
+    public Optional<EntityType<?>> findCachedEntityTypeByTable(String tableName) {
+        String table = unqualified(tableName);
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        return getCachedEntityTypes().stream()
+            .filter(entityType -> {
+                EntityPersister persister = sessionFactory.getMetamodel().entityPersister(entityType.getJavaType());
+                return persister instanceof AbstractEntityPersister &&
+                    unqualified(((AbstractEntityPersister) persister).getTableName()).equalsIgnoreCase(table);
+            })
+            .findFirst();
+    }
+
+    /**
+     * Find the concurrency strategy used by the region of an entity, which can differ from its annotation.
+     *
+     * @param entityClass the entity class.
+     * @return the access type of its region, or empty if the entity is not cached or the cache is disabled.
+     */
+    public Optional<AccessType> findAccessType(Class<?> entityClass) {
+        EntityPersister persister = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersister(entityClass);
+        return Optional.ofNullable(persister.getCacheAccessStrategy()).map(EntityDataAccess::getAccessType);
+    }
+
+    private static String unqualified(String tableName) {
+        return tableName.substring(tableName.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * @param entityClass a cached entity class.
+     * @return the name of its region, which is also the name of the backing Hazelcast map.
+     */
+    public static String regionName(Class<?> entityClass) {
+        return entityClass.getName();
+    }
+}
@@ -0,0 +1,33 @@
+package sn.ssi.sigmap.service.cache;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the node {@code OUT_OF_SERVICE} until the second-level cache warm-up is completed, so that
+ * the discovery service only routes traffic to it once its cache regions are loaded. The node is
+ * {@code DOWN} if some regions could not be loaded.
+ */
+@Component
+public class CacheWarmUpHealthIndicator extends AbstractHealthIndicator {
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    public CacheWarmUpHealthIndicator(CacheWarmUpService cacheWarmUpService) {
+        super("Cache warm-up health check failed");
+        this.cacheWarmUpService = cacheWarmUpService;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (cacheWarmUpService.isCompleted()) {
+            builder.up();
+        } else if (cacheWarmUpService.isFailed()) {
+            builder.down().withDetail("failedRegions", cacheWarmUpService.getFailedRegions());
+        } else {
+            builder.outOfService();
+        }
+        builder.withDetail("status", cacheWarmUpService.getStatus());
+    }
+}
@@ -0,0 +1,184 @@
+package sn.ssi.sigmap.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.metamodel.EntityType;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Preloads the Hazelcast second-level cache regions of the domain entities when the node starts.
+ * <p>
+ * Each region is streamed from the database in its own task on the {@code taskExecutor}, with
+ * {@link CacheMode#PUT} so that every loaded entity is written to the second-level cache. The node
+ * reports itself as {@code OUT_OF_SERVICE} through {@link CacheWarmUpHealthIndicator} until all
+ * regions are loaded, and as {@code DOWN} if some of them could not be loaded.
+ */
+@Service
+@DependsOn("liquibase")
+public class CacheWarmUpService {
+
+    public enum Status {
+        DISABLED,
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheRegions cacheRegions;
+
+    private final Executor taskExecutor;
+
+    private final ApplicationProperties.Cache.WarmUp properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger pendingRegions = new AtomicInteger();
+
+    private final AtomicInteger failedRegions = new AtomicInteger();
+
+    private volatile Status status;
+
+    public CacheWarmUpService(EntityManagerFactory entityManagerFactory, CacheRegions cacheRegions,
+                              @Qualifier("taskExecutor") Executor taskExecutor, ApplicationProperties applicationProperties,
+                              MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheRegions = cacheRegions;
+        this.taskExecutor = taskExecutor;
+        this.properties = applicationProperties.getCache().getWarmUp();
+        this.meterRegistry = meterRegistry;
+        this.status = properties.isEnabled() ? Status.PENDING : Status.DISABLED;
+        Gauge.builder("cache.warmup.pending.regions", pendingRegions, AtomicInteger::get)
+            .description("Number of second-level cache regions still being preloaded")
+            .register(meterRegistry);
+        Gauge.builder("cache.warmup.failed.regions", failedRegions, AtomicInteger::get)
+            .description("Number of second-level cache regions that could not be preloaded")
+            .register(meterRegistry);
+        Gauge.builder("cache.warmup.completed", this, service -> service.isCompleted() ? 1 : 0)
+            .description("Whether the second-level cache warm-up is finished")
+            .register(meterRegistry);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true once the warm-up is finished, or if it is disabled.
+     */
+    public boolean isCompleted() {
+        return status == Status.COMPLETED || status == Status.DISABLED;
+    }
+
+    /**
+     * @return true once the warm-up is finished and some regions could not be preloaded.
+     */
+    public boolean isFailed() {
+        return status == Status.FAILED;
+    }
+
+    public int getFailedRegions() {
+        return failedRegions.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (status != Status.PENDING) {
+            return;
+        }
+        List<EntityType<?>> regions = findRegionsToWarmUp();
+        log.info("Preloading {} second-level cache regions", regions.size());
+        status = Status.RUNNING;
+        pendingRegions.set(regions.size());
+        failedRegions.set(0);
+        CompletableFuture<?>[] tasks = regions.stream()
+            .map(entityType -> CompletableFuture.runAsync(() -> warmUpRegion(entityType), taskExecutor))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).whenComplete((result, throwable) -> {
+            if (throwable != null || failedRegions.get() > 0) {
+                status = Status.FAILED;
+                log.error("Second-level cache warm-up failed for {} of {} regions", failedRegions.get(), regions.size());
+            } else {
+                status = Status.COMPLETED;
+                log.info("Second-level cache warm-up completed");
+            }
+        });
+    }
+
+    private List<EntityType<?>> findRegionsToWarmUp() {
+        return cacheRegions.getCachedEntityTypes().stream()
+            .filter(entityType -> properties.getEntities().isEmpty() || properties.getEntities().contains(entityType.getName()))
+            .collect(Collectors.toList());
+    }
+
+    private void warmUpRegion(EntityType<?> entityType) {
+        String region = CacheRegions.regionName(entityType.getJavaType());
+        Counter entries = meterRegistry.counter("cache.warmup.entries", "region", region);
+        Timer timer = meterRegistry.timer("cache.warmup.duration", "region", region);
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            long start = System.nanoTime();
+            Session session = entityManager.unwrap(Session.class);
+            session.setCacheMode(CacheMode.PUT);
+            session.setDefaultReadOnly(true);
+            transaction.begin();
+            long count = 0;
+            ScrollableResults results = session.createQuery("select e from " + entityType.getName() + " e")
+                .setFetchSize(properties.getFetchSize())
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (results.next()) {
+                    count++;
+                    if (count % properties.getFetchSize() == 0) {
+                        // Entities are already in the second-level cache, keep the session small
+                        session.clear();
+                    }
+                }
+            } finally {
+                results.close();
+            }
+            transaction.commit();
+            entries.increment(count);
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Preloaded {} entries in cache region {}", count, region);
+        } catch (RuntimeException e) {
+            log.warn("Could not preload cache region {}: {}", region, e.getMessage());
+            failedRegions.incrementAndGet();
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        } finally {
+            entityManager.close();
+            pendingRegions.decrementAndGet();
+        }
+    }
+}
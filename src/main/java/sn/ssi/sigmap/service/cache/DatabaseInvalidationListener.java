@@ -0,0 +1,131 @@
+package sn.ssi.sigmap.service.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Invalidates the cached entities changed directly in the database, for example by SQL fixes or Liquibase data
+ * changes.
+ * <p>
+ * The cache invalidation triggers send a PostgreSQL notification with a {@code table:id} payload, or only the table
+ * name for a {@code TRUNCATE}, on the channel given to Liquibase by {@code LiquibaseConfiguration}. Every node listens
+ * on its own connection, opened with the {@link DriverManager} rather than taken from the pool: it is held for the
+ * life of the node, and would otherwise take a pool slot and be closed by the pool at its maximum lifetime. The
+ * invalidations are applied locally without going through the cluster topic.
+ */
+@Component
+public class DatabaseInvalidationListener {
+
+    private final Logger log = LoggerFactory.getLogger(DatabaseInvalidationListener.class);
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final CacheRegions cacheRegions;
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    private final ApplicationProperties.Cache.Invalidation.DatabaseListener properties;
+
+    private ExecutorService executor;
+
+    private volatile boolean running;
+
+    public DatabaseInvalidationListener(DataSourceProperties dataSourceProperties, CacheRegions cacheRegions,
+                                        CacheInvalidationService cacheInvalidationService, ApplicationProperties applicationProperties) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheRegions = cacheRegions;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.properties = applicationProperties.getCache().getInvalidation().getDatabaseListener();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Listening to cache invalidations on PostgreSQL channel {}", properties.getChannel());
+        running = true;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "referentielms-db-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(properties.getPollTimeoutMs());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Lost the cache invalidation channel, retrying in {} ms: {}", properties.getRetryDelayMs(), e.getMessage());
+                    pause();
+                }
+            }
+        }
+    }
+
+    void onNotification(String payload) {
+        int separator = payload.indexOf(':');
+        String table = separator < 0 ? payload : payload.substring(0, separator);
+        Long id = null;
+        if (separator >= 0) {
+            try {
+                id = Long.valueOf(payload.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring cache invalidation with an invalid id : {}", payload);
+                return;
+            }
+        }
+        Long entityId = id;
+        cacheRegions.findCachedEntityTypeByTable(table).ifPresent(entityType ->
+            cacheInvalidationService.invalidateLocally(entityType.getJavaType(), entityId)
+        );
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getRetryDelayMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
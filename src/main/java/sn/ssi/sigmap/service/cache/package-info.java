@@ -0,0 +1,4 @@
+/**
+ * Second-level cache management beans.
+ */
+package sn.ssi.sigmap.service.cache;
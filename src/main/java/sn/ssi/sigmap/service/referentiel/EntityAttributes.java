@@ -0,0 +1,48 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the attributes of an entity, except its id and version, through the JPA metamodel.
+ */
+final class EntityAttributes {
+
+    private EntityAttributes() {
+    }
+
+    /**
+     * @return the values of the attributes which are not {@code null}, by attribute name.
+     */
+    static Map<String, Object> getNonNullValues(ManagedType<?> type, Object entity) {
+        Map<String, Object> values = new HashMap<>();
+        for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+            if (isUpdatable(attribute)) {
+                Object value = ReflectionUtils.getField(getField(attribute), entity);
+                if (value != null) {
+                    values.put(attribute.getName(), value);
+                }
+            }
+        }
+        return values;
+    }
+
+    static void setValues(ManagedType<?> type, Object entity, Map<String, Object> values) {
+        values.forEach((name, value) -> ReflectionUtils.setField(getField(type.getSingularAttribute(name)), entity, value));
+    }
+
+    private static boolean isUpdatable(SingularAttribute<?, ?> attribute) {
+        return !attribute.isId() && !attribute.isVersion() && attribute.getJavaMember() instanceof Field;
+    }
+
+    private static Field getField(SingularAttribute<?, ?> attribute) {
+        Field field = (Field) attribute.getJavaMember();
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+}
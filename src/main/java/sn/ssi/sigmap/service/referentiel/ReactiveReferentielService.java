@@ -0,0 +1,95 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Non-blocking reads of the referentials.
+ * <p>
+ * Sections already in memory are returned directly. Everything else is read through JPA on the {@code jdbcScheduler},
+ * which bounds the number of threads waiting for the database whatever the number of concurrent requests.
+ */
+@Service
+public class ReactiveReferentielService {
+
+    private final Logger log = LoggerFactory.getLogger(ReactiveReferentielService.class);
+
+    private final ReferentielBundleService referentielBundleService;
+
+    private final ReferentielBatchService referentielBatchService;
+
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    private final Scheduler jdbcScheduler;
+
+    private final int pageSize;
+
+    public ReactiveReferentielService(ReferentielBundleService referentielBundleService, ReferentielBatchService referentielBatchService,
+                                      EntityManagerFactory entityManagerFactory, @Qualifier("jdbcScheduler") Scheduler jdbcScheduler,
+                                      ApplicationProperties applicationProperties) {
+        this.referentielBundleService = referentielBundleService;
+        this.referentielBatchService = referentielBatchService;
+        this.persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        this.jdbcScheduler = jdbcScheduler;
+        this.pageSize = applicationProperties.getReferentiel().getReactive().getPageSize();
+    }
+
+    /**
+     * Get the section of a referential allowed in bundles.
+     *
+     * @param referentiel the referential.
+     * @return its section.
+     */
+    public Mono<ReferentielSection> getSection(Referentiel referentiel) {
+        return Mono.justOrEmpty(referentielBundleService.findLoadedSection(referentiel))
+            .switchIfEmpty(Mono.fromCallable(() -> referentielBundleService.getSection(referentiel)).subscribeOn(jdbcScheduler));
+    }
+
+    /**
+     * Get an entity of a referential.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     * @return the entity, or an empty {@link Mono} if it does not exist.
+     */
+    public <T> Mono<T> findById(Class<T> entityClass, Long id) {
+        return Mono.fromCallable(() -> referentielBatchService.findAllByIds(entityClass, Collections.singletonList(id)).get(0))
+            .subscribeOn(jdbcScheduler);
+    }
+
+    /**
+     * Stream all the entities of a referential.
+     * <p>
+     * Entities are loaded by pages of ids, the next page being only loaded once the subscriber has requested more
+     * entities than already loaded.
+     *
+     * @param entityClass the class of the entities.
+     * @return the entities, ordered by id.
+     */
+    public <T> Flux<T> streamAll(Class<T> entityClass) {
+        log.debug("Request to stream all {}", entityClass.getSimpleName());
+        return findPageAfter(entityClass, null)
+            .expand(page -> page.size() < pageSize ? Mono.empty() : findPageAfter(entityClass, getLastId(page)))
+            .concatMapIterable(page -> page, 1);
+    }
+
+    private <T> Mono<List<T>> findPageAfter(Class<T> entityClass, Long afterId) {
+        return Mono.fromCallable(() -> referentielBatchService.findPageAfter(entityClass, afterId, pageSize))
+            .subscribeOn(jdbcScheduler);
+    }
+
+    private Long getLastId(List<?> page) {
+        return (Long) persistenceUnitUtil.getIdentifier(page.get(page.size() - 1));
+    }
+}
@@ -0,0 +1,71 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import sn.ssi.sigmap.domain.*;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The referentials served by this application, with the name of their REST resource.
+ */
+public enum Referentiel {
+    BANQUE(Banque.class, "banques"),
+    CATEGORIE_FOURNISSEUR(CategorieFournisseur.class, "categorie-fournisseurs"),
+    CONFIGURATION_TAUX(ConfigurationTaux.class, "configuration-tauxes"),
+    CRITERES_QUALIFICATION(CriteresQualification.class, "criteres-qualifications"),
+    DELAIS(Delais.class, "delais"),
+    DEPARTEMENT(Departement.class, "departements"),
+    DIRECTION(Direction.class, "directions"),
+    FONCTION(Fonction.class, "fonctions"),
+    FOURNISSEUR(Fournisseur.class, "fournisseurs"),
+    GARANTIE(Garantie.class, "garanties"),
+    GROUPES_IMPUTATION(GroupesImputation.class, "groupes-imputations"),
+    HIERARCHIE(Hierarchie.class, "hierarchies"),
+    JOURS_FERIES(JoursFeries.class, "jours-feries"),
+    MODE_SELECTION(ModeSelection.class, "mode-selections"),
+    NATURES_GARANTIE(NaturesGarantie.class, "natures-garanties"),
+    PAYS(Pays.class, "pays"),
+    PERSONNES_RESSOURCES(PersonnesRessources.class, "personnes-ressources"),
+    PIECES_ADMINISTRATIVES(PiecesAdministratives.class, "pieces-administratives"),
+    SITUATION_MATRIMONIALE(SituationMatrimoniale.class, "situation-matrimoniales"),
+    SOURCES_FINANCEMENT(SourcesFinancement.class, "sources-financements"),
+    SPECIALITES_PERSONNEL(SpecialitesPersonnel.class, "specialites-personnels"),
+    TYPE_AUTORITE_CONTRACTANTE(TypeAutoriteContractante.class, "type-autorite-contractantes"),
+    TYPES_MARCHES(TypesMarches.class, "types-marches");
+
+    private final Class<?> entityClass;
+
+    private final String resourceName;
+
+    Referentiel(Class<?> entityClass, String resourceName) {
+        this.entityClass = entityClass;
+        this.resourceName = resourceName;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return the name of the REST resource, for example {@code types-marches} for {@code /api/types-marches}.
+     */
+    public String getResourceName() {
+        return resourceName;
+    }
+
+    public static Optional<Referentiel> fromResourceName(String resourceName) {
+        return Arrays.stream(values()).filter(referentiel -> referentiel.resourceName.equals(resourceName)).findFirst();
+    }
+
+    /**
+     * @param entityName the simple name of the entity class, for example {@code TypesMarches}.
+     * @return the referential, if any.
+     */
+    public static Optional<Referentiel> fromEntityName(String entityName) {
+        return Arrays.stream(values()).filter(referentiel -> referentiel.entityClass.getSimpleName().equals(entityName)).findFirst();
+    }
+
+    public static Optional<Referentiel> fromEntityClass(Class<?> entityClass) {
+        return Arrays.stream(values()).filter(referentiel -> referentiel.entityClass.equals(entityClass)).findFirst();
+    }
+}
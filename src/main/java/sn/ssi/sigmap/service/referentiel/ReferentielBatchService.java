@@ -0,0 +1,102 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Service to resolve sets of referential ids in one call.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReferentielBatchService {
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielBatchService.class);
+
+    private final EntityManager entityManager;
+
+    public ReferentielBatchService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Get the entities with the given ids.
+     * <p>
+     * Each id is first looked up in the second-level cache, the misses are then loaded together with a single
+     * {@code IN} query. The repeated ids are found with a primitive map from id to position, which does not allocate
+     * an entry per id.
+     *
+     * @param entityClass the class of the entities.
+     * @param ids the ids of the entities, possibly repeated.
+     * @return the entities in the order of the ids, with {@code null} for the ids that were not found.
+     * @throws IllegalArgumentException if one of the ids is {@code null}.
+     */
+    public <T> List<T> findAllByIds(Class<T> entityClass, List<Long> ids) {
+        log.debug("Request to get {} {} by ids", ids.size(), entityClass.getSimpleName());
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LongIntHashMap positions = new LongIntHashMap(ids.size());
+        List<Long> distinctIds = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("The ids of " + entityClass.getSimpleName() + " must not be null");
+            }
+            if (!positions.containsKey(id)) {
+                positions.put(id, distinctIds.size());
+                distinctIds.add(id);
+            }
+        }
+        List<T> entities = entityManager.unwrap(Session.class)
+            .byMultipleIds(entityClass)
+            .with(CacheMode.NORMAL)
+            .enableSessionCheck(true)
+            .enableOrderedReturn(true)
+            .withBatchSize(distinctIds.size())
+            .multiLoad(distinctIds);
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            result.add(entities.get(positions.get(id)));
+        }
+        return result;
+    }
+
+    /**
+     * Get all the entities of a referential.
+     *
+     * @param entityClass the class of the entities.
+     * @return the entities, ordered by id.
+     */
+    public <T> List<T> findAll(Class<T> entityClass) {
+        log.debug("Request to get all {}", entityClass.getSimpleName());
+        return entityManager
+            .createQuery("select e from " + entityManager.getMetamodel().entity(entityClass).getName() + " e order by e.id", entityClass)
+            .getResultList();
+    }
+
+    /**
+     * Get a page of the entities of a referential, starting after a given id.
+     *
+     * @param entityClass the class of the entities.
+     * @param afterId the last id of the previous page, or {@code null} for the first page.
+     * @param size the maximum number of entities.
+     * @return the entities, ordered by id.
+     */
+    public <T> List<T> findPageAfter(Class<T> entityClass, Long afterId, int size) {
+        log.debug("Request to get a page of {} after id {}", entityClass.getSimpleName(), afterId);
+        return entityManager
+            .createQuery("select e from " + entityManager.getMetamodel().entity(entityClass).getName() + " e where e.id > :afterId order by e.id", entityClass)
+            .setParameter("afterId", afterId == null ? Long.MIN_VALUE : afterId)
+            .setMaxResults(size)
+            .getResultList();
+    }
+}
@@ -0,0 +1,211 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service assembling bundles of referentials, so that clients load all their referentials with a single request.
+ * <p>
+ * Each referential is loaded and serialized once, then kept as a {@link ReferentielSection} until a
+ * {@link ReferentielChangedEvent} is received for it, or for a referential embedded in its entities.
+ */
+@Service
+public class ReferentielBundleService {
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielBundleService.class);
+
+    private final ReferentielBatchService referentielBatchService;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ConcurrentMap<Referentiel, ReferentielSection> sections = new ConcurrentHashMap<>();
+
+    private final Map<Referentiel, AtomicLong> generations = new EnumMap<>(Referentiel.class);
+
+    private final Map<Referentiel, Set<Referentiel>> dependents = new EnumMap<>(Referentiel.class);
+
+    public ReferentielBundleService(ReferentielBatchService referentielBatchService, EntityManagerFactory entityManagerFactory,
+                                    ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.referentielBatchService = referentielBatchService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
+        for (Referentiel referentiel : Referentiel.values()) {
+            generations.put(referentiel, new AtomicLong());
+            dependents.put(referentiel, EnumSet.noneOf(Referentiel.class));
+        }
+    }
+
+    /**
+     * Find the referentials whose entities embed another referential, for example a {@code ConfigurationTaux} and its
+     * {@code Pays}: their sections must be rebuilt when the embedded referential changes.
+     */
+    @PostConstruct
+    public void initDependents() {
+        for (Referentiel referentiel : Referentiel.values()) {
+            entityManagerFactory.getMetamodel().entity(referentiel.getEntityClass()).getSingularAttributes().stream()
+                .filter(Attribute::isAssociation)
+                .forEach(attribute -> Referentiel.fromEntityClass(attribute.getJavaType())
+                    .ifPresent(embedded -> dependents.get(embedded).add(referentiel)));
+        }
+    }
+
+    /**
+     * @return the referentials allowed in a bundle, small enough to be kept in memory as a whole.
+     */
+    public Set<Referentiel> getBundleReferentiels() {
+        List<String> resourceNames = applicationProperties.getReferentiel().getBundle().getSections();
+        if (resourceNames.isEmpty()) {
+            return EnumSet.allOf(Referentiel.class);
+        }
+        Set<Referentiel> referentiels = EnumSet.noneOf(Referentiel.class);
+        for (String resourceName : resourceNames) {
+            Referentiel.fromResourceName(resourceName).ifPresent(referentiels::add);
+        }
+        return referentiels;
+    }
+
+    /**
+     * @param referentiel a referential.
+     * @return the referentials whose entities embed it.
+     */
+    public Set<Referentiel> getDependents(Referentiel referentiel) {
+        return Collections.unmodifiableSet(dependents.get(referentiel));
+    }
+
+    /**
+     * Find the section of a referential, without loading it.
+     *
+     * @param referentiel the referential.
+     * @return its section, if it is already known.
+     */
+    public Optional<ReferentielSection> findLoadedSection(Referentiel referentiel) {
+        return Optional.ofNullable(sections.get(referentiel));
+    }
+
+    /**
+     * Get the section of a referential.
+     *
+     * @param referentiel the referential.
+     * @return its section, built from the database if it is not known yet.
+     */
+    public ReferentielSection getSection(Referentiel referentiel) {
+        ReferentielSection section = sections.get(referentiel);
+        if (section != null) {
+            return section;
+        }
+        AtomicLong generation = generations.get(referentiel);
+        long loadedGeneration = generation.get();
+        ReferentielSection loaded = loadSection(referentiel);
+        // A change received while loading may not be part of the loaded data, so it is not kept
+        ReferentielSection current = sections.compute(referentiel, (key, existing) ->
+            existing != null || generation.get() != loadedGeneration ? existing : loaded
+        );
+        return current != null ? current : loaded;
+    }
+
+    /**
+     * Use a section read elsewhere, for example from a snapshot, until the referential changes or is reloaded.
+     *
+     * @param section the section, ignored if the referential is already loaded.
+     */
+    public void seed(ReferentielSection section) {
+        sections.putIfAbsent(section.getReferentiel(), section);
+    }
+
+    /**
+     * Load the section of a referential from the database, replacing the one in use.
+     *
+     * @param referentiel the referential.
+     */
+    public void reload(Referentiel referentiel) {
+        AtomicLong generation = generations.get(referentiel);
+        long loadedGeneration = generation.get();
+        ReferentielSection loaded = loadSection(referentiel);
+        sections.compute(referentiel, (key, existing) -> generation.get() != loadedGeneration ? existing : loaded);
+    }
+
+    /**
+     * Build the section of a referential from its entities serialized as a JSON array.
+     *
+     * @param referentiel the referential.
+     * @param size the number of entities.
+     * @param items the JSON array.
+     * @return the section, with the same version as if it was loaded from the database.
+     */
+    public static ReferentielSection toSection(Referentiel referentiel, int size, String items) {
+        return new ReferentielSection(referentiel, hash(items), size, items);
+    }
+
+    /**
+     * Compute the version of a bundle.
+     *
+     * @param bundleSections the sections of the bundle.
+     * @return a hash of the versions of the sections, which changes as soon as one of them changes.
+     */
+    public String getVersion(Collection<ReferentielSection> bundleSections) {
+        StringBuilder versions = new StringBuilder();
+        for (ReferentielSection section : bundleSections) {
+            versions.append(section.getReferentiel().getResourceName()).append('=').append(section.getVersion()).append(';');
+        }
+        return hash(versions.toString());
+    }
+
+    @EventListener
+    public void onReferentielChanged(ReferentielChangedEvent event) {
+        evict(event.getReferentiel());
+        dependents.get(event.getReferentiel()).forEach(this::evict);
+    }
+
+    /**
+     * Drop the section of a referential, it will be rebuilt on its next use.
+     *
+     * @param referentiel the referential.
+     */
+    public void evict(Referentiel referentiel) {
+        log.debug("Evicting the bundle section of {}", referentiel);
+        generations.get(referentiel).incrementAndGet();
+        sections.remove(referentiel);
+    }
+
+    private ReferentielSection loadSection(Referentiel referentiel) {
+        log.debug("Loading the bundle section of {}", referentiel);
+        List<?> entities = referentielBatchService.findAll(referentiel.getEntityClass());
+        try {
+            return toSection(referentiel, entities.size(), objectMapper.writeValueAsString(entities));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String hash(String content) {
+        return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
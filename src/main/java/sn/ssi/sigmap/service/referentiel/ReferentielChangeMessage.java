@@ -0,0 +1,62 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import java.io.Serializable;
+
+/**
+ * A change of a referential published on the cluster change topic.
+ * <p>
+ * A message without identifier means that any entity of the referential may have changed.
+ */
+public class ReferentielChangeMessage implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    private final long sequence;
+
+    private final Referentiel referentiel;
+
+    private final Long id;
+
+    private final Long version;
+
+    private final ReferentielChangeType type;
+
+    public ReferentielChangeMessage(long sequence, Referentiel referentiel, Long id, Long version, ReferentielChangeType type) {
+        this.sequence = sequence;
+        this.referentiel = referentiel;
+        this.id = id;
+        this.version = version;
+        this.type = type;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Referentiel getReferentiel() {
+        return referentiel;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public ReferentielChangeType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferentielChangeMessage{" +
+            "sequence=" + sequence +
+            ", referentiel=" + referentiel +
+            ", id=" + id +
+            ", version=" + version +
+            ", type=" + type +
+            "}";
+    }
+}
@@ -0,0 +1,202 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import sn.ssi.sigmap.service.cache.CacheInvalidatedEvent;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+
+/**
+ * Publishes a {@link ReferentielChangedEvent} on every node of the cluster when a referential changes.
+ * <p>
+ * Committed inserts, updates and deletes are broadcast on a Hazelcast topic, as are the cache invalidations by the
+ * node where they originate, see {@link CacheInvalidatedEvent#isOrigin()}. Each change is numbered once, by the node
+ * publishing it, so it has the same sequence number on every node. The {@link ReferentielGenerations} of this node
+ * are increased before the committing thread returns.
+ * <p>
+ * The counter is only kept in the memory of the cluster, and starts again from 0 when the whole cluster is restarted.
+ * The sequence numbers are only comparable within an {@link #getEpoch() epoch}, which changes with each restart of the
+ * whole cluster.
+ */
+@Component
+public class ReferentielChangePublisher implements MessageListener<ReferentielChangeMessage>,
+    PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    public static final String TOPIC_NAME = "referentielms-referentiel-changes";
+
+    public static final String SEQUENCE_NAME = "referentielms-referentiel-change-sequence";
+
+    public static final String EPOCH_NAME = "referentielms-referentiel-change-epoch";
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielChangePublisher.class);
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReferentielGenerations referentielGenerations;
+
+    private String registrationId;
+
+    private volatile long epoch;
+
+    public ReferentielChangePublisher(HazelcastInstance hazelcastInstance, EntityManagerFactory entityManagerFactory,
+                                      ApplicationEventPublisher eventPublisher, ReferentielGenerations referentielGenerations) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.referentielGenerations = referentielGenerations;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        registrationId = getTopic().addMessageListener(this);
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        try {
+            getTopic().removeMessageListener(registrationId);
+        } catch (HazelcastInstanceNotActiveException e) {
+            log.debug("Hazelcast is already stopped");
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity(), ReferentielChangeType.CREATED);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity(), ReferentielChangeType.UPDATED);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId(), event.getEntity(), ReferentielChangeType.DELETED);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was changed
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was changed
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was changed
+    }
+
+    /**
+     * Former name of {@link #requiresPostCommitHandling(EntityPersister)}, for the Hibernate versions still calling it.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Referentiel.fromEntityClass(persister.getMappedClass()).isPresent();
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.isOrigin()) {
+            Referentiel.fromEntityClass(event.getEntityClass()).ifPresent(referentiel ->
+                publish(referentiel, event.getId(), null, ReferentielChangeType.INVALIDATED)
+            );
+        }
+    }
+
+    @Override
+    public void onMessage(Message<ReferentielChangeMessage> message) {
+        ReferentielChangeMessage change = message.getMessageObject();
+        eventPublisher.publishEvent(new ReferentielChangedEvent(this, change.getSequence(), change.getReferentiel(), change.getId(),
+            change.getVersion(), change.getType()));
+    }
+
+    private void publish(EntityPersister persister, Serializable id, Object entity, ReferentielChangeType type) {
+        Referentiel.fromEntityClass(persister.getMappedClass()).ifPresent(referentiel -> {
+            referentielGenerations.increment(referentiel);
+            Object version = persister.isVersioned() ? persister.getVersion(entity) : null;
+            publish(referentiel, id instanceof Long ? (Long) id : null, version instanceof Long ? (Long) version : null, type);
+        });
+    }
+
+    private void publish(Referentiel referentiel, Long id, Long version, ReferentielChangeType type) {
+        log.debug("Publishing change of {} : {}", referentiel, id);
+        try {
+            getTopic().publish(new ReferentielChangeMessage(nextSequence(), referentiel, id, version, type));
+        } catch (HazelcastInstanceNotActiveException e) {
+            log.debug("Hazelcast is stopped, change of {} not published", referentiel);
+        }
+    }
+
+    /**
+     * The epoch of the sequence numbers: the start time of the first node of the cluster, set by the first node
+     * reading it, and lost with the sequence counter when the whole cluster stops.
+     *
+     * @return the epoch, or {@code 0} if Hazelcast is stopped.
+     */
+    public long getEpoch() {
+        long current = epoch;
+        if (current != 0) {
+            return current;
+        }
+        try {
+            IAtomicLong atomicLong = hazelcastInstance.getAtomicLong(EPOCH_NAME);
+            atomicLong.compareAndSet(0, System.currentTimeMillis());
+            current = atomicLong.get();
+        } catch (HazelcastInstanceNotActiveException e) {
+            return 0;
+        }
+        epoch = current;
+        return current;
+    }
+
+    /**
+     * Changes are numbered by a cluster-wide counter, so that a client can resume from the last change it received
+     * on any node.
+     */
+    private long nextSequence() {
+        try {
+            return hazelcastInstance.getAtomicLong(SEQUENCE_NAME).incrementAndGet();
+        } catch (HazelcastInstanceNotActiveException e) {
+            return 0;
+        }
+    }
+
+    private ITopic<ReferentielChangeMessage> getTopic() {
+        return hazelcastInstance.getTopic(TOPIC_NAME);
+    }
+}
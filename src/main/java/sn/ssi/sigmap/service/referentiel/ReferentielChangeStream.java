@@ -0,0 +1,338 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Streams the changes of the referentials to the subscribed clients, see ReferentielEventResource.
+ * <p>
+ * Every node receives all the committed changes from the cluster topic, see {@link ReferentielChangePublisher}, and
+ * keeps the most recent ones in a bounded buffer, so that a client reconnecting to any node with the sequence number
+ * of the last change it received only gets the changes it missed. When they are no longer in the buffer, the client
+ * is told to reload its referentials. The clients which cannot keep a stream open poll the same buffer, see
+ * {@link #getChanges(Long, Long)}.
+ * <p>
+ * The sequence numbers start again from 0 when the whole cluster is restarted: a client resuming from a sequence
+ * number above the current one, or from another {@link ReferentielChangePublisher#getEpoch() epoch}, is told to
+ * reload as well.
+ * <p>
+ * The topic does not deliver the changes in the order of their sequence numbers, so a change is only released to the
+ * buffer and the subscribers once all the previous ones have been: a client never receives a sequence number before
+ * a lower one, and cannot resume past a change it has not received. A missing change is waited for
+ * {@code application.referentiel.events.gap-timeout-ms}, for example when its node stopped before publishing it. The
+ * changes until it are then no longer available, and a change received after that is only sent to the current
+ * subscribers.
+ * <p>
+ * All the subscriptions, the buffer and the sends are handled by a single thread, so a subscriber receives the
+ * changes in order and never twice, even when it subscribes while changes are published.
+ */
+@Service
+public class ReferentielChangeStream {
+
+    private static final long CHANGES_TIMEOUT_MS = 5000;
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielChangeStream.class);
+
+    private final ApplicationProperties.Referentiel.Events properties;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final ReferentielChangePublisher referentielChangePublisher;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Deque<ReferentielChangedEvent> buffer = new ArrayDeque<>();
+
+    /**
+     * Changes received before some of the previous ones, by sequence number.
+     */
+    private final NavigableMap<Long, ReferentielChangedEvent> pending = new TreeMap<>();
+
+    private final ScheduledExecutorService executor;
+
+    private final Counter gaps;
+
+    /**
+     * Sequence number after which all the changes are in the buffer.
+     */
+    private long replayableAfter;
+
+    /**
+     * Sequence number of the last released change: all the previous ones were released too, or are no longer
+     * available.
+     */
+    private long latestSequence;
+
+    private boolean gapCheckScheduled;
+
+    public ReferentielChangeStream(HazelcastInstance hazelcastInstance, ReferentielChangePublisher referentielChangePublisher,
+                                   ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getReferentiel().getEvents();
+        this.hazelcastInstance = hazelcastInstance;
+        this.referentielChangePublisher = referentielChangePublisher;
+        this.replayableAfter = currentSequence(hazelcastInstance);
+        this.latestSequence = replayableAfter;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "referentielms-change-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gaugeCollectionSize("referentiel.events.subscribers", Tags.empty(), subscribers);
+        this.gaps = Counter.builder("referentiel.events.gaps")
+            .description("Number of missing changes no longer waited for")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Subscribe to the changes of the referentials.
+     *
+     * @param lastEventId the sequence number of the last change received by the subscriber, or {@code null} to only
+     *                    receive the next changes.
+     * @param subscriber  the subscriber.
+     */
+    public void subscribe(Long lastEventId, Subscriber subscriber) {
+        boolean unknown = lastEventId != null && isUnknown(lastEventId);
+        submit(() -> {
+            if (lastEventId != null) {
+                if (unknown || lastEventId < replayableAfter) {
+                    log.debug("Changes after {} are no longer available, the subscriber must reload", lastEventId);
+                    if (!send(subscriber, () -> subscriber.onGap(getLatestSequence()))) {
+                        return;
+                    }
+                } else {
+                    for (ReferentielChangedEvent event : buffer) {
+                        if (event.getSequence() > lastEventId && !send(subscriber, () -> subscriber.onChange(event))) {
+                            return;
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        });
+    }
+
+    /**
+     * Get the changes of the referentials after a sequence number, for the clients polling instead of subscribing.
+     *
+     * @param since the sequence number of the last change received, or {@code null} to only get the latest sequence
+     *              number, for example before a first load of the referentials.
+     * @param epoch the epoch of {@code since}, if known.
+     * @return the changes, or a reset when some of them are no longer available, or when {@code since} is from
+     * another epoch.
+     */
+    public ReferentielChanges getChanges(Long since, Long epoch) {
+        long currentEpoch = referentielChangePublisher.getEpoch();
+        // The cluster counter, rather than the latest released change, which may lag behind the other nodes
+        boolean unknown = since != null && (epoch != null && epoch != currentEpoch || isUnknown(since));
+        Future<ReferentielChanges> changes = executor.submit(() -> {
+            if (since == null) {
+                return new ReferentielChanges(currentEpoch, getLatestSequence(), false, Collections.emptyList(), !pending.isEmpty());
+            }
+            if (unknown || since < replayableAfter) {
+                return new ReferentielChanges(currentEpoch, getLatestSequence(), true, Collections.emptyList(), !pending.isEmpty());
+            }
+            List<ReferentielChangedEvent> missed = new ArrayList<>();
+            for (ReferentielChangedEvent event : buffer) {
+                if (event.getSequence() > since) {
+                    missed.add(event);
+                }
+            }
+            return new ReferentielChanges(currentEpoch, getLatestSequence(), false, missed, !pending.isEmpty());
+        });
+        try {
+            return changes.get(CHANGES_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the changes", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not read the changes", e);
+        }
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    @EventListener
+    public void onReferentielChanged(ReferentielChangedEvent event) {
+        submit(() -> {
+            if (event.getSequence() <= 0) {
+                // Not numbered, Hazelcast was stopped
+                broadcast(subscriber -> subscriber.onChange(event));
+            } else if (event.getSequence() <= latestSequence) {
+                log.warn("Change {} received after it was no longer waited for, only sent to the current subscribers", event.getSequence());
+                broadcast(subscriber -> subscriber.onChange(event));
+            } else {
+                pending.put(event.getSequence(), event);
+                releasePending();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.referentiel.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            submit(() -> broadcast(Subscriber::onHeartbeat));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private long getLatestSequence() {
+        return latestSequence;
+    }
+
+    /**
+     * Release the pending changes which follow the latest one, then wait for the next missing change if there is one.
+     */
+    private void releasePending() {
+        while (!pending.isEmpty() && pending.firstKey() == latestSequence + 1) {
+            ReferentielChangedEvent event = pending.pollFirstEntry().getValue();
+            latestSequence = event.getSequence();
+            buffer.addLast(event);
+            while (buffer.size() > properties.getReplayBufferSize()) {
+                replayableAfter = Math.max(replayableAfter, buffer.removeFirst().getSequence());
+            }
+            broadcast(subscriber -> subscriber.onChange(event));
+        }
+        if (!pending.isEmpty() && !gapCheckScheduled) {
+            gapCheckScheduled = true;
+            long missing = latestSequence + 1;
+            schedule(() -> {
+                gapCheckScheduled = false;
+                if (latestSequence < missing && !pending.isEmpty()) {
+                    log.warn("Changes {} to {} were not received, they are no longer available", missing, pending.firstKey() - 1);
+                    gaps.increment(pending.firstKey() - missing);
+                    latestSequence = pending.firstKey() - 1;
+                    replayableAfter = Math.max(replayableAfter, latestSequence);
+                }
+                releasePending();
+            }, properties.getGapTimeoutMs());
+        }
+    }
+
+    private void broadcast(Delivery delivery) {
+        List<Subscriber> failed = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            if (!send(subscriber, () -> delivery.deliver(subscriber))) {
+                failed.add(subscriber);
+            }
+        }
+        subscribers.removeAll(failed);
+    }
+
+    private boolean send(Subscriber subscriber, Send send) {
+        try {
+            send.send();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Dropping the change subscriber, which failed with : {}", e.getMessage());
+            subscriber.onError(e);
+            return false;
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.debug("The change stream is stopped");
+        }
+    }
+
+    private void schedule(Runnable task, long delayMs) {
+        try {
+            executor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("The change stream is stopped");
+        }
+    }
+
+    /**
+     * @return {@code true} if the sequence number was not given yet in the cluster, so it is from a former epoch.
+     */
+    private boolean isUnknown(long sequence) {
+        try {
+            return sequence > hazelcastInstance.getAtomicLong(ReferentielChangePublisher.SEQUENCE_NAME).get();
+        } catch (HazelcastInstanceNotActiveException e) {
+            return false;
+        }
+    }
+
+    private static long currentSequence(HazelcastInstance hazelcastInstance) {
+        try {
+            return hazelcastInstance.getAtomicLong(ReferentielChangePublisher.SEQUENCE_NAME).get();
+        } catch (HazelcastInstanceNotActiveException e) {
+            return 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Send {
+        void send() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Delivery {
+        void deliver(Subscriber subscriber) throws IOException;
+    }
+
+    /**
+     * A client of the change stream. Its methods are called from a single thread; a subscriber failing to receive a
+     * change is unsubscribed.
+     */
+    public interface Subscriber {
+
+        void onChange(ReferentielChangedEvent event) throws IOException;
+
+        /**
+         * Called on subscription when some of the changes after the last one received are no longer available.
+         *
+         * @param latestSequence the sequence number of the latest change, to resume from after reloading.
+         */
+        void onGap(long latestSequence) throws IOException;
+
+        void onHeartbeat() throws IOException;
+
+        /**
+         * Called when the subscriber is dropped after a failure.
+         */
+        default void onError(Exception e) {
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package sn.ssi.sigmap.service.referentiel;
+
+/**
+ * The kind of change of a referential entity.
+ */
+public enum ReferentielChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+
+    /**
+     * The entity, or any entity of the referential, was invalidated in the cache and may have changed.
+     */
+    INVALIDATED
+}
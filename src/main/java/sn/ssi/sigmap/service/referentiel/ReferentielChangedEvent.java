@@ -0,0 +1,67 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published in the local application context when an entity of a referential has changed on any node of the cluster.
+ */
+public class ReferentielChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long sequence;
+
+    private final Referentiel referentiel;
+
+    private final Long id;
+
+    private final Long version;
+
+    private final ReferentielChangeType type;
+
+    public ReferentielChangedEvent(Object source, long sequence, Referentiel referentiel, Long id, Long version,
+                                   ReferentielChangeType type) {
+        super(source);
+        this.sequence = sequence;
+        this.referentiel = referentiel;
+        this.id = id;
+        this.version = version;
+        this.type = type;
+    }
+
+    /**
+     * Create the event of an entity which may have changed, without sequence number.
+     */
+    public ReferentielChangedEvent(Object source, Referentiel referentiel, Long id) {
+        this(source, 0, referentiel, id, null, ReferentielChangeType.INVALIDATED);
+    }
+
+    /**
+     * @return the number of the change in the cluster, increasing with the changes, or {@code 0} if it has none.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Referentiel getReferentiel() {
+        return referentiel;
+    }
+
+    /**
+     * @return the identifier of the changed entity, or {@code null} when any entity of the referential may have changed.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the version of the entity after the change, or {@code null} when it is not known.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public ReferentielChangeType getType() {
+        return type;
+    }
+}
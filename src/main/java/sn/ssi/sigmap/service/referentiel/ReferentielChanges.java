@@ -0,0 +1,63 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes of the referentials after a sequence number, see {@link ReferentielChangeStream#getChanges(Long, Long)}.
+ */
+public class ReferentielChanges {
+
+    private final long epoch;
+
+    private final long latestSequence;
+
+    private final boolean reset;
+
+    private final List<ReferentielChangedEvent> changes;
+
+    private final boolean waiting;
+
+    public ReferentielChanges(long epoch, long latestSequence, boolean reset, List<ReferentielChangedEvent> changes, boolean waiting) {
+        this.epoch = epoch;
+        this.latestSequence = latestSequence;
+        this.reset = reset;
+        this.changes = Collections.unmodifiableList(changes);
+        this.waiting = waiting;
+    }
+
+    /**
+     * @return the epoch of the sequence numbers, see {@link ReferentielChangePublisher#getEpoch()}.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return the sequence number to ask the next changes after.
+     */
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    /**
+     * @return {@code true} when some of the requested changes are no longer available, the referentials must be reloaded.
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * @return the changes, in the order they were received.
+     */
+    public List<ReferentielChangedEvent> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return {@code true} when later changes were received, but wait for a missing one before being released.
+     */
+    public boolean isWaiting() {
+        return waiting;
+    }
+}
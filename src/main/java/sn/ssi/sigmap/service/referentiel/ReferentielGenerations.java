@@ -0,0 +1,61 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import sn.ssi.sigmap.service.cache.CacheInvalidatedEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the changes of each referential seen by this node, so that the copies kept outside of Hibernate, such as the
+ * precompressed pages, can be keyed by the generation they were built from.
+ * <p>
+ * The generation of a referential, and of the referentials embedding it, is increased in the committing thread for the
+ * changes made on this node, see {@link ReferentielChangePublisher}, so a read following a write on the same node never
+ * sees the former generation. The changes of the other nodes and the cache invalidations increase it when their
+ * event is received.
+ */
+@Component
+public class ReferentielGenerations {
+
+    private final ReferentielBundleService referentielBundleService;
+
+    private final Map<Referentiel, AtomicLong> generations = new EnumMap<>(Referentiel.class);
+
+    public ReferentielGenerations(ReferentielBundleService referentielBundleService) {
+        this.referentielBundleService = referentielBundleService;
+        for (Referentiel referentiel : Referentiel.values()) {
+            generations.put(referentiel, new AtomicLong());
+        }
+    }
+
+    /**
+     * @param referentiel the referential.
+     * @return its current generation, which changes with its entities and with the referentials embedded in them.
+     */
+    public long get(Referentiel referentiel) {
+        return generations.get(referentiel).get();
+    }
+
+    /**
+     * Start a new generation of the referential and of the referentials embedding it.
+     *
+     * @param referentiel the changed referential.
+     */
+    public void increment(Referentiel referentiel) {
+        generations.get(referentiel).incrementAndGet();
+        referentielBundleService.getDependents(referentiel).forEach(dependent -> generations.get(dependent).incrementAndGet());
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        Referentiel.fromEntityClass(event.getEntityClass()).ifPresent(this::increment);
+    }
+
+    @EventListener
+    public void onReferentielChanged(ReferentielChangedEvent event) {
+        increment(event.getReferentiel());
+    }
+}
@@ -0,0 +1,71 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service writing merged partial updates of a referential.
+ */
+@Service
+@Transactional
+public class ReferentielPatchService {
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielPatchService.class);
+
+    private final EntityManager entityManager;
+
+    public ReferentielPatchService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Apply partial updates to entities of a referential, in a single transaction.
+     *
+     * @param entityClass the class of the entities.
+     * @param patches the values of the updated attributes, by attribute name, by entity id.
+     */
+    public void apply(Class<?> entityClass, Map<Long, Map<String, Object>> patches) {
+        log.debug("Request to apply {} partial updates of {}", patches.size(), entityClass.getSimpleName());
+        ManagedType<?> type = entityManager.getMetamodel().managedType(entityClass);
+        List<Long> ids = new ArrayList<>(patches.keySet());
+        List<?> entities = entityManager.unwrap(Session.class)
+            .byMultipleIds(entityClass)
+            .enableOrderedReturn(true)
+            .multiLoad(ids);
+        for (int i = 0; i < ids.size(); i++) {
+            if (entities.get(i) == null) {
+                log.warn("Dropping the partial update of {} : {}, it no longer exists", entityClass.getSimpleName(), ids.get(i));
+            } else {
+                EntityAttributes.setValues(type, entities.get(i), getReferences(type, patches.get(ids.get(i))));
+            }
+        }
+    }
+
+    /**
+     * The associated entities of a patch are detached, they are replaced by references to the entities of this
+     * transaction, by id.
+     */
+    private Map<String, Object> getReferences(ManagedType<?> type, Map<String, Object> values) {
+        Map<String, Object> references = new HashMap<>(values);
+        references.replaceAll((name, value) -> {
+            SingularAttribute<?, ?> attribute = type.getSingularAttribute(name);
+            if (!attribute.isAssociation() || entityManager.contains(value)) {
+                return value;
+            }
+            Object id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(value);
+            return id == null ? value : entityManager.getReference(attribute.getJavaType(), id);
+        });
+        return references;
+    }
+}
@@ -0,0 +1,44 @@
+package sn.ssi.sigmap.service.referentiel;
+
+/**
+ * All the entities of a referential, serialized once and shared by the bundles that include it.
+ */
+public class ReferentielSection {
+
+    private final Referentiel referentiel;
+
+    private final String version;
+
+    private final int size;
+
+    private final String items;
+
+    public ReferentielSection(Referentiel referentiel, String version, int size, String items) {
+        this.referentiel = referentiel;
+        this.version = version;
+        this.size = size;
+        this.items = items;
+    }
+
+    public Referentiel getReferentiel() {
+        return referentiel;
+    }
+
+    /**
+     * @return a hash of the content of the section, identical on every node for the same data.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the entities as a JSON array.
+     */
+    public String getItems() {
+        return items;
+    }
+}
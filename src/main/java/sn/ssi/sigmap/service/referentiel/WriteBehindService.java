@@ -0,0 +1,193 @@
+package sn.ssi.sigmap.service.referentiel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Metamodel;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind of the partial updates of the referentials.
+ * <p>
+ * The partial updates of an entity are merged in memory, then written in batches, one transaction per referential,
+ * every {@code application.referentiel.write-behind.flush-interval-ms}. The pending updates of a referential are also
+ * written as soon as it is read or written in another way through the REST API of this node: its own resource, the
+ * batch, the bundle and the reactive reads, see {@link sn.ssi.sigmap.aop.writebehind.WriteBehindAspect}.
+ * <p>
+ * Read-your-writes only holds for these reads, on the node which accepted the update. The other nodes, the change
+ * events and polls ({@code /api/referentiels/_events} and {@code _changes}) and the snapshots only see an update once it
+ * is written, at most one flush interval later.
+ * <p>
+ * Durability: an accepted partial update is only in the memory of the node which received it until it is written.
+ * It is lost if the node crashes before, and an update rejected by the database, for example by a constraint, is
+ * logged and dropped.
+ */
+@Service
+public class WriteBehindService {
+
+    private final Logger log = LoggerFactory.getLogger(WriteBehindService.class);
+
+    private final ReferentielBatchService referentielBatchService;
+
+    private final ReferentielPatchService referentielPatchService;
+
+    private final Metamodel metamodel;
+
+    private final ApplicationProperties.Referentiel.WriteBehind properties;
+
+    private final Map<Referentiel, ConcurrentMap<Long, Map<String, Object>>> pending = new EnumMap<>(Referentiel.class);
+
+    private final Map<Referentiel, ReentrantLock> locks = new EnumMap<>(Referentiel.class);
+
+    private final Counter patches;
+
+    private final Counter coalesced;
+
+    private final Counter failures;
+
+    public WriteBehindService(ReferentielBatchService referentielBatchService, ReferentielPatchService referentielPatchService,
+                              EntityManagerFactory entityManagerFactory, ApplicationProperties applicationProperties,
+                              MeterRegistry meterRegistry) {
+        this.referentielBatchService = referentielBatchService;
+        this.referentielPatchService = referentielPatchService;
+        this.metamodel = entityManagerFactory.getMetamodel();
+        this.properties = applicationProperties.getReferentiel().getWriteBehind();
+        for (Referentiel referentiel : Referentiel.values()) {
+            pending.put(referentiel, new ConcurrentHashMap<>());
+            locks.put(referentiel, new ReentrantLock());
+        }
+        this.patches = meterRegistry.counter("write.behind.patches");
+        this.coalesced = meterRegistry.counter("write.behind.coalesced");
+        this.failures = meterRegistry.counter("write.behind.failures");
+        meterRegistry.gauge("write.behind.pending", this, WriteBehindService::getPendingCount);
+    }
+
+    /**
+     * Accept a partial update, to be written later.
+     *
+     * @param referentiel the referential of the entity.
+     * @param id the id of the entity.
+     * @param patch the partial update, its {@code null} attributes are left unchanged.
+     * @return the entity with all its pending updates, or empty if it does not exist.
+     */
+    public <T> Optional<T> patch(Referentiel referentiel, Long id, T patch) {
+        ReentrantLock lock = locks.get(referentiel);
+        lock.lock();
+        try {
+            @SuppressWarnings("unchecked")
+            T entity = (T) referentielBatchService.findAllByIds(referentiel.getEntityClass(), Collections.singletonList(id)).get(0);
+            if (entity == null) {
+                return Optional.empty();
+            }
+            Map<String, Object> values = EntityAttributes.getNonNullValues(metamodel.managedType(referentiel.getEntityClass()), patch);
+            Map<String, Object> merged = pending.get(referentiel).merge(id, values, (existing, added) -> {
+                coalesced.increment();
+                Map<String, Object> mergedValues = new HashMap<>(existing);
+                mergedValues.putAll(added);
+                return mergedValues;
+            });
+            patches.increment();
+            EntityAttributes.setValues(metamodel.managedType(referentiel.getEntityClass()), entity, merged);
+            return Optional.of(entity);
+        } finally {
+            lock.unlock();
+            if (getPendingCount() > properties.getMaxPendingEntities()) {
+                flush(referentiel);
+            }
+        }
+    }
+
+    /**
+     * Write all the pending partial updates.
+     */
+    @Scheduled(fixedDelayString = "${application.referentiel.write-behind.flush-interval-ms:200}")
+    @PreDestroy
+    public void flush() {
+        for (Referentiel referentiel : Referentiel.values()) {
+            if (!pending.get(referentiel).isEmpty()) {
+                flush(referentiel);
+            }
+        }
+    }
+
+    /**
+     * Write the pending partial updates of a referential.
+     *
+     * @param referentiel the referential.
+     */
+    public void flush(Referentiel referentiel) {
+        flush(referentiel, null);
+    }
+
+    /**
+     * Write the pending partial updates of an entity, so that they are seen by the next reads.
+     *
+     * @param referentiel the referential of the entity.
+     * @param id the id of the entity, or {@code null} for all the entities of the referential.
+     */
+    public void flush(Referentiel referentiel, Long id) {
+        ConcurrentMap<Long, Map<String, Object>> referentielPending = pending.get(referentiel);
+        if (referentielPending.isEmpty()) {
+            return;
+        }
+        // Writes of the same referential never overlap, so that an older update is never written last
+        ReentrantLock lock = locks.get(referentiel);
+        lock.lock();
+        try {
+            Map<Long, Map<String, Object>> batch = new LinkedHashMap<>();
+            if (id != null) {
+                Map<String, Object> values = referentielPending.remove(id);
+                if (values != null) {
+                    batch.put(id, values);
+                }
+            } else {
+                Iterator<Map.Entry<Long, Map<String, Object>>> iterator = referentielPending.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Long, Map<String, Object>> entry = iterator.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(referentiel, batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(Referentiel referentiel, Map<Long, Map<String, Object>> batch) {
+        log.debug("Writing {} partial updates of {}", batch.size(), referentiel);
+        try {
+            referentielPatchService.apply(referentiel.getEntityClass(), batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failures.increment();
+                log.error("Dropping the partial update of {} : {}", referentiel, batch.keySet(), e);
+                return;
+            }
+            // Find the failing updates by writing them one by one
+            batch.forEach((entityId, values) -> write(referentiel, Collections.singletonMap(entityId, values)));
+        }
+    }
+
+    private int getPendingCount() {
+        return pending.values().stream().mapToInt(Map::size).sum();
+    }
+}
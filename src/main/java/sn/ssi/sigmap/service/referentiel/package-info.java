@@ -0,0 +1,4 @@
+/**
+ * Read services shared by all the referentials.
+ */
+package sn.ssi.sigmap.service.referentiel;
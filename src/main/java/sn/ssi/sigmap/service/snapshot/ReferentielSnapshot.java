@@ -0,0 +1,305 @@
+package sn.ssi.sigmap.service.snapshot;
+
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A snapshot of the referentials, memory-mapped from its file.
+ * <p>
+ * The file starts with a header: magic number, format version, epoch and sequence number of the last change included,
+ * creation time and number of sections, followed by a directory giving the resource name, the number of entities and the
+ * offset of each section. A section stores its entities in columns, ordered by id:
+ * <ul>
+ * <li>the ids and the versions, 8 bytes each, so an entity is found by binary search on the ids;</li>
+ * <li>the start and the length of each entity in the documents, then the documents: the JSON array of the
+ * referential, as served by the bundles, so the whole referential or one entity is read without decoding;</li>
+ * <li>the start and the length of the code of each entity, the rows ordered by code, then the codes in UTF-8.</li>
+ * </ul>
+ * All the numbers are big-endian. Nothing is read until it is looked up, the pages are loaded by the operating system
+ * when touched, so opening a snapshot costs the same whatever its size.
+ */
+public final class ReferentielSnapshot {
+
+    static final int MAGIC = 0x52534E50;
+
+    static final int FORMAT_VERSION = 2;
+
+    static final int HEADER_LENGTH = 40;
+
+    static final long NO_VERSION = Long.MIN_VALUE;
+
+    private final Path file;
+
+    private final ByteBuffer buffer;
+
+    private final long epoch;
+
+    private final long sequence;
+
+    private final long createdAt;
+
+    private final Map<Referentiel, Section> sections = new EnumMap<>(Referentiel.class);
+
+    private ReferentielSnapshot(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a referential snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(file + " has an unsupported snapshot format: " + buffer.getInt(4));
+        }
+        this.epoch = buffer.getLong(8);
+        this.sequence = buffer.getLong(16);
+        this.createdAt = buffer.getLong(24);
+        int sectionCount = buffer.getInt(32);
+        int position = HEADER_LENGTH;
+        for (int i = 0; i < sectionCount; i++) {
+            int nameLength = buffer.getShort(position);
+            String resourceName = new String(read(position + 2, nameLength), StandardCharsets.UTF_8);
+            position += 2 + nameLength;
+            int count = buffer.getInt(position);
+            long offset = buffer.getLong(position + 4);
+            position += 12;
+            // A referential removed since the snapshot was written is skipped
+            Optional<Referentiel> referentiel = Referentiel.fromResourceName(resourceName);
+            if (referentiel.isPresent()) {
+                sections.put(referentiel.get(), new Section(Math.toIntExact(offset), count));
+            }
+        }
+    }
+
+    /**
+     * Map a snapshot file in memory. The mapping stays valid after the file is deleted, until the snapshot is garbage
+     * collected.
+     *
+     * @param file the snapshot file.
+     * @return the snapshot.
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    public static ReferentielSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be mapped");
+            }
+            return new ReferentielSnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException(file + " is truncated", e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the epoch of the sequence number, see
+     * {@link sn.ssi.sigmap.service.referentiel.ReferentielChangePublisher#getEpoch()}.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return the sequence number of the last change of the referentials included in the snapshot.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the creation time of the snapshot, in milliseconds since the epoch.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public Set<Referentiel> getReferentiels() {
+        return Collections.unmodifiableSet(sections.keySet());
+    }
+
+    /**
+     * @return the number of entities of the referential, or {@code -1} if it is not in the snapshot.
+     */
+    public int getSize(Referentiel referentiel) {
+        Section section = sections.get(referentiel);
+        return section == null ? -1 : section.count;
+    }
+
+    /**
+     * @return all the entities of the referential as a JSON array, ordered by id.
+     */
+    public Optional<String> findItems(Referentiel referentiel) {
+        return Optional.ofNullable(sections.get(referentiel))
+            .map(section -> new String(read(section.documentsAt, section.documentsLength), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the entity of the referential with this id, in JSON.
+     */
+    public Optional<byte[]> findById(Referentiel referentiel, long id) {
+        Section section = sections.get(referentiel);
+        int row = section == null ? -1 : section.indexOf(id);
+        return row < 0 ? Optional.empty() : Optional.of(section.document(row));
+    }
+
+    /**
+     * @return the entity of the referential with this code, in JSON.
+     */
+    public Optional<byte[]> findByCode(Referentiel referentiel, String code) {
+        Section section = sections.get(referentiel);
+        if (section == null || code == null) {
+            return Optional.empty();
+        }
+        byte[] key = code.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = section.codedRows - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int row = buffer.getInt(section.codeOrderAt + middle * 4);
+            int comparison = section.compareCode(row, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return Optional.of(section.document(row));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the version of the entity of the referential with this id, if it is in the snapshot and versioned.
+     */
+    public Optional<Long> findVersion(Referentiel referentiel, long id) {
+        Section section = sections.get(referentiel);
+        int row = section == null ? -1 : section.indexOf(id);
+        if (row < 0) {
+            return Optional.empty();
+        }
+        long version = buffer.getLong(section.versionsAt + row * 8);
+        return version == NO_VERSION ? Optional.empty() : Optional.of(version);
+    }
+
+    private byte[] read(int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position);
+        byte[] bytes = new byte[length];
+        slice.get(bytes);
+        return bytes;
+    }
+
+    static int sectionLength(int count, int documentsLength, int codedRows, int codesLength) {
+        return 8 * count + 8 * count + 4 * count + 4 * count + 4 + documentsLength + 4 * count + 4 * count + 4 + 4 * codedRows + codesLength;
+    }
+
+    static int directoryEntryLength(int nameLength) {
+        return 2 + nameLength + 4 + 8;
+    }
+
+    static int compareUnsigned(byte[] left, byte[] right) {
+        int length = Math.min(left.length, right.length);
+        for (int i = 0; i < length; i++) {
+            int comparison = Integer.compare(left[i] & 0xff, right[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+
+    /**
+     * The offsets of the columns of a section in the file.
+     */
+    private final class Section {
+
+        private final int count;
+
+        private final int idsAt;
+
+        private final int versionsAt;
+
+        private final int documentStartsAt;
+
+        private final int documentLengthsAt;
+
+        private final int documentsAt;
+
+        private final int documentsLength;
+
+        private final int codeStartsAt;
+
+        private final int codeLengthsAt;
+
+        private final int codedRows;
+
+        private final int codeOrderAt;
+
+        private final int codesAt;
+
+        Section(int offset, int count) {
+            this.count = count;
+            this.idsAt = offset;
+            this.versionsAt = idsAt + 8 * count;
+            this.documentStartsAt = versionsAt + 8 * count;
+            this.documentLengthsAt = documentStartsAt + 4 * count;
+            this.documentsLength = buffer.getInt(documentLengthsAt + 4 * count);
+            this.documentsAt = documentLengthsAt + 4 * count + 4;
+            this.codeStartsAt = documentsAt + documentsLength;
+            this.codeLengthsAt = codeStartsAt + 4 * count;
+            this.codedRows = buffer.getInt(codeLengthsAt + 4 * count);
+            this.codeOrderAt = codeLengthsAt + 4 * count + 4;
+            this.codesAt = codeOrderAt + 4 * codedRows;
+        }
+
+        /**
+         * @return the row of the entity with this id, or {@code -1}.
+         */
+        int indexOf(long id) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long middleId = buffer.getLong(idsAt + middle * 8);
+                if (middleId < id) {
+                    low = middle + 1;
+                } else if (middleId > id) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+
+        byte[] document(int row) {
+            return read(documentsAt + buffer.getInt(documentStartsAt + row * 4), buffer.getInt(documentLengthsAt + row * 4));
+        }
+
+        int compareCode(int row, byte[] key) {
+            int start = codesAt + buffer.getInt(codeStartsAt + row * 4);
+            int length = buffer.getInt(codeLengthsAt + row * 4);
+            int common = Math.min(length, key.length);
+            for (int i = 0; i < common; i++) {
+                int comparison = Integer.compare(buffer.get(start + i) & 0xff, key[i] & 0xff);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return Integer.compare(length, key.length);
+        }
+    }
+}
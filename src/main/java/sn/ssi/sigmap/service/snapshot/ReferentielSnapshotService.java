@@ -0,0 +1,293 @@
+package sn.ssi.sigmap.service.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielBatchService;
+import sn.ssi.sigmap.service.referentiel.ReferentielBundleService;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangePublisher;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes the snapshots of the referentials, and restarts the node from the latest one.
+ * <p>
+ * Every {@code application.referentiel.snapshot.interval-ms}, all the referentials are read page by page and written
+ * to a new file of the snapshot directory, see {@link ReferentielSnapshot} for the format. The file is written under a
+ * temporary name then renamed, so the latest snapshot is always complete.
+ * <p>
+ * When the node starts, the bundle sections are taken from the latest snapshot, then reloaded from the database in
+ * the background: the bundles are served before the database is read, possibly with the data of the snapshot, which
+ * is at most one interval old. The consumers download the same file, see ReferentielSnapshotResource.
+ * <p>
+ * The snapshots are only enabled with a configured {@code application.referentiel.snapshot.directory}, which must be
+ * kept across the restarts of the node.
+ */
+@Service
+public class ReferentielSnapshotService {
+
+    static final String FILE_PREFIX = "referentiels-";
+
+    static final String FILE_SUFFIX = ".snap";
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielSnapshotService.class);
+
+    private final ReferentielBatchService referentielBatchService;
+
+    private final ReferentielBundleService referentielBundleService;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final ReferentielChangePublisher referentielChangePublisher;
+
+    private final Executor taskExecutor;
+
+    private final ApplicationProperties.Referentiel.Snapshot properties;
+
+    private final Timer writeTimer;
+
+    private volatile ReferentielSnapshot latest;
+
+    public ReferentielSnapshotService(ReferentielBatchService referentielBatchService, ReferentielBundleService referentielBundleService,
+                                      EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+                                      HazelcastInstance hazelcastInstance, ReferentielChangePublisher referentielChangePublisher,
+                                      @Qualifier("taskExecutor") Executor taskExecutor, ApplicationProperties applicationProperties,
+                                      MeterRegistry meterRegistry) {
+        this.referentielBatchService = referentielBatchService;
+        this.referentielBundleService = referentielBundleService;
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.hazelcastInstance = hazelcastInstance;
+        this.referentielChangePublisher = referentielChangePublisher;
+        this.taskExecutor = taskExecutor;
+        this.properties = applicationProperties.getReferentiel().getSnapshot();
+        if (properties.isEnabled() && !StringUtils.hasText(properties.getDirectory())) {
+            throw new IllegalStateException("The snapshots of the referentials require application.referentiel.snapshot.directory, " +
+                "on a persistent volume");
+        }
+        this.writeTimer = meterRegistry.timer("referentiel.snapshot.write");
+        TimeGauge.builder("referentiel.snapshot.age", this, TimeUnit.MILLISECONDS, service -> service.getLatest()
+            .map(snapshot -> (double) (System.currentTimeMillis() - snapshot.getCreatedAt()))
+            .orElse(Double.NaN))
+            .description("Age of the latest snapshot of the referentials")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return the latest snapshot written or found on start.
+     */
+    public Optional<ReferentielSnapshot> getLatest() {
+        return Optional.ofNullable(latest);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Optional<Path> file = findSnapshotFiles().stream().findFirst();
+        if (!file.isPresent()) {
+            log.info("No snapshot of the referentials in {}, the bundles are loaded from the database", properties.getDirectory());
+            return;
+        }
+        ReferentielSnapshot snapshot;
+        try {
+            snapshot = ReferentielSnapshot.open(file.get());
+        } catch (IOException e) {
+            log.warn("Could not read the snapshot of the referentials {}: {}", file.get(), e.getMessage());
+            return;
+        }
+        latest = snapshot;
+        log.info("Serving the bundles from the snapshot {} until they are loaded from the database", file.get());
+        for (Referentiel referentiel : referentielBundleService.getBundleReferentiels()) {
+            snapshot.findItems(referentiel).ifPresent(items -> {
+                referentielBundleService.seed(ReferentielBundleService.toSection(referentiel, snapshot.getSize(referentiel), items));
+                CompletableFuture.runAsync(() -> referentielBundleService.reload(referentiel), taskExecutor)
+                    .whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            log.warn("Could not reload the bundle section of {}: {}", referentiel, throwable.getMessage());
+                        }
+                    });
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.referentiel.snapshot.interval-ms:300000}",
+        initialDelayString = "${application.referentiel.snapshot.interval-ms:300000}")
+    public void scheduledWrite() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write the snapshot of the referentials: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Write a snapshot of all the referentials, and remove the oldest ones.
+     *
+     * @return the new snapshot.
+     * @throws IOException if it cannot be written.
+     */
+    public synchronized ReferentielSnapshot write() throws IOException {
+        long start = System.nanoTime();
+        long createdAt = System.currentTimeMillis();
+        // Changes up to this sequence number are committed, so they are read below
+        SnapshotWriter writer = new SnapshotWriter(referentielChangePublisher.getEpoch(), currentSequence(), createdAt);
+        for (Referentiel referentiel : Referentiel.values()) {
+            writer.addSection(referentiel, loadRows(referentiel));
+        }
+        Path directory = getDirectory();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(String.format("%s%013d%s", FILE_PREFIX, createdAt, FILE_SUFFIX));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        writer.write(temporary);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        ReferentielSnapshot snapshot = ReferentielSnapshot.open(file);
+        latest = snapshot;
+        deleteOldSnapshots();
+        writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Wrote the snapshot of the referentials {}", file);
+        return snapshot;
+    }
+
+    private List<SnapshotRow> loadRows(Referentiel referentiel) {
+        EntityType<?> entityType = entityManagerFactory.getMetamodel().entity(referentiel.getEntityClass());
+        PersistenceUnitUtil persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        Field versionField = entityType.hasVersionAttribute() ? getField(entityType.getVersion(Long.class)) : null;
+        Field codeField = findCodeAttribute(entityType).map(ReferentielSnapshotService::getField).orElse(null);
+        List<SnapshotRow> rows = new ArrayList<>();
+        Long afterId = null;
+        List<?> page;
+        do {
+            page = referentielBatchService.findPageAfter(referentiel.getEntityClass(), afterId, PAGE_SIZE);
+            for (Object entity : page) {
+                Long id = (Long) persistenceUnitUtil.getIdentifier(entity);
+                Long version = versionField == null ? null : (Long) ReflectionUtils.getField(versionField, entity);
+                String code = codeField == null ? null : (String) ReflectionUtils.getField(codeField, entity);
+                rows.add(new SnapshotRow(id, version, code, toJson(entity)));
+                afterId = id;
+            }
+        } while (page.size() == PAGE_SIZE);
+        return rows;
+    }
+
+    /**
+     * The code of a referential is its {@code code} attribute, or the first attribute named like it, for example
+     * {@code codepays}.
+     */
+    private static Optional<SingularAttribute<?, ?>> findCodeAttribute(EntityType<?> entityType) {
+        List<SingularAttribute<?, ?>> candidates = new ArrayList<>();
+        for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+            if (attribute.getJavaType() == String.class && attribute.getName().startsWith("code")) {
+                candidates.add(attribute);
+            }
+        }
+        candidates.sort(Comparator.comparing((SingularAttribute<?, ?> attribute) -> !attribute.getName().equals("code"))
+            .thenComparing(SingularAttribute::getName));
+        return candidates.stream().findFirst();
+    }
+
+    private static Field getField(SingularAttribute<?, ?> attribute) {
+        Field field = (Field) attribute.getJavaMember();
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+
+    private byte[] toJson(Object entity) {
+        try {
+            return objectMapper.writeValueAsBytes(entity);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long currentSequence() {
+        try {
+            return hazelcastInstance.getAtomicLong(ReferentielChangePublisher.SEQUENCE_NAME).get();
+        } catch (HazelcastInstanceNotActiveException e) {
+            return 0;
+        }
+    }
+
+    private Path getDirectory() {
+        if (!StringUtils.hasText(properties.getDirectory())) {
+            throw new IllegalStateException("No directory is configured for the snapshots of the referentials");
+        }
+        return Paths.get(properties.getDirectory());
+    }
+
+    /**
+     * @return the snapshot files of the directory, the latest first.
+     */
+    private List<Path> findSnapshotFiles() {
+        Path directory = getDirectory();
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(FILE_PREFIX) && file.getFileName().toString().endsWith(FILE_SUFFIX))
+                .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("Could not list the snapshots of the referentials in {}: {}", directory, e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private void deleteOldSnapshots() {
+        List<Path> files = findSnapshotFiles();
+        // A snapshot being downloaded stays readable until its download ends
+        for (Path file : files.subList(Math.min(Math.max(properties.getRetained(), 1), files.size()), files.size())) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete the old snapshot {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package sn.ssi.sigmap.service.snapshot;
+
+/**
+ * One entity of a referential, as written in a snapshot.
+ */
+final class SnapshotRow {
+
+    private final long id;
+
+    private final Long version;
+
+    private final String code;
+
+    private final byte[] document;
+
+    SnapshotRow(long id, Long version, String code, byte[] document) {
+        this.id = id;
+        this.version = version;
+        this.code = code;
+        this.document = document;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    Long getVersion() {
+        return version;
+    }
+
+    String getCode() {
+        return code;
+    }
+
+    /**
+     * @return the entity serialized in JSON, as the REST API returns it.
+     */
+    byte[] getDocument() {
+        return document;
+    }
+}
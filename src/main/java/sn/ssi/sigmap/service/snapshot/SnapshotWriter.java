@@ -0,0 +1,148 @@
+package sn.ssi.sigmap.service.snapshot;
+
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes a snapshot file, see {@link ReferentielSnapshot} for the format.
+ * <p>
+ * The sections are kept in memory until {@link #write(Path)}, which writes the whole file at once.
+ */
+final class SnapshotWriter {
+
+    private final long epoch;
+
+    private final long sequence;
+
+    private final long createdAt;
+
+    private final List<Referentiel> referentiels = new ArrayList<>();
+
+    private final List<ByteBuffer> sections = new ArrayList<>();
+
+    private final List<Integer> rowCounts = new ArrayList<>();
+
+    SnapshotWriter(long epoch, long sequence, long createdAt) {
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @param referentiel the referential.
+     * @param rows its entities, ordered by id.
+     */
+    void addSection(Referentiel referentiel, List<SnapshotRow> rows) {
+        int count = rows.size();
+        byte[][] codes = new byte[count][];
+        List<Integer> codedRows = new ArrayList<>();
+        int codesLength = 0;
+        int documentsLength = 2 + Math.max(count - 1, 0);
+        for (int i = 0; i < count; i++) {
+            SnapshotRow row = rows.get(i);
+            if (i > 0 && row.getId() <= rows.get(i - 1).getId()) {
+                throw new IllegalArgumentException("The rows of " + referentiel + " are not ordered by id");
+            }
+            documentsLength += row.getDocument().length;
+            if (row.getCode() != null && !row.getCode().isEmpty()) {
+                codes[i] = row.getCode().getBytes(StandardCharsets.UTF_8);
+                codesLength += codes[i].length;
+                codedRows.add(i);
+            }
+        }
+        codedRows.sort(Comparator.comparing(i -> codes[i], ReferentielSnapshot::compareUnsigned));
+
+        ByteBuffer section = ByteBuffer.allocate(ReferentielSnapshot.sectionLength(count, documentsLength, codedRows.size(), codesLength));
+        for (SnapshotRow row : rows) {
+            section.putLong(row.getId());
+        }
+        for (SnapshotRow row : rows) {
+            section.putLong(row.getVersion() == null ? ReferentielSnapshot.NO_VERSION : row.getVersion());
+        }
+        // The documents form the JSON array of the whole referential
+        int position = 1;
+        for (SnapshotRow row : rows) {
+            section.putInt(position);
+            position += row.getDocument().length + 1;
+        }
+        for (SnapshotRow row : rows) {
+            section.putInt(row.getDocument().length);
+        }
+        section.putInt(documentsLength);
+        section.put((byte) '[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                section.put((byte) ',');
+            }
+            section.put(rows.get(i).getDocument());
+        }
+        section.put((byte) ']');
+        int codePosition = 0;
+        for (int i = 0; i < count; i++) {
+            section.putInt(codes[i] == null ? 0 : codePosition);
+            codePosition += codes[i] == null ? 0 : codes[i].length;
+        }
+        for (int i = 0; i < count; i++) {
+            section.putInt(codes[i] == null ? -1 : codes[i].length);
+        }
+        section.putInt(codedRows.size());
+        for (int row : codedRows) {
+            section.putInt(row);
+        }
+        for (int i = 0; i < count; i++) {
+            if (codes[i] != null) {
+                section.put(codes[i]);
+            }
+        }
+        section.flip();
+        referentiels.add(referentiel);
+        sections.add(section);
+        rowCounts.add(count);
+    }
+
+    void write(Path file) throws IOException {
+        byte[][] names = new byte[referentiels.size()][];
+        int directoryLength = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = referentiels.get(i).getResourceName().getBytes(StandardCharsets.UTF_8);
+            directoryLength += ReferentielSnapshot.directoryEntryLength(names[i].length);
+        }
+        ByteBuffer header = ByteBuffer.allocate(ReferentielSnapshot.HEADER_LENGTH + directoryLength);
+        header.putInt(ReferentielSnapshot.MAGIC);
+        header.putInt(ReferentielSnapshot.FORMAT_VERSION);
+        header.putLong(epoch);
+        header.putLong(sequence);
+        header.putLong(createdAt);
+        header.putInt(referentiels.size());
+        header.putInt(0);
+        long offset = header.capacity();
+        for (int i = 0; i < names.length; i++) {
+            header.putShort((short) names[i].length);
+            header.put(names[i]);
+            header.putInt(rowCounts.get(i));
+            header.putLong(offset);
+            offset += sections.get(i).remaining();
+        }
+        header.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            List<ByteBuffer> buffers = new ArrayList<>(sections.size() + 1);
+            buffers.add(header);
+            buffers.addAll(sections);
+            ByteBuffer[] all = buffers.toArray(new ByteBuffer[0]);
+            while (Arrays.stream(all).anyMatch(ByteBuffer::hasRemaining)) {
+                channel.write(all);
+            }
+            channel.force(true);
+        }
+    }
+}
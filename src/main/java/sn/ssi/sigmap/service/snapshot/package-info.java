@@ -0,0 +1,4 @@
+/**
+ * Binary snapshots of the referentials, written periodically and read through memory mapping.
+ */
+package sn.ssi.sigmap.service.snapshot;
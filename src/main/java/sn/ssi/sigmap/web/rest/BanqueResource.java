@@ -1,7 +1,6 @@
 package sn.ssi.sigmap.web.rest;
 
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +15,7 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import sn.ssi.sigmap.domain.Banque;
 import sn.ssi.sigmap.repository.BanqueRepository;
 import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -160,7 +160,7 @@ public class BanqueResource {
   public ResponseEntity<List<Banque>> getAllBanques(Pageable pageable) {
     log.debug("REST request to get a page of Banques");
     Page<Banque> page = banqueRepository.findAll(pageable);
-    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+    HttpHeaders headers = PaginationHeaderUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
     return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
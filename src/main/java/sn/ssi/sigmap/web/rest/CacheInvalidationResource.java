@@ -0,0 +1,66 @@
+package sn.ssi.sigmap.web.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import sn.ssi.sigmap.security.AuthoritiesConstants;
+import sn.ssi.sigmap.service.cache.CacheInvalidationService;
+import sn.ssi.sigmap.service.cache.CacheRegions;
+import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+
+/**
+ * REST controller to invalidate the cached entities on all the nodes of the cluster.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+public class CacheInvalidationResource {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationResource.class);
+
+    private static final String ENTITY_NAME = "referentielmsCache";
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    private final CacheRegions cacheRegions;
+
+    public CacheInvalidationResource(CacheInvalidationService cacheInvalidationService, CacheRegions cacheRegions) {
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.cacheRegions = cacheRegions;
+    }
+
+    /**
+     * {@code DELETE  /admin/caches/:entityName} : invalidate all the cached entries of an entity.
+     *
+     * @param entityName the name of the entity, for example {@code Pays}.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 400 (Bad Request)} if the entity is not cached.
+     */
+    @DeleteMapping("/caches/{entityName}")
+    public ResponseEntity<Void> invalidateRegion(@PathVariable String entityName) {
+        log.debug("REST request to invalidate the cache region of : {}", entityName);
+        cacheInvalidationService.invalidate(getCachedEntityClass(entityName), null);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * {@code DELETE  /admin/caches/:entityName/:id} : invalidate the cached entry of the "id" entity.
+     *
+     * @param entityName the name of the entity, for example {@code Pays}.
+     * @param id the id of the entity to invalidate.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 400 (Bad Request)} if the entity is not cached.
+     */
+    @DeleteMapping("/caches/{entityName}/{id}")
+    public ResponseEntity<Void> invalidateEntity(@PathVariable String entityName, @PathVariable Long id) {
+        log.debug("REST request to invalidate the cached {} : {}", entityName, id);
+        cacheInvalidationService.invalidate(getCachedEntityClass(entityName), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private Class<?> getCachedEntityClass(String entityName) {
+        return cacheRegions.findCachedEntityType(entityName)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not cached", ENTITY_NAME, "entitynotcached"))
+            .getJavaType();
+    }
+}
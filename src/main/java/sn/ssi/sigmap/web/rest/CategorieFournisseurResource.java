@@ -21,8 +21,8 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import sn.ssi.sigmap.domain.CategorieFournisseur;
 import sn.ssi.sigmap.repository.CategorieFournisseurRepository;
 import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 
 /**
@@ -161,7 +161,7 @@ public class CategorieFournisseurResource {
   public ResponseEntity<List<CategorieFournisseur>> getAllCategorieFournisseurs(Pageable pageable) {
     log.debug("REST request to get a page of CategorieFournisseurs");
     Page<CategorieFournisseur> page = categorieFournisseurRepository.findAll(pageable);
-    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+    HttpHeaders headers = PaginationHeaderUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
     return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
@@ -19,8 +19,8 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import sn.ssi.sigmap.domain.CriteresQualification;
 import sn.ssi.sigmap.repository.CriteresQualificationRepository;
 import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 
 /**
@@ -156,7 +156,7 @@ public class CriteresQualificationResource {
   public ResponseEntity<List<CriteresQualification>> getAllCriteresQualifications(Pageable pageable) {
     log.debug("REST request to get a page of CriteresQualifications");
     Page<CriteresQualification> page = criteresQualificationRepository.findAll(pageable);
-    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+    HttpHeaders headers = PaginationHeaderUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
     return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
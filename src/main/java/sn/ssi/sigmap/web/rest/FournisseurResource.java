@@ -3,9 +3,9 @@ package sn.ssi.sigmap.web.rest;
 import sn.ssi.sigmap.domain.Fournisseur;
 import sn.ssi.sigmap.repository.FournisseurRepository;
 import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
 
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -96,7 +96,7 @@ public class FournisseurResource {
     public ResponseEntity<List<Fournisseur>> getAllFournisseurs(Pageable pageable) {
         log.debug("REST request to get a page of Fournisseurs");
         Page<Fournisseur> page = fournisseurRepository.findAll(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        HttpHeaders headers = PaginationHeaderUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -0,0 +1,151 @@
+package sn.ssi.sigmap.web.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielBatchService;
+import sn.ssi.sigmap.service.referentiel.WriteBehindService;
+import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Makes the updates of the referential entities conditional on the version read by the client.
+ * <p>
+ * The version is sent in the entity, or as the {@code If-Match} header. A stale version is rejected with a
+ * {@code 409 (Conflict)}: by Hibernate when merging a {@code PUT}, here for a {@code PATCH}, which is applied on the
+ * current entity. Clients which send no version keep the former last-write-wins behavior: the current version is
+ * used.
+ * <p>
+ * The associated referentials are usually sent by id only, as in {@code {"pays":{"id":5}}}. Hibernate takes a
+ * versioned entity without version for a new one, so they are given their current version, for the creations too.
+ * <p>
+ * With the write-behind of the partial updates, the committed version lags behind the updates accepted by the
+ * {@link WriteBehindService}, which leave the version unchanged until they are written: a conditional {@code PATCH},
+ * with a version or an {@code If-Match} header, is then rejected with a {@code 400 (Bad Request)} rather than checked
+ * against a stale version.
+ */
+@ControllerAdvice
+public class OptimisticLockingRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final Logger log = LoggerFactory.getLogger(OptimisticLockingRequestBodyAdvice.class);
+
+    private final ReferentielBatchService referentielBatchService;
+
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    private final Metamodel metamodel;
+
+    private final boolean writeBehind;
+
+    public OptimisticLockingRequestBodyAdvice(ReferentielBatchService referentielBatchService, EntityManagerFactory entityManagerFactory,
+                                              ApplicationProperties applicationProperties) {
+        this.referentielBatchService = referentielBatchService;
+        this.persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        this.metamodel = entityManagerFactory.getMetamodel();
+        this.writeBehind = applicationProperties.getReferentiel().getWriteBehind().isEnabled();
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return (methodParameter.hasMethodAnnotation(PostMapping.class) || methodParameter.hasMethodAnnotation(PutMapping.class) ||
+            methodParameter.hasMethodAnnotation(PatchMapping.class)) &&
+            targetType instanceof Class && Referentiel.fromEntityClass((Class<?>) targetType).isPresent();
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        setAssociationVersions(body);
+        Object id = persistenceUnitUtil.getIdentifier(body);
+        if (!(id instanceof Long) || parameter.hasMethodAnnotation(PostMapping.class)) {
+            return body;
+        }
+        Field versionField = getVersionField(body.getClass());
+        Long version = (Long) ReflectionUtils.getField(versionField, body);
+        if (version == null) {
+            version = getIfMatchVersion(inputMessage.getHeaders().getIfMatch());
+        }
+        if (writeBehind && parameter.hasMethodAnnotation(PatchMapping.class) &&
+            (version != null || !inputMessage.getHeaders().getIfMatch().isEmpty())) {
+            throw new BadRequestAlertException("Conditional partial updates are not supported with the write-behind",
+                "referentielms" + body.getClass().getSimpleName(), "conditionalwritebehind");
+        }
+        Object current = referentielBatchService.findAllByIds(body.getClass(), Collections.singletonList((Long) id)).get(0);
+        if (current == null) {
+            return body;
+        }
+        Long currentVersion = (Long) ReflectionUtils.getField(versionField, current);
+        if (version == null) {
+            version = currentVersion;
+        } else if (parameter.hasMethodAnnotation(PatchMapping.class) && !Objects.equals(version, currentVersion)) {
+            log.debug("Rejecting the partial update of {} : {}, version {} instead of {}", body.getClass().getSimpleName(), id, version, currentVersion);
+            throw new ObjectOptimisticLockingFailureException(body.getClass(), id);
+        }
+        ReflectionUtils.setField(versionField, body, version);
+        return body;
+    }
+
+    private void setAssociationVersions(Object body) {
+        for (SingularAttribute<?, ?> attribute : metamodel.entity(body.getClass()).getSingularAttributes()) {
+            if (!attribute.isAssociation() || !(attribute.getJavaMember() instanceof Field) ||
+                !Referentiel.fromEntityClass(attribute.getJavaType()).isPresent()) {
+                continue;
+            }
+            Field field = (Field) attribute.getJavaMember();
+            ReflectionUtils.makeAccessible(field);
+            Object associated = ReflectionUtils.getField(field, body);
+            if (associated == null) {
+                continue;
+            }
+            Object associatedId = persistenceUnitUtil.getIdentifier(associated);
+            Field versionField = getVersionField(attribute.getJavaType());
+            if (associatedId instanceof Long && ReflectionUtils.getField(versionField, associated) == null) {
+                Object current = referentielBatchService.findAllByIds(attribute.getJavaType(), Collections.singletonList((Long) associatedId)).get(0);
+                if (current != null) {
+                    ReflectionUtils.setField(versionField, associated, ReflectionUtils.getField(versionField, current));
+                }
+            }
+        }
+    }
+
+    private Field getVersionField(Class<?> entityClass) {
+        Field field = (Field) metamodel.entity(entityClass).getVersion(Long.class).getJavaMember();
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+
+    private static Long getIfMatchVersion(List<String> ifMatch) {
+        if (ifMatch.size() != 1) {
+            return null;
+        }
+        String eTag = ifMatch.get(0);
+        if (eTag.startsWith("W/")) {
+            eTag = eTag.substring(2);
+        }
+        try {
+            return Long.valueOf(eTag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
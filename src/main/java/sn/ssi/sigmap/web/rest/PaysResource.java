@@ -19,8 +19,8 @@ import sn.ssi.sigmap.domain.Pays;
 import sn.ssi.sigmap.repository.PaysRepository;
 import sn.ssi.sigmap.service.PaysService;
 import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 /**
  * REST controller for managing {@link sn.ssi.sigmap.domain.Pays}.
@@ -141,7 +141,7 @@ public class PaysResource {
   public ResponseEntity<List<Pays>> getAllPays(Pageable pageable) {
     log.debug("REST request to get a page of Pays");
     Page<Pays> page = paysService.findAll(pageable);
-    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+    HttpHeaders headers = PaginationHeaderUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
     return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
@@ -0,0 +1,100 @@
+package sn.ssi.sigmap.web.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sn.ssi.sigmap.service.referentiel.ReactiveReferentielService;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielBundleService;
+import sn.ssi.sigmap.web.rest.compression.PrecompressedResponses;
+import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * REST controller for the non-blocking reads of the referentials.
+ * <p>
+ * The responses are written asynchronously, so a request waiting for the database does not hold a request thread.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveReferentielResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReactiveReferentielResource.class);
+
+    private static final String ENTITY_NAME = "referentielmsReferentiel";
+
+    private final ReactiveReferentielService reactiveReferentielService;
+
+    private final ReferentielBundleService referentielBundleService;
+
+    private final PrecompressedResponses precompressedResponses;
+
+    public ReactiveReferentielResource(ReactiveReferentielService reactiveReferentielService, ReferentielBundleService referentielBundleService,
+                                       PrecompressedResponses precompressedResponses) {
+        this.reactiveReferentielService = reactiveReferentielService;
+        this.referentielBundleService = referentielBundleService;
+        this.precompressedResponses = precompressedResponses;
+    }
+
+    /**
+     * {@code GET  /reactive/:resourceName} : get all the entities of a referential allowed in bundles.
+     *
+     * @param resourceName the name of the referential resource, for example {@code pays}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of entities in body,
+     * with status {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header,
+     * or with status {@code 400 (Bad Request)} if the referential is unknown or must be streamed.
+     */
+    @GetMapping(value = "/{resourceName}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAll(@PathVariable String resourceName,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("REST request to get all {} without blocking", resourceName);
+        Referentiel referentiel = getReferentiel(resourceName);
+        if (!referentielBundleService.getBundleReferentiels().contains(referentiel)) {
+            throw new BadRequestAlertException("Referential too large, it must be streamed", ENTITY_NAME, "referentielstreamonly");
+        }
+        return reactiveReferentielService.getSection(referentiel)
+            .map(section -> precompressedResponses.ok("section:" + section.getVersion(), section.getVersion(), acceptEncoding,
+                MediaType.APPLICATION_JSON, () -> section.getItems().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * {@code GET  /reactive/:resourceName} : stream all the entities of a referential, one JSON document per entity.
+     *
+     * @param resourceName the name of the referential resource, for example {@code fournisseurs}.
+     * @return the entities, ordered by id, or status {@code 400 (Bad Request)} if the referential is unknown.
+     */
+    @GetMapping(value = "/{resourceName}", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<?> streamAll(@PathVariable String resourceName) {
+        log.debug("REST request to stream all {}", resourceName);
+        return reactiveReferentielService.streamAll(getReferentiel(resourceName).getEntityClass());
+    }
+
+    /**
+     * {@code GET  /reactive/:resourceName/:id} : get the "id" entity of a referential.
+     *
+     * @param resourceName the name of the referential resource, for example {@code pays}.
+     * @param id the id of the entity to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the entity, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{resourceName}/{id}")
+    public Mono<ResponseEntity<Object>> getOne(@PathVariable String resourceName, @PathVariable Long id) {
+        log.debug("REST request to get {} : {} without blocking", resourceName, id);
+        @SuppressWarnings("unchecked")
+        Class<Object> entityClass = (Class<Object>) getReferentiel(resourceName).getEntityClass();
+        return reactiveReferentielService.findById(entityClass, id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    private Referentiel getReferentiel(String resourceName) {
+        return Referentiel.fromResourceName(resourceName)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown referential", ENTITY_NAME, "referentielunknown"));
+    }
+}
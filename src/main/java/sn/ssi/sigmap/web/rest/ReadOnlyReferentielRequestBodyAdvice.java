@@ -0,0 +1,46 @@
+package sn.ssi.sigmap.web.rest;
+
+import org.hibernate.cache.spi.access.AccessType;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import sn.ssi.sigmap.service.cache.CacheRegions;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+
+import java.lang.reflect.Type;
+
+/**
+ * Rejects the updates of the referentials cached with the {@code READ_ONLY} concurrency strategy, which Hibernate
+ * cannot apply to their region.
+ * <p>
+ * These referentials are changed in the database, then reloaded with {@code DELETE /api/admin/caches/:entityName}.
+ * Creations and deletions are still accepted.
+ */
+@ControllerAdvice
+public class ReadOnlyReferentielRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private final CacheRegions cacheRegions;
+
+    public ReadOnlyReferentielRequestBodyAdvice(CacheRegions cacheRegions) {
+        this.cacheRegions = cacheRegions;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return (methodParameter.hasMethodAnnotation(PutMapping.class) || methodParameter.hasMethodAnnotation(PatchMapping.class)) &&
+            targetType instanceof Class && Referentiel.fromEntityClass((Class<?>) targetType).isPresent() &&
+            cacheRegions.findAccessType((Class<?>) targetType).filter(AccessType.READ_ONLY::equals).isPresent();
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        throw new BadRequestAlertException("Read-only referential, it is updated in the database and reloaded through the cache administration",
+            "referentielms" + body.getClass().getSimpleName(), "referentielreadonly");
+    }
+}
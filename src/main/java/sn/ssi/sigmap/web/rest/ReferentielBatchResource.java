@@ -0,0 +1,62 @@
+package sn.ssi.sigmap.web.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielBatchService;
+import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.vm.BatchItemVM;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST controller to fetch several entities of a referential by their ids.
+ */
+@RestController
+@RequestMapping("/api")
+public class ReferentielBatchResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielBatchResource.class);
+
+    private static final String ENTITY_NAME = "referentielmsReferentiel";
+
+    static final int MAX_IDS = 1000;
+
+    private final ReferentielBatchService referentielBatchService;
+
+    public ReferentielBatchResource(ReferentielBatchService referentielBatchService) {
+        this.referentielBatchService = referentielBatchService;
+    }
+
+    /**
+     * {@code POST  /:resourceName/_mget} : get the entities of a referential with the given ids.
+     *
+     * @param resourceName the name of the referential resource, for example {@code banques}.
+     * @param ids the ids of the entities to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body one item per requested id, in
+     * the order of the request, each item telling whether the entity was found,
+     * or with status {@code 400 (Bad Request)} if the resource is unknown or the ids are not valid.
+     */
+    @PostMapping("/{resourceName}/_mget")
+    public ResponseEntity<List<BatchItemVM<Object>>> getReferentielsByIds(@PathVariable String resourceName, @RequestBody List<Long> ids) {
+        log.debug("REST request to get {} {} by ids", ids.size(), resourceName);
+        Referentiel referentiel = Referentiel.fromResourceName(resourceName)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown referential", ENTITY_NAME, "referentielunknown"));
+        if (ids.size() > MAX_IDS) {
+            throw new BadRequestAlertException("Too many ids, the maximum is " + MAX_IDS, ENTITY_NAME, "toomanyids");
+        }
+        if (ids.contains(null)) {
+            throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
+        }
+        @SuppressWarnings("unchecked")
+        List<Object> entities = referentielBatchService.findAllByIds((Class<Object>) referentiel.getEntityClass(), ids);
+        List<BatchItemVM<Object>> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            result.add(new BatchItemVM<>(ids.get(i), entities.get(i)));
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,121 @@
+package sn.ssi.sigmap.web.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielBundleService;
+import sn.ssi.sigmap.service.referentiel.ReferentielSection;
+import sn.ssi.sigmap.web.rest.compression.PrecompressedResponses;
+import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.vm.ReferentielBundleVM;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * REST controller to get several referentials in a single request.
+ * <p>
+ * The bundle and each of its sections have a version, the bundle version being also its {@code ETag}. Clients
+ * revalidate their bundle with {@code If-None-Match}, or compare the section versions to reload only the sections
+ * that changed. Each version of a bundle is serialized and compressed only once.
+ */
+@RestController
+@RequestMapping("/api")
+public class ReferentielBundleResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielBundleResource.class);
+
+    private static final String ENTITY_NAME = "referentielmsReferentiel";
+
+    private final ReferentielBundleService referentielBundleService;
+
+    private final PrecompressedResponses precompressedResponses;
+
+    private final ObjectMapper objectMapper;
+
+    public ReferentielBundleResource(ReferentielBundleService referentielBundleService, PrecompressedResponses precompressedResponses,
+                                     ObjectMapper objectMapper) {
+        this.referentielBundleService = referentielBundleService;
+        this.precompressedResponses = precompressedResponses;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * {@code GET  /referentiels/_bundle} : get a bundle of referentials.
+     *
+     * @param include the resource names of the referentials to include, for example {@code pays,types-marches}, all
+     * the allowed referentials if empty.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bundle,
+     * with status {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header,
+     * or with status {@code 400 (Bad Request)} if a referential is unknown or not allowed in a bundle.
+     */
+    @GetMapping(value = "/referentiels/_bundle", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getBundle(@RequestParam(required = false) List<String> include,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("REST request to get a bundle of referentials : {}", include);
+        return toResponse(getSections(include), true, acceptEncoding);
+    }
+
+    /**
+     * {@code GET  /referentiels/_bundle/versions} : get the versions of a bundle of referentials, without their items.
+     *
+     * @param include the resource names of the referentials to include, all the allowed referentials if empty.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bundle without items,
+     * with status {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header,
+     * or with status {@code 400 (Bad Request)} if a referential is unknown or not allowed in a bundle.
+     */
+    @GetMapping(value = "/referentiels/_bundle/versions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getBundleVersions(@RequestParam(required = false) List<String> include,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("REST request to get the versions of a bundle of referentials : {}", include);
+        return toResponse(getSections(include), false, acceptEncoding);
+    }
+
+    private List<ReferentielSection> getSections(List<String> include) {
+        Set<Referentiel> allowed = referentielBundleService.getBundleReferentiels();
+        Set<Referentiel> referentiels = EnumSet.noneOf(Referentiel.class);
+        if (include == null || include.isEmpty()) {
+            referentiels.addAll(allowed);
+        } else {
+            for (String resourceName : include) {
+                Referentiel referentiel = Referentiel.fromResourceName(resourceName)
+                    .orElseThrow(() -> new BadRequestAlertException("Unknown referential", ENTITY_NAME, "referentielunknown"));
+                if (!allowed.contains(referentiel)) {
+                    throw new BadRequestAlertException("Referential not allowed in a bundle", ENTITY_NAME, "referentielnotallowed");
+                }
+                referentiels.add(referentiel);
+            }
+        }
+        List<ReferentielSection> sections = new ArrayList<>(referentiels.size());
+        for (Referentiel referentiel : referentiels) {
+            sections.add(referentielBundleService.getSection(referentiel));
+        }
+        return sections;
+    }
+
+    private ResponseEntity<byte[]> toResponse(List<ReferentielSection> sections, boolean withItems, String acceptEncoding) {
+        String version = referentielBundleService.getVersion(sections);
+        String eTag = withItems ? version : version + "-versions";
+        return precompressedResponses.ok("bundle:" + eTag, eTag, acceptEncoding, MediaType.APPLICATION_JSON, () -> {
+            ReferentielBundleVM bundle = new ReferentielBundleVM(version);
+            for (ReferentielSection section : sections) {
+                bundle.getSections().put(section.getReferentiel().getResourceName(),
+                    new ReferentielBundleVM.Section(section.getVersion(), section.getSize(), withItems ? section.getItems() : null));
+            }
+            try {
+                return objectMapper.writeValueAsBytes(bundle);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,171 @@
+package sn.ssi.sigmap.web.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangeStream;
+import sn.ssi.sigmap.service.referentiel.ReferentielChanges;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangedEvent;
+import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.vm.ReferentielChangeVM;
+import sn.ssi.sigmap.web.rest.vm.ReferentielChangesVM;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * REST controller streaming the changes of the referentials as server-sent events.
+ * <p>
+ * The clients keep their referentials up to date from the changes instead of polling them. Each change has the
+ * cluster-wide sequence number as event id, which the browsers send back in the {@code Last-Event-ID} header when
+ * they reconnect. The clients which cannot keep a stream open poll the same changes.
+ */
+@RestController
+@RequestMapping("/api")
+public class ReferentielEventResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielEventResource.class);
+
+    private static final String ENTITY_NAME = "referentielmsReferentiel";
+
+    static final String CHANGE_EVENT = "change";
+
+    static final String RESET_EVENT = "reset";
+
+    private final ReferentielChangeStream referentielChangeStream;
+
+    private final ApplicationProperties.Referentiel.Events properties;
+
+    public ReferentielEventResource(ReferentielChangeStream referentielChangeStream, ApplicationProperties applicationProperties) {
+        this.referentielChangeStream = referentielChangeStream;
+        this.properties = applicationProperties.getReferentiel().getEvents();
+    }
+
+    /**
+     * {@code GET  /referentiels/_events} : stream the changes of the referentials.
+     * <p>
+     * Each {@code change} event has the referential, the id, the version and the operation of a committed change. A
+     * {@code reset} event is sent instead of the missed changes when they are no longer available: the client must
+     * reload its referentials, then resume from the id of the reset event.
+     *
+     * @param lastEventId the id of the last event received, to resume after it.
+     * @param referentiels the names of the referential resources to follow, all the referentials when empty.
+     * @return the stream of events, or status {@code 400 (Bad Request)} if a referential is unknown.
+     */
+    @GetMapping(value = "/referentiels/_events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                    @RequestParam(value = "referentiel", required = false) List<String> referentiels) {
+        log.debug("REST request to stream the changes of the referentials after : {}", lastEventId);
+        Set<Referentiel> followed = getReferentiels(referentiels);
+        Long resumeAfter = parseLastEventId(lastEventId);
+        SseEmitter emitter = new SseEmitter(properties.getTimeoutMs());
+        EmitterSubscriber subscriber = new EmitterSubscriber(emitter, followed);
+        emitter.onCompletion(() -> referentielChangeStream.unsubscribe(subscriber));
+        emitter.onTimeout(() -> referentielChangeStream.unsubscribe(subscriber));
+        emitter.onError(e -> referentielChangeStream.unsubscribe(subscriber));
+        referentielChangeStream.subscribe(resumeAfter, subscriber);
+        return emitter;
+    }
+
+    /**
+     * {@code GET  /referentiels/_changes} : get the changes of the referentials, for the clients polling them.
+     * <p>
+     * Without {@code since}, only the latest sequence number is returned: a client gets it before loading its
+     * referentials, then polls the changes after it.
+     *
+     * @param since the sequence number of the last change received.
+     * @param epoch the epoch of {@code since}, as returned with it.
+     * @param referentiels the names of the referential resources to follow, all the referentials when empty.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the changes in body, with {@code reset}
+     * set when they are no longer available or {@code since} is from another epoch, or with status {@code 400 (Bad Request)} if a referential is unknown.
+     */
+    @GetMapping(value = "/referentiels/_changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReferentielChangesVM> getChanges(@RequestParam(value = "since", required = false) Long since,
+                                                           @RequestParam(value = "epoch", required = false) Long epoch,
+                                                           @RequestParam(value = "referentiel", required = false) List<String> referentiels) {
+        log.debug("REST request to get the changes of the referentials after : {}", since);
+        Set<Referentiel> followed = getReferentiels(referentiels);
+        ReferentielChanges changes = referentielChangeStream.getChanges(since, epoch);
+        List<ReferentielChangeVM> result = changes.getChanges().stream()
+            .filter(event -> followed.contains(event.getReferentiel()))
+            .map(ReferentielChangeVM::new)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(new ReferentielChangesVM(changes.getEpoch(), changes.getLatestSequence(), changes.isReset(), result,
+            changes.isWaiting()));
+    }
+
+    private static Set<Referentiel> getReferentiels(List<String> resourceNames) {
+        Set<Referentiel> referentiels = EnumSet.allOf(Referentiel.class);
+        if (resourceNames != null && !resourceNames.isEmpty()) {
+            referentiels.clear();
+            for (String resourceName : resourceNames) {
+                referentiels.add(Referentiel.fromResourceName(resourceName)
+                    .orElseThrow(() -> new BadRequestAlertException("Unknown referential", ENTITY_NAME, "referentielunknown")));
+            }
+        }
+        return referentiels;
+    }
+
+    private static Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(lastEventId);
+        } catch (NumberFormatException e) {
+            throw new BadRequestAlertException("Invalid Last-Event-ID", ENTITY_NAME, "lasteventidinvalid");
+        }
+    }
+
+    private static class EmitterSubscriber implements ReferentielChangeStream.Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Set<Referentiel> referentiels;
+
+        EmitterSubscriber(SseEmitter emitter, Set<Referentiel> referentiels) {
+            this.emitter = emitter;
+            this.referentiels = referentiels;
+        }
+
+        @Override
+        public void onChange(ReferentielChangedEvent event) throws IOException {
+            if (!referentiels.contains(event.getReferentiel())) {
+                return;
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                .name(CHANGE_EVENT)
+                .data(new ReferentielChangeVM(event), MediaType.APPLICATION_JSON);
+            if (event.getSequence() > 0) {
+                builder.id(Long.toString(event.getSequence()));
+            }
+            emitter.send(builder);
+        }
+
+        @Override
+        public void onGap(long latestSequence) throws IOException {
+            emitter.send(SseEmitter.event()
+                .id(Long.toString(latestSequence))
+                .name(RESET_EVENT)
+                .data(""));
+        }
+
+        @Override
+        public void onHeartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void onError(Exception e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
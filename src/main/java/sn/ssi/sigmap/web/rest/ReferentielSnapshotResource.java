@@ -0,0 +1,88 @@
+package sn.ssi.sigmap.web.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sn.ssi.sigmap.service.snapshot.ReferentielSnapshot;
+import sn.ssi.sigmap.service.snapshot.ReferentielSnapshotService;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * REST controller to download the latest snapshot of the referentials, for the consumers loading them in bulk.
+ */
+@RestController
+@RequestMapping("/api")
+public class ReferentielSnapshotResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReferentielSnapshotResource.class);
+
+    static final String SEQUENCE_HEADER = "X-Snapshot-Sequence";
+
+    static final String EPOCH_HEADER = "X-Snapshot-Epoch";
+
+    private final ReferentielSnapshotService referentielSnapshotService;
+
+    public ReferentielSnapshotResource(ReferentielSnapshotService referentielSnapshotService) {
+        this.referentielSnapshotService = referentielSnapshotService;
+    }
+
+    /**
+     * {@code GET  /referentiels/_snapshot} : download the latest snapshot of the referentials.
+     * <p>
+     * The file is copied to the response by {@link FileChannel#transferTo}, without being read in the heap. The
+     * {@code X-Snapshot-Sequence} header gives the sequence number to poll the changes after, and
+     * {@code X-Snapshot-Epoch} its epoch, see {@code GET /referentiels/_changes}.
+     *
+     * @param ifNoneMatch the {@code ETag} of the snapshot already downloaded, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the snapshot file in body,
+     * with status {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header,
+     * or with status {@code 404 (Not Found)} if no snapshot was written yet.
+     * @throws IOException if the snapshot file cannot be opened.
+     */
+    @GetMapping(value = "/referentiels/_snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> getSnapshot(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+        throws IOException {
+        log.debug("REST request to download the snapshot of the referentials");
+        Optional<ReferentielSnapshot> latest = referentielSnapshotService.getLatest();
+        if (!latest.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        ReferentielSnapshot snapshot = latest.get();
+        String eTag = "\"" + snapshot.getFile().getFileName() + "\"";
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        // Opened now, so the file stays readable if a newer snapshot replaces it during the download
+        FileChannel channel = FileChannel.open(snapshot.getFile(), StandardOpenOption.READ);
+        StreamingResponseBody body = outputStream -> {
+            try (FileChannel source = channel) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long size = source.size();
+                for (long position = 0; position < size; ) {
+                    position += source.transferTo(position, size - position, target);
+                }
+            }
+        };
+        return ResponseEntity.ok()
+            .eTag(eTag)
+            .header(SEQUENCE_HEADER, Long.toString(snapshot.getSequence()))
+            .header(EPOCH_HEADER, Long.toString(snapshot.getEpoch()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment")
+                .filename(snapshot.getFile().getFileName().toString()).build().toString())
+            .contentLength(channel.size())
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .body(body);
+    }
+}
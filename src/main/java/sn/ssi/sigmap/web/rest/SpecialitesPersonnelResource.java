@@ -21,8 +21,8 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import sn.ssi.sigmap.domain.SpecialitesPersonnel;
 import sn.ssi.sigmap.repository.SpecialitesPersonnelRepository;
 import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 
 /**
@@ -158,7 +158,7 @@ public class SpecialitesPersonnelResource {
   public ResponseEntity<List<SpecialitesPersonnel>> getAllSpecialitesPersonnels(Pageable pageable) {
     log.debug("REST request to get a page of SpecialitesPersonnels");
     Page<SpecialitesPersonnel> page = specialitesPersonnelRepository.findAll(pageable);
-    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+    HttpHeaders headers = PaginationHeaderUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
     return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
@@ -21,8 +21,8 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import sn.ssi.sigmap.domain.TypeAutoriteContractante;
 import sn.ssi.sigmap.repository.TypeAutoriteContractanteRepository;
 import sn.ssi.sigmap.web.rest.errors.BadRequestAlertException;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
 import io.github.jhipster.web.util.HeaderUtil;
-import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 
 /**
@@ -171,7 +171,7 @@ public class TypeAutoriteContractanteResource {
   public ResponseEntity<List<TypeAutoriteContractante>> getAllTypeAutoriteContractantes(Pageable pageable) {
     log.debug("REST request to get a page of TypeAutoriteContractantes");
     Page<TypeAutoriteContractante> page = typeAutoriteContractanteRepository.findAll(pageable);
-    HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+    HttpHeaders headers = PaginationHeaderUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
     return ResponseEntity.ok().headers(headers).body(page.getContent());
   }
 
@@ -0,0 +1,50 @@
+package sn.ssi.sigmap.web.rest.compression;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A response body with its gzip variant, computed once and served to every client accepting it.
+ */
+public class PrecompressedBody {
+
+    private final HttpHeaders headers;
+
+    private final byte[] identity;
+
+    private final byte[] gzip;
+
+    public PrecompressedBody(byte[] identity, byte[] gzip) {
+        this(HttpHeaders.EMPTY, identity, gzip);
+    }
+
+    public PrecompressedBody(HttpHeaders headers, byte[] identity, byte[] gzip) {
+        this.headers = headers;
+        this.identity = identity;
+        this.gzip = gzip;
+    }
+
+    /**
+     * @return the headers of the response kept with the body, such as its content type and pagination.
+     */
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getIdentity() {
+        return identity;
+    }
+
+    /**
+     * @return the gzip variant, or {@code null} if the body is too small to be worth compressing.
+     */
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    /**
+     * @return the number of bytes held by the body and its variant.
+     */
+    public long size() {
+        return (long) identity.length + (gzip == null ? 0 : gzip.length);
+    }
+}
@@ -0,0 +1,120 @@
+package sn.ssi.sigmap.web.rest.compression;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielGenerations;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves the listings of the referentials, {@code GET /api/:resourceName}, from the {@link PrecompressedResponses}.
+ * <p>
+ * A listing is kept with its content type and pagination headers, by its URL, its {@code Accept} header and the
+ * {@link ReferentielGenerations generation} of its referential read before it is built: a change of the referential
+ * gives its pages new keys, and the former ones leave the cache as the least recently used. The gzip variant of a page
+ * is sent to the clients accepting it, the others get it as it was written. It must run after the security filters.
+ */
+public class PrecompressedPageFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    private static final List<String> KEPT_HEADERS = Arrays.asList(HttpHeaders.CONTENT_TYPE, HttpHeaders.LINK, "X-Total-Count",
+        PaginationHeaderUtil.X_TOTAL_COUNT_ESTIMATED);
+
+    private final PrecompressedResponses precompressedResponses;
+
+    private final ReferentielGenerations referentielGenerations;
+
+    public PrecompressedPageFilter(PrecompressedResponses precompressedResponses, ReferentielGenerations referentielGenerations) {
+        this.precompressedResponses = precompressedResponses;
+        this.referentielGenerations = referentielGenerations;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !getReferentiel(request).isPresent();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        Referentiel referentiel = getReferentiel(request).orElseThrow(IllegalStateException::new);
+        String key = "page:" + referentiel.getResourceName() + ":" + referentielGenerations.get(referentiel) + ":" +
+            request.getHeader(HttpHeaders.ACCEPT) + ":" + getRequestUrl(request);
+        PrecompressedBody precompressed = precompressedResponses.find(key);
+        if (precompressed != null) {
+            write(request, response, precompressed);
+            return;
+        }
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() != HttpStatus.OK.value() || wrapper.getContentType() == null ||
+            wrapper.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : KEPT_HEADERS) {
+            headers.addAll(name, new ArrayList<>(wrapper.getHeaders(name)));
+        }
+        precompressed = precompressedResponses.store(key, HttpHeaders.readOnlyHttpHeaders(headers), wrapper.getContentAsByteArray());
+        if (precompressed.getGzip() != null && PrecompressedResponses.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            // The headers are already sent to the response, only the body is replaced by its gzip variant
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, PrecompressedResponses.GZIP);
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            writeBody(response, precompressed.getGzip());
+        } else {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, PrecompressedBody precompressed)
+        throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        precompressed.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (precompressed.getGzip() != null && PrecompressedResponses.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, PrecompressedResponses.GZIP);
+            writeBody(response, precompressed.getGzip());
+        } else {
+            writeBody(response, precompressed.getIdentity());
+        }
+    }
+
+    private static void writeBody(HttpServletResponse response, byte[] body) throws IOException {
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * @return the referential listed by the request, if its path is {@code /api/:resourceName}.
+     */
+    private static Optional<Referentiel> getReferentiel(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(API_PREFIX) || path.indexOf('/', API_PREFIX.length()) >= 0) {
+            return Optional.empty();
+        }
+        return Referentiel.fromResourceName(path.substring(API_PREFIX.length()));
+    }
+
+    /**
+     * The pagination links are built from the request URL, so the pages are only shared by the same URL.
+     */
+    private static String getRequestUrl(HttpServletRequest request) {
+        return request.getQueryString() == null ? request.getRequestURL().toString() :
+            request.getRequestURL().append('?').append(request.getQueryString()).toString();
+    }
+}
@@ -0,0 +1,241 @@
+package sn.ssi.sigmap.web.rest.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves cached responses with a gzip variant compressed only once.
+ * <p>
+ * The bodies are kept by key, the key changing with the content, usually the {@code ETag} of the response. A body
+ * served already compressed carries a {@code Content-Encoding}, so the server compression leaves it alone. The
+ * compression level is lowered when the CPU used by the process is high, or when the load average of the system is
+ * high if the JVM does not report the CPU of the process. The cache is bounded both in number of bodies and in bytes.
+ * <p>
+ * The bundle and the reactive sections are keyed by their version. The paginated listings of the referentials are
+ * kept by {@link PrecompressedPageFilter}, keyed by their URL and the generation of their referential.
+ */
+@Component
+public class PrecompressedResponses {
+
+    public static final String GZIP = "gzip";
+
+    private final Logger log = LoggerFactory.getLogger(PrecompressedResponses.class);
+
+    private final int minResponseSize;
+
+    private final int maxCachedResponses;
+
+    private final long maxCachedBytes;
+
+    private final LinkedHashMap<String, PrecompressedBody> bodies = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long cachedBytes;
+
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private final Counter bytesSaved;
+
+    private final MeterRegistry meterRegistry;
+
+    public PrecompressedResponses(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Compression compression = applicationProperties.getCompression();
+        this.minResponseSize = compression.getMinResponseSize();
+        this.maxCachedResponses = compression.getMaxCachedResponses();
+        this.maxCachedBytes = compression.getMaxCachedBytes();
+        this.meterRegistry = meterRegistry;
+        this.bytesSaved = meterRegistry.counter("http.precompression.bytes.saved");
+        meterRegistry.gauge("http.precompression.cached.bytes", this, PrecompressedResponses::getCachedBytes);
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    /**
+     * Build a {@code 200 (OK)} response, with the gzip variant of the body if the client accepts it.
+     *
+     * @param key the key of the body, which must change with its content.
+     * @param eTag the entity tag of the uncompressed body.
+     * @param acceptEncoding the {@code Accept-Encoding} header of the request, if any.
+     * @param contentType the content type of the body.
+     * @param body supplies the uncompressed body when it is not cached yet.
+     * @return the response.
+     */
+    public ResponseEntity<byte[]> ok(String key, String eTag, String acceptEncoding, MediaType contentType, Supplier<byte[]> body) {
+        PrecompressedBody precompressed = find(key);
+        if (precompressed == null) {
+            precompressed = store(key, HttpHeaders.EMPTY, body.get());
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(contentType)
+            .cacheControl(CacheControl.noCache())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (precompressed.getGzip() != null && acceptsGzip(acceptEncoding)) {
+            return response
+                .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                .eTag(eTag + "-" + GZIP)
+                .body(precompressed.getGzip());
+        }
+        return response.eTag(eTag).body(precompressed.getIdentity());
+    }
+
+    /**
+     * @param key the key of the body.
+     * @return the body kept with this key, or {@code null}.
+     */
+    public synchronized PrecompressedBody find(String key) {
+        return bodies.get(key);
+    }
+
+    /**
+     * Compress a body and keep it, with the headers to send back with it.
+     *
+     * @param key the key of the body, which must change with its content.
+     * @param headers the headers of the response.
+     * @param identity the uncompressed body.
+     * @return the body with its gzip variant, if it is worth compressing.
+     */
+    public PrecompressedBody store(String key, HttpHeaders headers, byte[] identity) {
+        PrecompressedBody precompressed = compress(headers, identity);
+        put(key, precompressed);
+        return precompressed;
+    }
+
+    /**
+     * Keep the body, then drop the least recently used ones until the cache is within its bounds. A body larger than
+     * the whole cache is served but not kept.
+     */
+    private synchronized void put(String key, PrecompressedBody precompressed) {
+        if (precompressed.size() > maxCachedBytes) {
+            return;
+        }
+        PrecompressedBody previous = bodies.put(key, precompressed);
+        cachedBytes += precompressed.size() - (previous == null ? 0 : previous.size());
+        Iterator<PrecompressedBody> eldest = bodies.values().iterator();
+        while ((bodies.size() > maxCachedResponses || cachedBytes > maxCachedBytes) && eldest.hasNext()) {
+            cachedBytes -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    private PrecompressedBody compress(HttpHeaders headers, byte[] identity) {
+        if (identity.length < minResponseSize) {
+            return new PrecompressedBody(headers, identity, null);
+        }
+        int level = getCompressionLevel();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        byte[] gzip = gzip(identity, level);
+        long cpuTime = threads.getCurrentThreadCpuTime() - cpuStart;
+        Timer.builder("http.precompression.cpu")
+            .description("CPU time spent compressing the cached responses")
+            .tag("level", String.valueOf(level))
+            .register(meterRegistry)
+            .record(cpuTime, TimeUnit.NANOSECONDS);
+        log.debug("Compressed a response from {} to {} bytes at level {}", identity.length, gzip.length, level);
+        if (gzip.length >= identity.length) {
+            return new PrecompressedBody(headers, identity, null);
+        }
+        bytesSaved.increment(identity.length - gzip.length);
+        return new PrecompressedBody(headers, identity, gzip);
+    }
+
+    /**
+     * The best compression while the CPU is mostly idle, the fastest one when it is saturated.
+     */
+    private int getCompressionLevel() {
+        double load = getCpuLoad();
+        if (load < 0) {
+            return Deflater.DEFAULT_COMPRESSION;
+        } else if (load < 0.5) {
+            return Deflater.BEST_COMPRESSION;
+        } else if (load < 0.9) {
+            return 6;
+        }
+        return Deflater.BEST_SPEED;
+    }
+
+    /**
+     * @return the CPU used by the process, between 0 and 1, else the load average of the system per processor, or a
+     * negative value if neither is available.
+     */
+    private double getCpuLoad() {
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            double processCpuLoad = ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuLoad();
+            if (processCpuLoad >= 0) {
+                return processCpuLoad;
+            }
+        }
+        return operatingSystem.getSystemLoadAverage() / operatingSystem.getAvailableProcessors();
+    }
+
+    private static byte[] gzip(byte[] identity, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(identity.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param acceptEncoding the {@code Accept-Encoding} header of a request, if any.
+     * @return true if the gzip coding is accepted.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.trim().split(";");
+            String name = parameters[0].trim();
+            if (GZIP.equalsIgnoreCase(name) || "*".equals(name)) {
+                return !isRejected(parameters);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRejected(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Compression of the cached REST responses.
+ */
+package sn.ssi.sigmap.web.rest.compression;
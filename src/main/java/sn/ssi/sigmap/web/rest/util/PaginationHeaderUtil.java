@@ -0,0 +1,33 @@
+package sn.ssi.sigmap.web.rest.util;
+
+import io.github.jhipster.web.util.PaginationUtil;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import sn.ssi.sigmap.repository.support.CountedPage;
+
+/**
+ * Utility class for the pagination headers of the paginated listings.
+ */
+public final class PaginationHeaderUtil {
+
+    public static final String X_TOTAL_COUNT_ESTIMATED = "X-Total-Count-Estimated";
+
+    private PaginationHeaderUtil() {
+    }
+
+    /**
+     * Generate the pagination headers of {@link PaginationUtil}, and the {@code X-Total-Count-Estimated} header
+     * telling whether {@code X-Total-Count} is an estimate.
+     *
+     * @param uriBuilder the URI of the listing.
+     * @param page the page.
+     * @param <T> the type of the entities.
+     * @return the headers.
+     */
+    public static <T> HttpHeaders generatePaginationHttpHeaders(UriComponentsBuilder uriBuilder, Page<T> page) {
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        headers.add(X_TOTAL_COUNT_ESTIMATED, Boolean.toString(page instanceof CountedPage && ((CountedPage<?>) page).isTotalEstimated()));
+        return headers;
+    }
+}
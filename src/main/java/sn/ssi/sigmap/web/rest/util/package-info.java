@@ -0,0 +1,4 @@
+/**
+ * Utility classes of the REST controllers.
+ */
+package sn.ssi.sigmap.web.rest.util;
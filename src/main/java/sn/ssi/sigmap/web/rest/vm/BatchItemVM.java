@@ -0,0 +1,42 @@
+package sn.ssi.sigmap.web.rest.vm;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * View Model for one entry of a batch fetch by ids.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemVM<T> {
+
+    private final Long id;
+
+    private final boolean found;
+
+    private final T entity;
+
+    public BatchItemVM(Long id, T entity) {
+        this.id = id;
+        this.found = entity != null;
+        this.entity = entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public T getEntity() {
+        return entity;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemVM{" +
+            "id=" + id +
+            ", found=" + found +
+            "}";
+    }
+}
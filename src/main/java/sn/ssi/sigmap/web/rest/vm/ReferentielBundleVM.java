@@ -0,0 +1,69 @@
+package sn.ssi.sigmap.web.rest.vm;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * View Model for a bundle of referentials, keyed by resource name.
+ */
+public class ReferentielBundleVM {
+
+    private final String version;
+
+    private final Map<String, Section> sections = new LinkedHashMap<>();
+
+    public ReferentielBundleVM(String version) {
+        this.version = version;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Map<String, Section> getSections() {
+        return sections;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferentielBundleVM{" +
+            "version='" + version + "'" +
+            ", sections=" + sections.keySet() +
+            "}";
+    }
+
+    /**
+     * One referential of the bundle, without its items when only the versions are requested.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Section {
+
+        private final String version;
+
+        private final int size;
+
+        private final String items;
+
+        public Section(String version, int size, String items) {
+            this.version = version;
+            this.size = size;
+            this.items = items;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        @JsonRawValue
+        public String getItems() {
+            return items;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package sn.ssi.sigmap.web.rest.vm;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangeType;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangedEvent;
+
+/**
+ * View Model of a change of a referential, sent on the change stream.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReferentielChangeVM {
+
+    private final Long sequence;
+
+    private final String referentiel;
+
+    private final String entity;
+
+    private final Long id;
+
+    private final Long version;
+
+    private final ReferentielChangeType op;
+
+    public ReferentielChangeVM(ReferentielChangedEvent event) {
+        this.sequence = event.getSequence() > 0 ? event.getSequence() : null;
+        this.referentiel = event.getReferentiel().getResourceName();
+        this.entity = event.getReferentiel().getEntityClass().getSimpleName();
+        this.id = event.getId();
+        this.version = event.getVersion();
+        this.op = event.getType();
+    }
+
+    /**
+     * @return the sequence number of the change in the cluster, absent when it has none.
+     */
+    public Long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the name of the referential resource, for example {@code pays}.
+     */
+    public String getReferentiel() {
+        return referentiel;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    /**
+     * @return the id of the changed entity, absent when any entity of the referential may have changed.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public ReferentielChangeType getOp() {
+        return op;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferentielChangeVM{" +
+            "sequence=" + sequence +
+            ", referentiel='" + referentiel + "'" +
+            ", id=" + id +
+            ", version=" + version +
+            ", op=" + op +
+            "}";
+    }
+}
@@ -0,0 +1,72 @@
+package sn.ssi.sigmap.web.rest.vm;
+
+import java.util.List;
+
+/**
+ * View Model of the changes of the referentials after a sequence number.
+ */
+public class ReferentielChangesVM {
+
+    private final long epoch;
+
+    private final long latest;
+
+    private final boolean reset;
+
+    private final List<ReferentielChangeVM> changes;
+
+    private final boolean waiting;
+
+    public ReferentielChangesVM(long epoch, long latest, boolean reset, List<ReferentielChangeVM> changes, boolean waiting) {
+        this.epoch = epoch;
+        this.latest = latest;
+        this.reset = reset;
+        this.changes = changes;
+        this.waiting = waiting;
+    }
+
+    /**
+     * @return the epoch of the sequence numbers, to send back with {@code since}: it changes when the whole cluster
+     * is restarted and the sequence numbers start again.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return the sequence number to ask the next changes after.
+     */
+    public long getLatest() {
+        return latest;
+    }
+
+    /**
+     * @return {@code true} when some of the requested changes are no longer available, the referentials must be reloaded.
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    public List<ReferentielChangeVM> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return {@code true} when later changes wait for a missing one, the changes until {@code latest} are not the
+     * most recent ones.
+     */
+    public boolean isWaiting() {
+        return waiting;
+    }
+
+    @Override
+    public String toString() {
+        return "ReferentielChangesVM{" +
+            "epoch=" + epoch +
+            ", latest=" + latest +
+            ", reset=" + reset +
+            ", waiting=" + waiting +
+            ", changes=" + changes.size() +
+            "}";
+    }
+}
@@ -0,0 +1,57 @@
+package sn.ssi.sigmap.config;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the pooled-lo allocation of the entity ids.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+class SequenceAllocationIT {
+
+  private static final int INCREMENT = 50;
+
+  private static final int ENTITIES = 120;
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  @Transactional
+  void idsAreAllocatedByBlocksFromTheSequenceValue() {
+    long before = nextSequenceValue();
+
+    List<Pays> pays = new ArrayList<>();
+    for (int i = 0; i < ENTITIES; i++) {
+      pays.add(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+    }
+    List<Long> ids = paysRepository.saveAll(pays).stream().map(Pays::getId).collect(Collectors.toList());
+    paysRepository.flush();
+
+    long after = nextSequenceValue();
+    assertThat(ids).doesNotHaveDuplicates();
+    // A block left by a former test can still be in use, the new blocks start at a sequence value
+    assertThat(ids).allMatch(id -> id < before || (id >= before + INCREMENT && id < after));
+    assertThat((after - before) / INCREMENT - 1).isLessThanOrEqualTo((ENTITIES + INCREMENT - 1) / INCREMENT);
+  }
+
+  private long nextSequenceValue() {
+    return jdbcTemplate.queryForObject("select nextval('sequence_generator')", Long.class);
+  }
+}
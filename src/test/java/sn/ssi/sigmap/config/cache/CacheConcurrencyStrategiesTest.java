@@ -0,0 +1,79 @@
+package sn.ssi.sigmap.config.cache;
+
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.assertj.core.data.MapEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.domain.Banque;
+import sn.ssi.sigmap.domain.Pays;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class CacheConcurrencyStrategiesTest {
+
+    private ApplicationProperties.Cache cache;
+
+    private Map<String, Object> hibernateProperties;
+
+    @BeforeEach
+    void setup() {
+        cache = new ApplicationProperties().getCache();
+        hibernateProperties = new HashMap<>();
+    }
+
+    @Test
+    void annotationStrategyIsKeptByDefault() {
+        CacheConcurrencyStrategies.configure(hibernateProperties, cache);
+
+        assertThat(hibernateProperties).isEmpty();
+    }
+
+    @Test
+    void regionStrategyOverridesTheAnnotation() {
+        cache.getRegions().put("Pays", region(CacheConcurrencyStrategy.NONSTRICT_READ_WRITE));
+
+        CacheConcurrencyStrategies.configure(hibernateProperties, cache);
+
+        assertThat(hibernateProperties).containsOnly(
+            classCache(Pays.class, "nonstrict-read-write"));
+    }
+
+    @Test
+    void regionStrategyTakesPrecedenceOverTheDefaultRegion() {
+        cache.getDefaultRegion().setConcurrencyStrategy(CacheConcurrencyStrategy.READ_ONLY);
+        cache.getRegions().put("Pays", region(CacheConcurrencyStrategy.READ_WRITE));
+        cache.getRegions().put("Banque", new ApplicationProperties.Cache.Region());
+
+        CacheConcurrencyStrategies.configure(hibernateProperties, cache);
+
+        assertThat(hibernateProperties).hasSize(CacheConcurrencyStrategies.getCachedEntities().size());
+        assertThat(hibernateProperties).contains(
+            classCache(Pays.class, "read-write"),
+            classCache(Banque.class, "read-only"));
+    }
+
+    @Test
+    void transactionalStrategyIsRejected() {
+        cache.getRegions().put("Pays", region(CacheConcurrencyStrategy.TRANSACTIONAL));
+
+        assertThatThrownBy(() -> CacheConcurrencyStrategies.configure(hibernateProperties, cache))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Pays");
+    }
+
+    private static ApplicationProperties.Cache.Region region(CacheConcurrencyStrategy strategy) {
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setConcurrencyStrategy(strategy);
+        return region;
+    }
+
+    private static MapEntry<String, Object> classCache(Class<?> entityClass, String usage) {
+        return entry("hibernate.classcache." + entityClass.getName(), usage);
+    }
+}
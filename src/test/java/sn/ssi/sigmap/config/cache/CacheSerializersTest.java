@@ -0,0 +1,146 @@
+package sn.ssi.sigmap.config.cache;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import org.hibernate.cache.spi.entry.StandardCacheEntryImpl;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.domain.Fournisseur;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheSerializersTest {
+
+    private static final String[] PROPERTY_NAMES = { "adresse", "sigle", "date" };
+
+    private CacheEntryFactory entryFactory;
+
+    private InternalSerializationService serializationService;
+
+    @BeforeEach
+    @SuppressWarnings("deprecation")
+    void setup() {
+        EntityPersister persister = mock(EntityPersister.class);
+        when(persister.getPropertyNames()).thenReturn(PROPERTY_NAMES);
+        MetamodelImplementor metamodel = mock(MetamodelImplementor.class);
+        when(metamodel.entityPersister(Fournisseur.class.getName())).thenReturn(persister);
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class);
+        when(sessionFactory.getMetamodel()).thenReturn(metamodel);
+        when(sessionFactory.getEntityPersister(Fournisseur.class.getName())).thenReturn(persister);
+        entryFactory = new CacheEntryFactory();
+        entryFactory.bind(sessionFactory);
+        serializationService = newSerializationService(null);
+    }
+
+    @Test
+    void hibernateCacheEntryRoundTrip() throws Exception {
+        Serializable[] state = { "AAAAAAAAAA", null, Instant.ofEpochSecond(1600000000L) };
+        StandardCacheEntryImpl entry = entryFactory.create(Fournisseur.class.getName(), 3L, state);
+
+        StandardCacheEntryImpl copy = serializationService.toObject(serializationService.toData(entry));
+
+        assertThat(copy.getSubclass()).isEqualTo(Fournisseur.class.getName());
+        assertThat(copy.getVersion()).isEqualTo(3L);
+        assertThat(copy.getDisassembledState()).containsExactly(state);
+    }
+
+    @Test
+    void hibernateCacheEntryIsSmallerThanWithJavaSerialization() throws Exception {
+        Serializable[] state = { "AAAAAAAAAA", "BBBBBBBBBB", Instant.ofEpochSecond(1600000000L) };
+        StandardCacheEntryImpl entry = entryFactory.create(Fournisseur.class.getName(), null, state);
+
+        Data data = serializationService.toData(entry);
+
+        assertThat(data.dataSize()).isLessThan(javaSerializedSize(entry));
+    }
+
+    @Test
+    void hibernateCacheEntryNeedsTheSessionFactory() throws Exception {
+        Serializable[] state = { "AAAAAAAAAA", null, null };
+        Data data = serializationService.toData(entryFactory.create(Fournisseur.class.getName(), null, state));
+
+        InternalSerializationService unbound = new DefaultSerializationServiceBuilder()
+            .setConfig(configure(new CacheEntryFactory(), null))
+            .build();
+
+        assertThatThrownBy(() -> unbound.toObject(data))
+            .isInstanceOf(HazelcastSerializationException.class)
+            .hasRootCauseInstanceOf(IOException.class);
+    }
+
+    @Test
+    void hibernateCacheEntryWithDictionaryRoundTrip() throws Exception {
+        StringDictionary dictionary = newDictionary(new ConcurrentHashMap<>());
+        InternalSerializationService encodingService = newSerializationService(dictionary);
+        Serializable[] state = { "Route de Rufisque, Thiaroye sur Mer, DAKAR", "AAAAAAAAAA", Instant.ofEpochSecond(1600000000L) };
+        StandardCacheEntryImpl entry = entryFactory.create(Fournisseur.class.getName(), null, state);
+
+        Data data = encodingService.toData(entry);
+        StandardCacheEntryImpl copy = encodingService.toObject(data);
+
+        assertThat(copy.getDisassembledState()).containsExactly(state);
+        assertThat(data.dataSize()).isLessThan(serializationService.toData(entry).dataSize());
+    }
+
+    @Test
+    void hibernateCacheEntryWithALostCodeIsAMiss() throws Exception {
+        ConcurrentHashMap<Integer, String> values = new ConcurrentHashMap<>();
+        InternalSerializationService encodingService = newSerializationService(newDictionary(values));
+        Serializable[] state = { "Route de Rufisque, Thiaroye sur Mer, DAKAR", null, Instant.ofEpochSecond(1600000000L) };
+        Data data = encodingService.toData(entryFactory.create(Fournisseur.class.getName(), null, state));
+        values.clear();
+
+        InternalSerializationService restartedService = newSerializationService(newDictionary(values));
+
+        assertThat((Object) restartedService.toObject(data)).isNull();
+    }
+
+    private static StringDictionary newDictionary(ConcurrentHashMap<Integer, String> values) {
+        ApplicationProperties.Cache.Dictionary properties = new ApplicationProperties.Cache.Dictionary();
+        properties.setMinOccurrences(1);
+        StringDictionary dictionary = new StringDictionary(properties);
+        AtomicLong sequence = new AtomicLong();
+        dictionary.bind(new ConcurrentHashMap<>(), values, sequence::incrementAndGet);
+        dictionary.setEncodedProperties(Fournisseur.class.getName(), Arrays.asList(PROPERTY_NAMES), Collections.singletonList("sigle"));
+        dictionary.setFragmentedProperties(Fournisseur.class.getName(), Arrays.asList(PROPERTY_NAMES), Collections.singletonList("adresse"));
+        return dictionary;
+    }
+
+    private InternalSerializationService newSerializationService(StringDictionary dictionary) {
+        return new DefaultSerializationServiceBuilder().setConfig(configure(entryFactory, dictionary)).build();
+    }
+
+    private static SerializationConfig configure(CacheEntryFactory entryFactory, StringDictionary dictionary) {
+        SerializationConfig serializationConfig = new SerializationConfig();
+        CacheSerializers.configure(serializationConfig, entryFactory, dictionary);
+        return serializationConfig;
+    }
+
+    private static int javaSerializedSize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.size();
+    }
+}
@@ -0,0 +1,130 @@
+package sn.ssi.sigmap.config.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.domain.enumeration.enumLocalisation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringDictionaryTest {
+
+    private final ConcurrentMap<String, Integer> codes = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Integer, String> values = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ApplicationProperties.Cache.Dictionary properties;
+
+    private StringDictionary dictionary;
+
+    @BeforeEach
+    void setup() {
+        properties = new ApplicationProperties.Cache.Dictionary();
+        properties.setMaxEntries(3);
+        properties.setMaxLength(20);
+        properties.setMinOccurrences(1);
+        dictionary = newDictionary();
+    }
+
+    @Test
+    void valuesAreEncodedOnceAcrossMembers() throws Exception {
+        int code = dictionary.encodeValue("DAKAR");
+        StringDictionary otherMember = newDictionary();
+
+        assertThat(dictionary.encodeValue(new String("DAKAR"))).isEqualTo(code);
+        assertThat(otherMember.encodeValue("DAKAR")).isEqualTo(code);
+        assertThat(otherMember.decodeValue(code)).isEqualTo("DAKAR");
+        assertThat(codes).hasSize(1);
+    }
+
+    @Test
+    void decodedValuesAreShared() throws Exception {
+        int code = dictionary.encodeValue("DAKAR");
+        StringDictionary otherMember = newDictionary();
+
+        assertThat(otherMember.decodeValue(code)).isSameAs(otherMember.decodeValue(code));
+    }
+
+    @Test
+    void enumeratedValuesRoundTrip() throws Exception {
+        int code = dictionary.encodeValue(enumLocalisation.values()[0]);
+
+        assertThat(newDictionary().decodeValue(code)).isSameAs(enumLocalisation.values()[0]);
+    }
+
+    @Test
+    void otherValuesAreNotEncoded() {
+        assertThat(dictionary.encodeValue(null)).isEqualTo(StringDictionary.NO_CODE);
+        assertThat(dictionary.encodeValue(42L)).isEqualTo(StringDictionary.NO_CODE);
+        assertThat(dictionary.encodeValue("AAAAAAAAAAAAAAAAAAAAA")).isEqualTo(StringDictionary.NO_CODE);
+        assertThat(new StringDictionary(properties).encodeValue("DAKAR")).isEqualTo(StringDictionary.NO_CODE);
+    }
+
+    @Test
+    void newValuesAreNotEncodedOnceFull() {
+        dictionary.encodeValue("A");
+        dictionary.encodeValue("B");
+        int code = dictionary.encodeValue("C");
+
+        assertThat(dictionary.encodeValue("D")).isEqualTo(StringDictionary.NO_CODE);
+        assertThat(dictionary.encodeValue("C")).isEqualTo(code);
+    }
+
+    @Test
+    void stringsAreEncodedOnceRepeated() {
+        properties.setMinOccurrences(2);
+
+        assertThat(dictionary.encodeValue("DAKAR")).isEqualTo(StringDictionary.NO_CODE);
+        assertThat(dictionary.encodeValue("THIES")).isEqualTo(StringDictionary.NO_CODE);
+        assertThat(dictionary.encodeValue("DAKAR")).isNotEqualTo(StringDictionary.NO_CODE);
+        assertThat(dictionary.encodeValue(enumLocalisation.values()[0])).isNotEqualTo(StringDictionary.NO_CODE);
+        assertThat(codes).hasSize(2);
+    }
+
+    @Test
+    void lostCodeIsNotDecoded() {
+        int code = dictionary.encodeValue("DAKAR");
+        values.clear();
+
+        assertThat(newDictionary().decodeValue(code)).isNull();
+        assertThat(dictionary.decodeValue(12)).isNull();
+    }
+
+    @Test
+    void fragmentsAreJoinedAsTheyWere() {
+        String adresse = "Route de Rufisque, Thiaroye sur Mer,, DAKAR ";
+
+        assertThat(dictionary.splitFragments(adresse)).containsExactly("Route de Rufisque", " Thiaroye sur Mer", "", " DAKAR ");
+        assertThat(dictionary.joinFragments(dictionary.splitFragments(adresse))).isEqualTo(adresse);
+    }
+
+    @Test
+    void encodedPropertiesAreTheConfiguredAttributes() {
+        dictionary.setEncodedProperties("Fournisseur", Arrays.asList("raisonSociale", "adresse", "sigle"), Arrays.asList("sigle", "missing"));
+
+        assertThat(dictionary.getEncodedProperties("Fournisseur")).isEqualTo(0b100L);
+        assertThat(dictionary.getEncodedProperties("Pays")).isZero();
+
+        dictionary.setFragmentedProperties("Fournisseur", Arrays.asList("raisonSociale", "adresse", "sigle"), Arrays.asList("adresse", "sigle"));
+        assertThat(dictionary.getFragmentedProperties("Fournisseur")).isEqualTo(0b110L);
+        assertThat(dictionary.getEncodedProperties("Fournisseur")).isZero();
+
+        StringDictionary unbound = new StringDictionary(properties);
+        unbound.setEncodedProperties("Fournisseur", Collections.singletonList("sigle"), Collections.singletonList("sigle"));
+        assertThat(unbound.getEncodedProperties("Fournisseur")).isZero();
+    }
+
+    private StringDictionary newDictionary() {
+        StringDictionary member = new StringDictionary(properties);
+        member.bind(codes, values, sequence::incrementAndGet);
+        return member;
+    }
+}
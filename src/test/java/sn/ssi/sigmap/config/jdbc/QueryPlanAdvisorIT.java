@@ -0,0 +1,84 @@
+package sn.ssi.sigmap.config.jdbc;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Flags the statements of the referential resources which filter their rows without an index.
+ * <p>
+ * Every statement is captured, then explained with its parameters replaced by {@code 1}. A plan reading a whole
+ * table while the statement has a {@code WHERE} clause ({@code tableScan} for H2, {@code Seq Scan} for PostgreSQL
+ * with the testcontainers profile) usually means that a Liquibase index is missing.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = {
+  "application.slow-queries.threshold-ms=0",
+  "application.slow-queries.capacity=2000"
+})
+class QueryPlanAdvisorIT {
+
+  @Autowired
+  private SlowQueryLog slowQueryLog;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MockMvc restMockMvc;
+
+  @Test
+  void filteredQueriesOfTheResourcesUseAnIndex() throws Exception {
+    slowQueryLog.clear();
+    for (Referentiel referentiel : Referentiel.values()) {
+      restMockMvc.perform(get("/api/{resourceName}?sort=id,desc", referentiel.getResourceName()));
+      restMockMvc.perform(get("/api/{resourceName}/{id}", referentiel.getResourceName(), Long.MAX_VALUE));
+      restMockMvc.perform(post("/api/{resourceName}/_mget", referentiel.getResourceName())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[1, 2, 3]"));
+    }
+
+    Set<String> filteredQueries = new LinkedHashSet<>();
+    for (SlowQuery slowQuery : slowQueryLog.getSlowQueries()) {
+      String sql = slowQuery.getSql();
+      if (sql.toLowerCase(Locale.ROOT).startsWith("select") && sql.toLowerCase(Locale.ROOT).contains(" where ")) {
+        filteredQueries.add(sql);
+      }
+    }
+    assertThat(filteredQueries).isNotEmpty();
+
+    List<String> sequentialScans = new ArrayList<>();
+    for (String sql : filteredQueries) {
+      String plan = String.join("\n", jdbcTemplate.queryForList("explain " + executable(sql), String.class));
+      if (plan.contains("tableScan") || plan.contains("Seq Scan")) {
+        sequentialScans.add(sql + "\n    " + plan);
+      }
+    }
+    assertThat(sequentialScans).as("Queries filtering their rows without an index").isEmpty();
+  }
+
+  private static String executable(String normalizedSql) {
+    return normalizedSql.replace("in (...)", "in (1)").replace("?", "1");
+  }
+}
@@ -0,0 +1,42 @@
+package sn.ssi.sigmap.config.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTest {
+
+    @Test
+    void statementsFasterThanTheThresholdAreIgnored() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(100, 10);
+
+        slowQueryLog.record("select 1", TimeUnit.MILLISECONDS.toNanos(99), 1);
+        slowQueryLog.record("select 2", TimeUnit.MILLISECONDS.toNanos(100), 1);
+
+        assertThat(slowQueryLog.getSlowQueries()).extracting(SlowQuery::getSql).containsExactly("select ?");
+        assertThat(slowQueryLog.getSlowQueries().get(0).getElapsedMs()).isEqualTo(100);
+    }
+
+    @Test
+    void oldestStatementsAreOverwritten() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(0, 3);
+
+        for (int i = 1; i <= 5; i++) {
+            slowQueryLog.record("select * from pays", 0, i);
+        }
+
+        assertThat(slowQueryLog.getSlowQueries()).extracting(SlowQuery::getRows).containsExactly(5L, 4L, 3L);
+        slowQueryLog.clear();
+        assertThat(slowQueryLog.getSlowQueries()).isEmpty();
+    }
+
+    @Test
+    void literalsAndInListsAreNormalized() {
+        assertThat(SlowQueryLog.normalize("select p.id from pays p\n  where p.libelle = 'l''x' and p.id in (?, ?, ?) limit 20"))
+            .isEqualTo("select p.id from pays p where p.libelle = ? and p.id in (...) limit ?");
+        assertThat(SlowQueryLog.normalize("select pays0_.id as id1_15_0_ from pays pays0_ where pays0_.id=?"))
+            .isEqualTo("select pays0_.id as id1_15_0_ from pays pays0_ where pays0_.id=?");
+    }
+}
@@ -0,0 +1,72 @@
+package sn.ssi.sigmap.config.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void aimdGrowsWhileUsedAndBacksOffOnDrops() {
+        AimdLimit limit = new AimdLimit(10, 2, 12, TimeUnit.SECONDS.toNanos(1));
+
+        limit.onSample(FAST, 1, false);
+        assertThat(limit.getLimit()).isEqualTo(10);
+        limit.onSample(FAST, 5, false);
+        limit.onSample(FAST, 6, false);
+        limit.onSample(FAST, 6, false);
+        assertThat(limit.getLimit()).isEqualTo(12);
+
+        limit.onSample(FAST, 12, true);
+        assertThat(limit.getLimit()).isEqualTo(10);
+        limit.onSample(TimeUnit.SECONDS.toNanos(2), 10, false);
+        assertThat(limit.getLimit()).isEqualTo(9);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, 1, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void gradientShrinksWhenTheLatencyGrows() {
+        GradientLimit limit = new GradientLimit(100, 10, 500);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, 100, false);
+        }
+        int steadyLimit = limit.getLimit();
+        assertThat(steadyLimit).isGreaterThan(100);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(SLOW, limit.getLimit(), false);
+        }
+
+        assertThat(limit.getLimit()).isLessThan(steadyLimit / 2).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    void gradientIgnoresAnUnusedLimit() {
+        GradientLimit limit = new GradientLimit(100, 10, 500);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(i % 2 == 0 ? FAST : SLOW, 10, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void smallGradientLimitCanGrow() {
+        GradientLimit limit = new GradientLimit(2, 1, 10);
+
+        limit.onSample(FAST, 2, false);
+        limit.onSample(FAST, 3, false);
+
+        assertThat(limit.getLimit()).isGreaterThan(2);
+    }
+}
@@ -0,0 +1,111 @@
+package sn.ssi.sigmap.config.limit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimiter reads;
+
+    private ConcurrencyLimiter writes;
+
+    private ConcurrencyLimiter exports;
+
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        reads = new ConcurrencyLimiter("reads", new AimdLimit(1, 1, 1, TimeUnit.SECONDS.toNanos(1)));
+        writes = new ConcurrencyLimiter("writes", new AimdLimit(1, 1, 1, TimeUnit.SECONDS.toNanos(1)));
+        exports = new ConcurrencyLimiter("exports", new AimdLimit(1, 1, 1, TimeUnit.SECONDS.toNanos(1)));
+        filter = new ConcurrencyLimitFilter(reads, writes, exports, Collections.singletonList("/api/referentiels/_bundle"),
+            Collections.singletonList("/api/referentiels/_events"), 2);
+    }
+
+    @Test
+    void requestsAboveTheLimitAreShed() throws Exception {
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/pays"), outer,
+            new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response)
+                    throws ServletException, IOException {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/banques"), inner, new MockFilterChain());
+                }
+            }));
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(inner.getStatus()).isEqualTo(503);
+        assertThat(inner.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(reads.getInflight()).isZero();
+    }
+
+    @Test
+    void readsWritesAndExportsHaveTheirOwnLimit() throws Exception {
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        MockHttpServletResponse export = new MockHttpServletResponse();
+        MockHttpServletResponse secondExport = new MockHttpServletResponse();
+        MockHttpServletResponse stream = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/pays"), new MockHttpServletResponse(),
+            new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response)
+                    throws ServletException, IOException {
+                    filter.doFilter(new MockHttpServletRequest("POST", "/api/pays"), write, new MockFilterChain());
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/referentiels/_events"), stream, new MockFilterChain());
+                }
+            }));
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/pays"), new MockHttpServletResponse(),
+            new MockFilterChain(new HttpServlet() {
+                @Override
+                protected void service(HttpServletRequest request, HttpServletResponse response)
+                    throws ServletException, IOException {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/api/referentiels/_bundle"), export, new MockFilterChain(new HttpServlet() {
+                        @Override
+                        protected void service(HttpServletRequest request, HttpServletResponse response)
+                            throws ServletException, IOException {
+                            filter.doFilter(new MockHttpServletRequest("GET", "/api/referentiels/_bundle"), secondExport, new MockFilterChain());
+                        }
+                    }));
+                }
+            }));
+
+        assertThat(write.getStatus()).isEqualTo(200);
+        assertThat(stream.getStatus()).isEqualTo(200);
+        assertThat(export.getStatus()).isEqualTo(200);
+        assertThat(secondExport.getStatus()).isEqualTo(503);
+        assertThat(exports.getInflight()).isZero();
+    }
+
+    @Test
+    void permitIsReleasedOnFailure() {
+        MockFilterChain failingChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                throw new IllegalStateException("Connection is not available");
+            }
+        });
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/api/pays"), new MockHttpServletResponse(), failingChain))
+            .isInstanceOf(IllegalStateException.class);
+
+        assertThat(reads.getInflight()).isZero();
+    }
+}
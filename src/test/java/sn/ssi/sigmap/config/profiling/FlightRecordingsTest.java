@@ -0,0 +1,97 @@
+package sn.ssi.sigmap.config.profiling;
+
+import jdk.jfr.RecordingState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecordingsTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecordings flightRecordings;
+
+    @BeforeEach
+    void setup() {
+        ApplicationProperties.Profiling properties = new ApplicationProperties.Profiling();
+        properties.setDirectory(directory.toString());
+        properties.setMaxDurationSeconds(60);
+        properties.setRetained(1);
+        flightRecordings = new FlightRecordings(properties);
+    }
+
+    @AfterEach
+    void closeAll() {
+        flightRecordings.closeAll();
+    }
+
+    @Test
+    void recordingIsSummarizedOnceStopped() throws Exception {
+        ProfilingRecording recording = flightRecordings.start("profile", 30L);
+        assertThat(recording.getState()).isEqualTo(RecordingState.RUNNING);
+        assertThat(recording.isWritten()).isFalse();
+
+        List<long[]> allocated = allocate();
+        flightRecordings.stop(recording.getId());
+
+        assertThat(allocated).isNotEmpty();
+        assertThat(recording.isWritten()).isTrue();
+        assertThat(recording.getSize()).isPositive();
+        RecordingSummary summary = flightRecordings.getSummary(recording);
+        assertThat(summary.getAllocationSites())
+            .anySatisfy(site -> assertThat(site.getFrame()).isEqualTo(FlightRecordingsTest.class.getName() + ".allocate"));
+        assertThat(summary.getAllocationSites()).hasSizeLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void recordingsAreBounded() throws Exception {
+        assertThatThrownBy(() -> flightRecordings.start("continuous", null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> flightRecordings.start("default", 61L)).isInstanceOf(IllegalArgumentException.class);
+
+        ProfilingRecording first = flightRecordings.start("default", 30L);
+        assertThatThrownBy(() -> flightRecordings.start("default", 30L)).isInstanceOf(IllegalStateException.class);
+        flightRecordings.stop(first.getId());
+        ProfilingRecording second = flightRecordings.start("default", 30L);
+        flightRecordings.stop(second.getId());
+        flightRecordings.start("default", 30L);
+
+        assertThat(flightRecordings.find(first.getId())).isEmpty();
+        assertThat(Files.exists(first.getFile())).isFalse();
+        assertThat(flightRecordings.find(second.getId())).isPresent();
+    }
+
+    @Test
+    void deletedRecordingHasNoFile() throws Exception {
+        ProfilingRecording recording = flightRecordings.start("default", 30L);
+        flightRecordings.stop(recording.getId());
+
+        assertThat(flightRecordings.delete(recording.getId())).isTrue();
+
+        assertThat(Files.exists(recording.getFile())).isFalse();
+        assertThat(flightRecordings.delete(recording.getId())).isFalse();
+        assertThat(flightRecordings.getRecordings()).isEmpty();
+    }
+
+    private static List<long[]> allocate() {
+        List<long[]> allocated = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            long[] array = new long[1024];
+            array[0] = i;
+            if (i % 100 == 0) {
+                allocated.add(array);
+            }
+        }
+        return allocated;
+    }
+}
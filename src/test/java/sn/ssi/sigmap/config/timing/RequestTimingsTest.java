@@ -0,0 +1,49 @@
+package sn.ssi.sigmap.config.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void unbind() {
+        RequestTimings.unbind();
+    }
+
+    @Test
+    void nothingIsTimedWithoutRequest() {
+        long start = RequestTimings.start();
+
+        RequestTimings.stop(TimingMetric.DB, start);
+
+        assertThat(start).isZero();
+        assertThat(RequestTimings.current()).isNull();
+    }
+
+    @Test
+    void timedPartsAreAccumulated() {
+        RequestTimings timings = RequestTimings.bind();
+
+        RequestTimings.stop(TimingMetric.DB, RequestTimings.start());
+        RequestTimings.stop(TimingMetric.DB, RequestTimings.start());
+
+        assertThat(RequestTimings.current()).isSameAs(timings);
+        assertThat(timings.getCount(TimingMetric.DB)).isEqualTo(2);
+        assertThat(timings.getCount(TimingMetric.CACHE)).isZero();
+    }
+
+    @Test
+    void headerValueListsTheTimedPartsAndTheTotal() {
+        RequestTimings timings = RequestTimings.bind();
+        timings.add(TimingMetric.DB, TimeUnit.MICROSECONDS.toNanos(1500));
+        timings.add(TimingMetric.DB, TimeUnit.MICROSECONDS.toNanos(250));
+        timings.add(TimingMetric.SERIALIZATION, TimeUnit.MICROSECONDS.toNanos(42));
+
+        assertThat(timings.toHeaderValue())
+            .startsWith("db;dur=1.750;desc=\"SQL statements (2)\", ser;dur=0.042;desc=\"JSON serialization (1)\", total;dur=");
+    }
+}
@@ -0,0 +1,75 @@
+package sn.ssi.sigmap.config.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the {@link ServerTimingFilter}.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = {
+  "application.server-timing.enabled=true",
+  "application.server-timing.header=true"
+})
+class ServerTimingIT {
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private MockMvc restMockMvc;
+
+  @Test
+  void listingHasTheBreakdownOfItsTime() throws Exception {
+    Pays first = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AA"));
+    Pays second = paysRepository.saveAndFlush(new Pays().libelle("BBBBBBBBBB").codepays("BB"));
+    try {
+      // A full page needs a count
+      MvcResult result = restMockMvc.perform(get("/api/pays?page=0&size=1&sort=id,desc"))
+        .andExpect(status().isOk())
+        .andReturn();
+
+      String serverTiming = result.getResponse().getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+      assertThat(serverTiming).contains("db;dur=", "count;dur=", "ser;dur=", "auth;dur=");
+      assertThat(serverTiming).containsPattern("total;dur=\\d+\\.\\d{3}$");
+      assertThat(meterRegistry.find(ServerTimingFilter.BREAKDOWN_METER).tag("uri", "/api/pays").tag("metric", "db").timer())
+        .isNotNull();
+    } finally {
+      paysRepository.delete(first);
+      paysRepository.delete(second);
+    }
+  }
+
+  @Test
+  void responseWithoutBodyHasTheHeader() throws Exception {
+    restMockMvc.perform(get("/api/pays/{id}", Long.MAX_VALUE))
+      .andExpect(status().isNotFound())
+      .andExpect(header().exists(ServerTimingFilter.SERVER_TIMING_HEADER));
+  }
+
+  @Test
+  void managementRequestsAreNotTimed() throws Exception {
+    restMockMvc.perform(get("/management/info"))
+      .andExpect(header().doesNotExist(ServerTimingFilter.SERVER_TIMING_HEADER));
+  }
+}
@@ -0,0 +1,68 @@
+package sn.ssi.sigmap.repository.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.domain.Fournisseur;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangedEvent;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TotalCountsTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private TotalCounts totalCounts;
+
+    private AtomicLong counts;
+
+    private LongSupplier exactCount;
+
+    @BeforeEach
+    void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getPagination().getCountStrategies().put("Pays", CountStrategy.CACHED);
+        totalCounts = new TotalCounts(applicationProperties);
+        counts = new AtomicLong();
+        exactCount = () -> 40 + counts.incrementAndGet();
+    }
+
+    @Test
+    void exactIsTheDefaultStrategy() {
+        assertThat(totalCounts.getCountStrategy(Fournisseur.class)).isEqualTo(CountStrategy.EXACT);
+
+        totalCounts.count(Fournisseur.class, mock(EntityManager.class), exactCount);
+        TotalCounts.Total total = totalCounts.count(Fournisseur.class, mock(EntityManager.class), exactCount);
+
+        assertThat(total.getCount()).isEqualTo(42);
+        assertThat(total.isEstimated()).isFalse();
+    }
+
+    @Test
+    void cachedCountIsKeptUntilTheEntitiesChange() {
+        assertThat(totalCounts.count(Pays.class, mock(EntityManager.class), exactCount).getCount()).isEqualTo(41);
+        assertThat(totalCounts.count(Pays.class, mock(EntityManager.class), exactCount).getCount()).isEqualTo(41);
+
+        totalCounts.onReferentielChanged(new ReferentielChangedEvent(this, Referentiel.fromEntityClass(Pays.class).get(), 1L));
+
+        assertThat(totalCounts.count(Pays.class, mock(EntityManager.class), exactCount).getCount()).isEqualTo(42);
+        assertThat(counts.get()).isEqualTo(2);
+    }
+
+    @Test
+    void cachedCountExpires() {
+        applicationProperties.getPagination().setCachedCountMaxAgeSeconds(0);
+
+        totalCounts.count(Pays.class, mock(EntityManager.class), exactCount);
+        totalCounts.count(Pays.class, mock(EntityManager.class), exactCount);
+
+        assertThat(counts.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,117 @@
+package sn.ssi.sigmap.service.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.domain.Pays;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class CacheLoadCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private ApplicationProperties applicationProperties;
+
+    private HazelcastInstance hazelcastInstance;
+
+    private Cache cache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CacheLoadCoalescer coalescer;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        applicationProperties = new ApplicationProperties();
+        hazelcastInstance = mock(HazelcastInstance.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new CacheLoadCoalescer(hazelcastInstance, entityManagerFactory, applicationProperties, meterRegistry);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentLoadsOfTheSameKeyShareOneLoad() throws Throwable {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                try {
+                    return coalescer.load("pays-1", () -> {
+                        loads.incrementAndGet();
+                        release.await();
+                        return "France";
+                    });
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        // Let all the callers reach the running load before it ends
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("cache.load.coalesced").count() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("France");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(coalescer.load("pays-1", () -> "Sénégal")).isEqualTo("Sénégal");
+    }
+
+    @Test
+    void failedLoadIsNotKept() throws Throwable {
+        assertThatThrownBy(() -> coalescer.load("pays-1", () -> {
+            throw new IllegalArgumentException("boom");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(coalescer.load("pays-1", () -> "France")).isEqualTo("France");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clusterLockIsOnlyTakenForAMissingEntity() throws Throwable {
+        applicationProperties.getCache().getLoadCoalescing().setClusterWide(true);
+        IMap<Object, Object> locks = mock(IMap.class);
+        when(hazelcastInstance.getMap(CacheLoadCoalescer.LOCK_MAP_NAME)).thenReturn(locks);
+        when(locks.tryLock(anyString(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(cache.contains(Pays.class, 1L)).thenReturn(true);
+
+        coalescer.loadEntity(Pays.class, 1L, () -> "France");
+        coalescer.loadEntity(Pays.class, 2L, () -> "Sénégal");
+
+        verify(locks).tryLock(eq("Pays:2"), anyLong(), any(TimeUnit.class));
+        verify(locks).unlock("Pays:2");
+        verifyNoMoreInteractions(locks);
+    }
+}
@@ -0,0 +1,55 @@
+package sn.ssi.sigmap.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheWarmUpHealthIndicatorTest {
+
+    private CacheWarmUpService cacheWarmUpService;
+
+    private CacheWarmUpHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setup() {
+        cacheWarmUpService = mock(CacheWarmUpService.class);
+        healthIndicator = new CacheWarmUpHealthIndicator(cacheWarmUpService);
+    }
+
+    @Test
+    void isOutOfServiceWhileRunning() {
+        when(cacheWarmUpService.isCompleted()).thenReturn(false);
+        when(cacheWarmUpService.getStatus()).thenReturn(CacheWarmUpService.Status.RUNNING);
+
+        Health health = healthIndicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsEntry("status", CacheWarmUpService.Status.RUNNING);
+    }
+
+    @Test
+    void isUpWhenCompleted() {
+        when(cacheWarmUpService.isCompleted()).thenReturn(true);
+        when(cacheWarmUpService.getStatus()).thenReturn(CacheWarmUpService.Status.COMPLETED);
+
+        assertThat(healthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void isDownWhenRegionsFailed() {
+        when(cacheWarmUpService.isCompleted()).thenReturn(false);
+        when(cacheWarmUpService.isFailed()).thenReturn(true);
+        when(cacheWarmUpService.getFailedRegions()).thenReturn(2);
+        when(cacheWarmUpService.getStatus()).thenReturn(CacheWarmUpService.Status.FAILED);
+
+        Health health = healthIndicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(health.getDetails()).containsEntry("failedRegions", 2).containsEntry("status", CacheWarmUpService.Status.FAILED);
+    }
+}
@@ -0,0 +1,57 @@
+package sn.ssi.sigmap.service.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.domain.TypesMarches;
+
+import javax.persistence.metamodel.EntityType;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DatabaseInvalidationListenerTest {
+
+    private CacheRegions cacheRegions;
+
+    private CacheInvalidationService cacheInvalidationService;
+
+    private DatabaseInvalidationListener listener;
+
+    @BeforeEach
+    void setup() {
+        cacheRegions = mock(CacheRegions.class);
+        cacheInvalidationService = mock(CacheInvalidationService.class);
+        EntityType<?> entityType = mock(EntityType.class);
+        doReturn(TypesMarches.class).when(entityType).getJavaType();
+        when(cacheRegions.findCachedEntityTypeByTable(anyString())).thenReturn(Optional.empty());
+        when(cacheRegions.findCachedEntityTypeByTable("types_marches")).thenReturn(Optional.<EntityType<?>>of(entityType));
+        listener = new DatabaseInvalidationListener(new DataSourceProperties(), cacheRegions, cacheInvalidationService,
+            new ApplicationProperties());
+    }
+
+    @Test
+    void invalidatesEntity() {
+        listener.onNotification("types_marches:42");
+
+        verify(cacheInvalidationService).invalidateLocally(TypesMarches.class, 42L);
+    }
+
+    @Test
+    void invalidatesWholeRegionOnTruncate() {
+        listener.onNotification("types_marches");
+
+        verify(cacheInvalidationService).invalidateLocally(TypesMarches.class, null);
+    }
+
+    @Test
+    void ignoresUnknownTablesAndInvalidIds() {
+        listener.onNotification("databasechangelog:1");
+        listener.onNotification("types_marches:abc");
+
+        verify(cacheInvalidationService, never()).invalidateLocally(any(), any());
+    }
+}
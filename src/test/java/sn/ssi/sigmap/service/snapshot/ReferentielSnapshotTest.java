@@ -0,0 +1,85 @@
+package sn.ssi.sigmap.service.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link SnapshotWriter} and {@link ReferentielSnapshot}.
+ */
+class ReferentielSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotFindsTheEntitiesByIdAndCode() throws IOException {
+        SnapshotWriter writer = new SnapshotWriter(7L, 42L, 1000L);
+        writer.addSection(Referentiel.PAYS, Arrays.asList(
+            row(1L, 0L, "SN", "{\"id\":1,\"codepays\":\"SN\"}"),
+            row(2L, 3L, "ML", "{\"id\":2,\"codepays\":\"ML\"}"),
+            row(5L, null, null, "{\"id\":5}"),
+            row(7L, 1L, "CI", "{\"id\":7,\"codepays\":\"CI\",\"libelle\":\"Côte d'Ivoire\"}")
+        ));
+        writer.addSection(Referentiel.BANQUE, Collections.emptyList());
+        Path file = directory.resolve("snapshot.snap");
+        writer.write(file);
+
+        ReferentielSnapshot snapshot = ReferentielSnapshot.open(file);
+
+        assertThat(snapshot.getEpoch()).isEqualTo(7L);
+        assertThat(snapshot.getSequence()).isEqualTo(42L);
+        assertThat(snapshot.getCreatedAt()).isEqualTo(1000L);
+        assertThat(snapshot.getReferentiels()).containsExactlyInAnyOrder(Referentiel.PAYS, Referentiel.BANQUE);
+        assertThat(snapshot.getSize(Referentiel.PAYS)).isEqualTo(4);
+        assertThat(snapshot.getSize(Referentiel.DELAIS)).isEqualTo(-1);
+        assertThat(snapshot.findById(Referentiel.PAYS, 2L)).map(ReferentielSnapshotTest::text).contains("{\"id\":2,\"codepays\":\"ML\"}");
+        assertThat(snapshot.findById(Referentiel.PAYS, 7L)).map(ReferentielSnapshotTest::text).hasValueSatisfying(json -> assertThat(json).contains("Côte d'Ivoire"));
+        assertThat(snapshot.findById(Referentiel.PAYS, 3L)).isEmpty();
+        assertThat(snapshot.findById(Referentiel.BANQUE, 1L)).isEmpty();
+        assertThat(snapshot.findByCode(Referentiel.PAYS, "CI")).map(ReferentielSnapshotTest::text).hasValueSatisfying(json -> assertThat(json).startsWith("{\"id\":7"));
+        assertThat(snapshot.findByCode(Referentiel.PAYS, "SN")).map(ReferentielSnapshotTest::text).hasValueSatisfying(json -> assertThat(json).startsWith("{\"id\":1"));
+        assertThat(snapshot.findByCode(Referentiel.PAYS, "FR")).isEmpty();
+        assertThat(snapshot.findVersion(Referentiel.PAYS, 2L)).contains(3L);
+        assertThat(snapshot.findVersion(Referentiel.PAYS, 5L)).isEmpty();
+        assertThat(snapshot.findItems(Referentiel.PAYS)).hasValueSatisfying(items -> assertThat(items)
+            .startsWith("[{\"id\":1,")
+            .contains("},{\"id\":2,")
+            .endsWith("}]"));
+        assertThat(snapshot.findItems(Referentiel.BANQUE)).contains("[]");
+    }
+
+    @Test
+    void writerRejectsUnorderedRows() {
+        SnapshotWriter writer = new SnapshotWriter(0L, 0L, 0L);
+
+        assertThatThrownBy(() -> writer.addSection(Referentiel.PAYS, Arrays.asList(row(2L, 0L, null, "{}"), row(1L, 0L, null, "{}"))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void openRejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("other.snap");
+        Files.write(file, "not a snapshot, but long enough for a header".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> ReferentielSnapshot.open(file)).isInstanceOf(IOException.class);
+    }
+
+    private static SnapshotRow row(Long id, Long version, String code, String json) {
+        return new SnapshotRow(id, version, code, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(byte[] document) {
+        return new String(document, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the binary formats offered by the REST controllers.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class BinaryContentNegotiationIT {
+
+  private static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private MockMvc restMockMvc;
+
+  @Test
+  @Transactional
+  void getPaysAsSmile() throws Exception {
+    Pays pays = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+
+    byte[] content = restMockMvc.perform(get("/api/pays/{id}", pays.getId()).accept(APPLICATION_SMILE_VALUE))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType(APPLICATION_SMILE_VALUE))
+      .andReturn().getResponse().getContentAsByteArray();
+
+    JsonNode node = new ObjectMapper(new SmileFactory()).readTree(content);
+    assertThat(node.get("id").asLong()).isEqualTo(pays.getId());
+    assertThat(node.get("libelle").asText()).isEqualTo("AAAAAAAAAA");
+  }
+
+  @Test
+  @Transactional
+  void getPaysAsCbor() throws Exception {
+    Pays pays = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+
+    byte[] content = restMockMvc.perform(get("/api/pays/{id}", pays.getId()).accept(MediaType.APPLICATION_CBOR))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+      .andReturn().getResponse().getContentAsByteArray();
+
+    JsonNode node = new ObjectMapper(new CBORFactory()).readTree(content);
+    assertThat(node.get("libelle").asText()).isEqualTo("AAAAAAAAAA");
+  }
+
+  @Test
+  @Transactional
+  void getPaysAsJsonByDefault() throws Exception {
+    Pays pays = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+
+    restMockMvc.perform(get("/api/pays/{id}", pays.getId()))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+      .andExpect(jsonPath("$.libelle").value("AAAAAAAAAA"));
+  }
+}
@@ -0,0 +1,126 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.aop.cache.CacheLoadCoalescingAspect;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+import sn.ssi.sigmap.service.PaysService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.securityContext;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Integration tests for the {@link CacheLoadCoalescingAspect}.
+ * <p>
+ * The requests are sent outside of a test transaction, as the reads made in a transaction are not coalesced.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class CacheLoadCoalescingIT {
+
+  private static final int REQUESTS = 4;
+
+  @SpyBean
+  private PaysService paysService;
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private MockMvc restMockMvc;
+
+  private Pays pays;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void initTest() {
+    pays = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    statistics.setStatisticsEnabled(true);
+  }
+
+  @AfterEach
+  void cleanup() {
+    statistics.setStatisticsEnabled(false);
+    paysRepository.deleteById(pays.getId());
+  }
+
+  @Test
+  void concurrentReadsOfAnEntityShareOneLoad() throws Exception {
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      loading.countDown();
+      release.await(10, TimeUnit.SECONDS);
+      return invocation.callRealMethod();
+    }).when(paysService).findOne(pays.getId());
+    double coalescedBefore = meterRegistry.counter("cache.load.coalesced").count();
+    SecurityContext context = SecurityContextHolder.getContext();
+
+    ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+    try {
+      List<Future<MvcResult>> results = new ArrayList<>();
+      for (int i = 0; i < REQUESTS; i++) {
+        results.add(executor.submit(() -> restMockMvc.perform(get("/api/pays/{id}", pays.getId()).with(securityContext(context))).andReturn()));
+        if (i == 0) {
+          assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+      }
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (meterRegistry.counter("cache.load.coalesced").count() < coalescedBefore + REQUESTS - 1 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      release.countDown();
+
+      for (Future<MvcResult> result : results) {
+        MvcResult mvcResult = result.get(10, TimeUnit.SECONDS);
+        assertThat(mvcResult.getResponse().getStatus()).isEqualTo(200);
+        assertThat(mvcResult.getResponse().getContentAsString()).contains("AAAAAAAAAA");
+      }
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+
+    verify(paysService, times(1)).findOne(pays.getId());
+    assertThat(statistics.getEntityStatistics(Pays.class.getName()).getLoadCount()).isEqualTo(1);
+  }
+}
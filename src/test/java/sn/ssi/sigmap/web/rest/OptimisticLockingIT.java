@@ -0,0 +1,151 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.CategorieFournisseur;
+import sn.ssi.sigmap.domain.Fournisseur;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.FournisseurRepository;
+import sn.ssi.sigmap.repository.PaysRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link OptimisticLockingRequestBodyAdvice}.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class OptimisticLockingIT {
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private FournisseurRepository fournisseurRepository;
+
+  @Autowired
+  private EntityManager em;
+
+  @Autowired
+  private MockMvc restMockMvc;
+
+  private Pays pays;
+
+  @BeforeEach
+  void initTest() {
+    pays = new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA");
+  }
+
+  @Test
+  @Transactional
+  void putWithStaleVersionIsRejected() throws Exception {
+    paysRepository.saveAndFlush(pays);
+    Pays stale = new Pays().id(pays.getId()).libelle("BBBBBBBBBB").codepays("BBBBBBBBBB");
+    stale.setVersion(pays.getVersion());
+    paysRepository.saveAndFlush(pays.libelle("CCCCCCCCCC"));
+
+    restMockMvc.perform(put("/api/pays/{id}", pays.getId())
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(stale)))
+      .andExpect(status().isConflict());
+  }
+
+  @Test
+  @Transactional
+  void putWithoutVersionUsesTheCurrentVersion() throws Exception {
+    paysRepository.saveAndFlush(pays);
+    Long version = pays.getVersion();
+    em.detach(pays);
+
+    restMockMvc.perform(put("/api/pays/{id}", pays.getId())
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(pays.getId()).libelle("BBBBBBBBBB").codepays("BBBBBBBBBB"))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.libelle").value("BBBBBBBBBB"));
+
+    // The version is only incremented when the update is written
+    paysRepository.flush();
+    assertThat(paysRepository.findById(pays.getId()).get().getVersion()).isEqualTo(version + 1);
+  }
+
+  @Test
+  @Transactional
+  void postWithAssociationsSentByIdIsApplied() throws Exception {
+    Fournisseur fournisseur = FournisseurResourceIT.createEntity(em);
+    fournisseur.setPays(new Pays().id(fournisseur.getPays().getId()));
+    fournisseur.setCategorieFournisseur(new CategorieFournisseur().id(fournisseur.getCategorieFournisseur().getId()));
+    int databaseSizeBeforeCreate = fournisseurRepository.findAll().size();
+
+    restMockMvc.perform(post("/api/fournisseurs")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(fournisseur)))
+      .andExpect(status().isCreated());
+
+    fournisseurRepository.flush();
+    assertThat(fournisseurRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+  }
+
+  @Test
+  @Transactional
+  void putWithAssociationsSentByIdIsApplied() throws Exception {
+    Fournisseur fournisseur = fournisseurRepository.saveAndFlush(FournisseurResourceIT.createEntity(em));
+    em.detach(fournisseur);
+    fournisseur.raisonSociale("BBBBBBBBBB");
+    fournisseur.setPays(new Pays().id(fournisseur.getPays().getId()));
+    fournisseur.setCategorieFournisseur(new CategorieFournisseur().id(fournisseur.getCategorieFournisseur().getId()));
+
+    restMockMvc.perform(put("/api/fournisseurs")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(fournisseur)))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.raisonSociale").value("BBBBBBBBBB"));
+
+    fournisseurRepository.flush();
+    Fournisseur updated = fournisseurRepository.findById(fournisseur.getId()).get();
+    assertThat(updated.getRaisonSociale()).isEqualTo("BBBBBBBBBB");
+    assertThat(updated.getPays().getId()).isEqualTo(fournisseur.getPays().getId());
+  }
+
+  @Test
+  @Transactional
+  void patchWithStaleIfMatchIsRejected() throws Exception {
+    paysRepository.saveAndFlush(pays);
+
+    restMockMvc.perform(patch("/api/pays/{id}", pays.getId())
+      .contentType("application/merge-patch+json")
+      .header(HttpHeaders.IF_MATCH, "\"" + (pays.getVersion() + 1) + "\"")
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(pays.getId()).libelle("BBBBBBBBBB"))))
+      .andExpect(status().isConflict());
+  }
+
+  @Test
+  @Transactional
+  void patchWithCurrentVersionIsApplied() throws Exception {
+    paysRepository.saveAndFlush(pays);
+    Pays partialUpdatedPays = new Pays().id(pays.getId()).libelle("BBBBBBBBBB");
+    partialUpdatedPays.setVersion(pays.getVersion());
+
+    restMockMvc.perform(patch("/api/pays/{id}", pays.getId())
+      .contentType("application/merge-patch+json")
+      .content(TestUtil.convertObjectToJsonBytes(partialUpdatedPays)))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.libelle").value("BBBBBBBBBB"));
+  }
+}
@@ -0,0 +1,61 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+import sn.ssi.sigmap.web.rest.util.PaginationHeaderUtil;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the count strategies of the paginated listings.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = "application.pagination.count-strategies.Pays=CACHED")
+class PaginationCountIT {
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private MockMvc restMockMvc;
+
+  @Test
+  @Transactional
+  void cachedCountIsReportedAsExact() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+    }
+    long count = paysRepository.count();
+
+    restMockMvc.perform(get("/api/pays?size=2&sort=id,asc"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(2))
+      .andExpect(header().string("X-Total-Count", String.valueOf(count)))
+      .andExpect(header().string(PaginationHeaderUtil.X_TOTAL_COUNT_ESTIMATED, "false"));
+  }
+
+  @Test
+  @Transactional
+  void lastPageIsNotCounted() throws Exception {
+    paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+    long count = paysRepository.count();
+
+    restMockMvc.perform(get("/api/pays?size={size}", count + 10))
+      .andExpect(status().isOk())
+      .andExpect(header().string("X-Total-Count", String.valueOf(count)))
+      .andExpect(header().string(PaginationHeaderUtil.X_TOTAL_COUNT_ESTIMATED, "false"));
+  }
+}
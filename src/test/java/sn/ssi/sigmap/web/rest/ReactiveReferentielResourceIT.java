@@ -0,0 +1,110 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielBundleService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ReactiveReferentielResource} REST controller.
+ * <p>
+ * The entities are read on other threads, so the test data is committed and removed after each test.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class ReactiveReferentielResourceIT {
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private ReferentielBundleService referentielBundleService;
+
+  @Autowired
+  private MockMvc restReactiveReferentielMockMvc;
+
+  private Pays pays;
+
+  @BeforeEach
+  void initTest() {
+    pays = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+    referentielBundleService.evict(Referentiel.PAYS);
+  }
+
+  @AfterEach
+  void cleanUp() {
+    paysRepository.delete(pays);
+    referentielBundleService.evict(Referentiel.PAYS);
+  }
+
+  @Test
+  void getAllPays() throws Exception {
+    MvcResult mvcResult = restReactiveReferentielMockMvc.perform(get("/api/reactive/pays").accept(MediaType.APPLICATION_JSON))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    restReactiveReferentielMockMvc.perform(asyncDispatch(mvcResult))
+      .andExpect(status().isOk())
+      .andExpect(header().exists(HttpHeaders.ETAG))
+      .andExpect(jsonPath("$.[*].libelle").value(hasItem("AAAAAAAAAA")));
+  }
+
+  @Test
+  void streamAllPays() throws Exception {
+    MvcResult mvcResult = restReactiveReferentielMockMvc.perform(get("/api/reactive/pays").accept(MediaType.APPLICATION_STREAM_JSON))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    restReactiveReferentielMockMvc.perform(asyncDispatch(mvcResult))
+      .andExpect(status().isOk())
+      .andExpect(content().string(containsString("\"libelle\":\"AAAAAAAAAA\"")));
+  }
+
+  @Test
+  void getPays() throws Exception {
+    MvcResult mvcResult = restReactiveReferentielMockMvc.perform(get("/api/reactive/pays/{id}", pays.getId()))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    restReactiveReferentielMockMvc.perform(asyncDispatch(mvcResult))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.id").value(pays.getId()))
+      .andExpect(jsonPath("$.libelle").value("AAAAAAAAAA"));
+  }
+
+  @Test
+  void getNonExistingPays() throws Exception {
+    MvcResult mvcResult = restReactiveReferentielMockMvc.perform(get("/api/reactive/pays/{id}", Long.MAX_VALUE))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    restReactiveReferentielMockMvc.perform(asyncDispatch(mvcResult))
+      .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void getUnknownReferentiel() throws Exception {
+    restReactiveReferentielMockMvc.perform(get("/api/reactive/unknown").accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,82 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+import sn.ssi.sigmap.service.cache.CacheRegions;
+
+import org.hibernate.cache.spi.access.AccessType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ReadOnlyReferentielRequestBodyAdvice}.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class ReadOnlyReferentielIT {
+
+  @MockBean
+  private CacheRegions cacheRegions;
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private MockMvc restMockMvc;
+
+  private Pays pays;
+
+  @BeforeEach
+  void initTest() {
+    given(cacheRegions.findAccessType(any())).willReturn(Optional.empty());
+    given(cacheRegions.findAccessType(Pays.class)).willReturn(Optional.of(AccessType.READ_ONLY));
+    pays = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+  }
+
+  @Test
+  @Transactional
+  void updateOfReadOnlyReferentielIsRejected() throws Exception {
+    restMockMvc.perform(put("/api/pays/{id}", pays.getId())
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(pays.getId()).libelle("BBBBBBBBBB"))))
+      .andExpect(status().isBadRequest())
+      .andExpect(jsonPath("$.message").value("error.referentielreadonly"));
+
+    restMockMvc.perform(patch("/api/pays/{id}", pays.getId())
+      .contentType("application/merge-patch+json")
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(pays.getId()).libelle("BBBBBBBBBB"))))
+      .andExpect(status().isBadRequest());
+
+    assertThat(paysRepository.findById(pays.getId()).get().getLibelle()).isEqualTo("AAAAAAAAAA");
+  }
+
+  @Test
+  @Transactional
+  void creationAndDeletionOfReadOnlyReferentielAreAccepted() throws Exception {
+    restMockMvc.perform(post("/api/pays")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().libelle("BBBBBBBBBB"))))
+      .andExpect(status().isCreated());
+
+    restMockMvc.perform(delete("/api/pays/{id}", pays.getId()))
+      .andExpect(status().isNoContent());
+  }
+}
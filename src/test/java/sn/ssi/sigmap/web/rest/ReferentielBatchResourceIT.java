@@ -0,0 +1,85 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Banque;
+import sn.ssi.sigmap.repository.BanqueRepository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ReferentielBatchResource} REST controller.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class ReferentielBatchResourceIT {
+
+  @Autowired
+  private BanqueRepository banqueRepository;
+
+  @Autowired
+  private MockMvc restReferentielBatchMockMvc;
+
+  @Test
+  @Transactional
+  void getBanquesByIdsInRequestOrder() throws Exception {
+    Banque first = banqueRepository.saveAndFlush(new Banque().libelle("AAAAAAAAAA").sigle("AAAAAAAAAA"));
+    Banque second = banqueRepository.saveAndFlush(new Banque().libelle("BBBBBBBBBB").sigle("BBBBBBBBBB"));
+
+    restReferentielBatchMockMvc.perform(post("/api/banques/_mget")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(second.getId(), Long.MAX_VALUE, first.getId(), second.getId()))))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+      .andExpect(jsonPath("$", hasSize(4)))
+      .andExpect(jsonPath("$.[0].id").value(second.getId()))
+      .andExpect(jsonPath("$.[0].found").value(true))
+      .andExpect(jsonPath("$.[0].entity.libelle").value("BBBBBBBBBB"))
+      .andExpect(jsonPath("$.[1].id").value(Long.MAX_VALUE))
+      .andExpect(jsonPath("$.[1].found").value(false))
+      .andExpect(jsonPath("$.[1].entity").doesNotExist())
+      .andExpect(jsonPath("$.[2].entity.libelle").value("AAAAAAAAAA"))
+      .andExpect(jsonPath("$.[3].entity.libelle").value("BBBBBBBBBB"));
+  }
+
+  @Test
+  void getUnknownReferentielByIds() throws Exception {
+    restReferentielBatchMockMvc.perform(post("/api/unknown/_mget")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(Collections.singletonList(1L))))
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getTooManyIds() throws Exception {
+    Long[] ids = new Long[ReferentielBatchResource.MAX_IDS + 1];
+    Arrays.fill(ids, 1L);
+
+    restReferentielBatchMockMvc.perform(post("/api/banques/_mget")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(TestUtil.convertObjectToJsonBytes(ids)))
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getNullIdIsABadRequest() throws Exception {
+    restReferentielBatchMockMvc.perform(post("/api/pays/_mget")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content("[1, null]"))
+      .andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,110 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielBundleService;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangedEvent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ReferentielBundleResource} REST controller.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class ReferentielBundleResourceIT {
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private ReferentielBundleService referentielBundleService;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private MockMvc restReferentielBundleMockMvc;
+
+  @BeforeEach
+  void initTest() {
+    evictSections();
+  }
+
+  @AfterEach
+  void evictSections() {
+    // Sections built from rolled back data must not be seen by the other tests
+    referentielBundleService.evict(Referentiel.PAYS);
+    referentielBundleService.evict(Referentiel.TYPES_MARCHES);
+  }
+
+  @Test
+  @Transactional
+  void getBundle() throws Exception {
+    paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+
+    String etag = restReferentielBundleMockMvc.perform(get("/api/referentiels/_bundle?include=types-marches,pays"))
+      .andExpect(status().isOk())
+      .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+      .andExpect(header().exists(HttpHeaders.ETAG))
+      .andExpect(jsonPath("$.version").isString())
+      .andExpect(jsonPath("$.sections.pays.version").isString())
+      .andExpect(jsonPath("$.sections.pays.items.[*].libelle").value(hasItem("AAAAAAAAAA")))
+      .andExpect(jsonPath("$.sections.types-marches.items").isArray())
+      .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    restReferentielBundleMockMvc.perform(get("/api/referentiels/_bundle?include=pays,types-marches")
+      .header(HttpHeaders.IF_NONE_MATCH, etag))
+      .andExpect(status().isNotModified());
+  }
+
+  @Test
+  @Transactional
+  void getBundleVersions() throws Exception {
+    paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+    String version = referentielBundleService.getSection(Referentiel.PAYS).getVersion();
+
+    restReferentielBundleMockMvc.perform(get("/api/referentiels/_bundle/versions?include=pays"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.sections.pays.version").value(version))
+      .andExpect(jsonPath("$.sections.pays.items").doesNotExist());
+  }
+
+  @Test
+  @Transactional
+  void changedReferentielGetsANewVersion() {
+    paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+    String version = referentielBundleService.getSection(Referentiel.PAYS).getVersion();
+
+    paysRepository.saveAndFlush(new Pays().libelle("BBBBBBBBBB").codepays("BBBBBBBBBB"));
+    assertThat(referentielBundleService.getSection(Referentiel.PAYS).getVersion()).isEqualTo(version);
+
+    eventPublisher.publishEvent(new ReferentielChangedEvent(this, Referentiel.PAYS, null));
+    assertThat(referentielBundleService.getSection(Referentiel.PAYS).getVersion()).isNotEqualTo(version);
+  }
+
+  @Test
+  void getBundleWithUnknownReferentiel() throws Exception {
+    restReferentielBundleMockMvc.perform(get("/api/referentiels/_bundle?include=pays,unknown"))
+      .andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,224 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangeMessage;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangePublisher;
+import sn.ssi.sigmap.service.referentiel.ReferentielChangeType;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ReferentielEventResource} REST controller.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+class ReferentielEventResourceIT {
+
+  private static final long TIMEOUT_MS = 5000;
+
+  @Autowired
+  private HazelcastInstance hazelcastInstance;
+
+  @Autowired
+  private MockMvc restReferentielEventMockMvc;
+
+  @Test
+  void resumeReplaysTheMissedChangesOfTheFollowedReferentials() throws Exception {
+    long first = publishChange(Referentiel.PAYS, 1L, 3L, ReferentielChangeType.UPDATED);
+    long other = publishChange(Referentiel.BANQUE, 2L, 0L, ReferentielChangeType.CREATED);
+    long last = publishChange(Referentiel.PAYS, 4L, null, ReferentielChangeType.DELETED);
+
+    MvcResult result = restReferentielEventMockMvc.perform(get("/api/referentiels/_events?referentiel=pays")
+      .header("Last-Event-ID", Long.toString(first - 1)))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    String content = awaitContent(result, "id:" + last);
+    assertThat(content).contains("id:" + first, "event:change", "\"referentiel\":\"pays\"", "\"id\":1", "\"version\":3",
+      "\"op\":\"UPDATED\"", "\"op\":\"DELETED\"");
+    assertThat(content).doesNotContain("id:" + other, "banques");
+    assertThat(content.indexOf("id:" + first)).isLessThan(content.indexOf("id:" + last));
+  }
+
+  @Test
+  void subscribersReceiveTheNextChanges() throws Exception {
+    MvcResult result = restReferentielEventMockMvc.perform(get("/api/referentiels/_events"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    long sequence = publishChange(Referentiel.TYPES_MARCHES, 5L, 1L, ReferentielChangeType.UPDATED);
+
+    String content = awaitContent(result, "id:" + sequence);
+    assertThat(content).contains("\"referentiel\":\"types-marches\"", "\"entity\":\"TypesMarches\"");
+  }
+
+  @Test
+  void resumeAfterUnavailableChangesSendsAReset() throws Exception {
+    publishChange(Referentiel.PAYS, 1L, 1L, ReferentielChangeType.UPDATED);
+
+    MvcResult result = restReferentielEventMockMvc.perform(get("/api/referentiels/_events")
+      .header("Last-Event-ID", "-1"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    assertThat(awaitContent(result, "event:" + ReferentielEventResource.RESET_EVENT)).doesNotContain("event:change");
+  }
+
+  @Test
+  void getChangesAfterASequence() throws Exception {
+    long first = publishChange(Referentiel.PAYS, 1L, 3L, ReferentielChangeType.UPDATED);
+    publishChange(Referentiel.BANQUE, 2L, 0L, ReferentielChangeType.CREATED);
+    long last = publishChange(Referentiel.PAYS, 4L, null, ReferentielChangeType.DELETED);
+    awaitReleased(last);
+
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_changes?referentiel=pays&since={since}", first - 1))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.reset").value(false))
+      .andExpect(jsonPath("$.latest").value(greaterThanOrEqualTo((int) last)))
+      .andExpect(jsonPath("$.changes[?(@.sequence == " + first + ")].op").value("UPDATED"))
+      .andExpect(jsonPath("$.changes[?(@.sequence == " + last + ")].op").value("DELETED"))
+      .andExpect(jsonPath("$.changes[?(@.referentiel == 'banques')]").isEmpty());
+  }
+
+  @Test
+  void getChangesWithoutSequenceOnlyReturnsTheLatest() throws Exception {
+    long sequence = publishChange(Referentiel.PAYS, 1L, 3L, ReferentielChangeType.UPDATED);
+    awaitReleased(sequence);
+
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_changes"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.reset").value(false))
+      .andExpect(jsonPath("$.latest").value(greaterThanOrEqualTo((int) sequence)))
+      .andExpect(jsonPath("$.changes").isEmpty());
+  }
+
+  @Test
+  void getUnavailableChangesAsksForAReset() throws Exception {
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_changes?since=-1"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.reset").value(true))
+      .andExpect(jsonPath("$.changes").isEmpty());
+  }
+
+  @Test
+  void getChangesOfAnotherEpochAsksForAReset() throws Exception {
+    long sequence = publishChange(Referentiel.PAYS, 1L, 3L, ReferentielChangeType.UPDATED);
+    awaitReleased(sequence);
+    long epoch = getEpoch();
+
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_changes?since={since}&epoch={epoch}", sequence - 1, epoch))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.reset").value(false))
+      .andExpect(jsonPath("$.epoch").value(epoch));
+
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_changes?since={since}&epoch={epoch}", sequence - 1, epoch - 1))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.reset").value(true))
+      .andExpect(jsonPath("$.changes").isEmpty());
+  }
+
+  @Test
+  void getChangesAfterTheCurrentSequenceAsksForAReset() throws Exception {
+    long current = hazelcastInstance.getAtomicLong(ReferentielChangePublisher.SEQUENCE_NAME).get();
+
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_changes?since={since}", current + 1000))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.reset").value(true))
+      .andExpect(jsonPath("$.changes").isEmpty());
+  }
+
+  @Test
+  void changesAreReleasedInTheOrderOfTheirSequence() throws Exception {
+    long first = nextSequence();
+    long second = nextSequence();
+    publishChange(second, Referentiel.PAYS, 2L, 1L, ReferentielChangeType.UPDATED);
+
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_changes?since={since}", first - 1))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.latest").value(lessThan((int) first)))
+      .andExpect(jsonPath("$.changes").isEmpty());
+
+    publishChange(first, Referentiel.PAYS, 1L, 1L, ReferentielChangeType.UPDATED);
+    awaitReleased(second);
+
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_changes?since={since}", first - 1))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.changes[0].sequence").value((int) first))
+      .andExpect(jsonPath("$.changes[1].sequence").value((int) second));
+  }
+
+  @Test
+  void streamUnknownReferentiel() throws Exception {
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_events?referentiel=unknown"))
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void streamWithInvalidLastEventId() throws Exception {
+    restReferentielEventMockMvc.perform(get("/api/referentiels/_events").header("Last-Event-ID", "abc"))
+      .andExpect(status().isBadRequest());
+  }
+
+  private long publishChange(Referentiel referentiel, Long id, Long version, ReferentielChangeType type) {
+    long sequence = nextSequence();
+    publishChange(sequence, referentiel, id, version, type);
+    return sequence;
+  }
+
+  private long nextSequence() {
+    return hazelcastInstance.getAtomicLong(ReferentielChangePublisher.SEQUENCE_NAME).incrementAndGet();
+  }
+
+  private void publishChange(long sequence, Referentiel referentiel, Long id, Long version, ReferentielChangeType type) {
+    hazelcastInstance.<ReferentielChangeMessage>getTopic(ReferentielChangePublisher.TOPIC_NAME)
+      .publish(new ReferentielChangeMessage(sequence, referentiel, id, version, type));
+  }
+
+  /**
+   * The changes are received from the cluster topic asynchronously.
+   */
+  private void awaitReleased(long sequence) throws Exception {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (getLatestSequence() < sequence && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+    assertThat(getLatestSequence()).isGreaterThanOrEqualTo(sequence);
+  }
+
+  private long getLatestSequence() throws Exception {
+    String content = restReferentielEventMockMvc.perform(get("/api/referentiels/_changes")).andReturn().getResponse().getContentAsString();
+    return ((Number) JsonPath.read(content, "$.latest")).longValue();
+  }
+
+  private long getEpoch() throws Exception {
+    String content = restReferentielEventMockMvc.perform(get("/api/referentiels/_changes")).andReturn().getResponse().getContentAsString();
+    return ((Number) JsonPath.read(content, "$.epoch")).longValue();
+  }
+
+  private static String awaitContent(MvcResult result, String expected) throws Exception {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    String content = result.getResponse().getContentAsString();
+    while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+      content = result.getResponse().getContentAsString();
+    }
+    assertThat(content).contains(expected);
+    return content;
+  }
+}
@@ -0,0 +1,87 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.snapshot.ReferentielSnapshot;
+import sn.ssi.sigmap.service.snapshot.ReferentielSnapshotService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ReferentielSnapshotResource} REST controller.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = "application.referentiel.snapshot.directory=${java.io.tmpdir}/referentielms-snapshots-it")
+class ReferentielSnapshotResourceIT {
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private ReferentielSnapshotService referentielSnapshotService;
+
+  @Autowired
+  private MockMvc restReferentielSnapshotMockMvc;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @Transactional
+  void downloadTheLatestSnapshot() throws Exception {
+    Pays pays = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("SNAPSHOT"));
+    ReferentielSnapshot written = referentielSnapshotService.write();
+
+    MvcResult result = restReferentielSnapshotMockMvc.perform(get("/api/referentiels/_snapshot"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    byte[] content = restReferentielSnapshotMockMvc.perform(asyncDispatch(result))
+      .andExpect(status().isOk())
+      .andExpect(header().string(ReferentielSnapshotResource.SEQUENCE_HEADER, Long.toString(written.getSequence())))
+      .andExpect(header().string(ReferentielSnapshotResource.EPOCH_HEADER, Long.toString(written.getEpoch())))
+      .andExpect(header().exists(HttpHeaders.ETAG))
+      .andReturn().getResponse().getContentAsByteArray();
+
+    assertThat(content).hasSize((int) Files.size(written.getFile()));
+    Path downloaded = directory.resolve("downloaded.snap");
+    Files.write(downloaded, content);
+    ReferentielSnapshot snapshot = ReferentielSnapshot.open(downloaded);
+    assertThat(snapshot.getReferentiels()).contains(Referentiel.values());
+    assertThat(snapshot.findByCode(Referentiel.PAYS, "SNAPSHOT"))
+      .map(document -> new String(document, StandardCharsets.UTF_8))
+      .hasValueSatisfying(json -> assertThat(json).contains("\"id\":" + pays.getId(), "\"libelle\":\"AAAAAAAAAA\""));
+    assertThat(snapshot.findVersion(Referentiel.PAYS, pays.getId())).contains(pays.getVersion());
+  }
+
+  @Test
+  void downloadAnUnchangedSnapshot() throws Exception {
+    ReferentielSnapshot written = referentielSnapshotService.write();
+    String eTag = "\"" + written.getFile().getFileName() + "\"";
+
+    restReferentielSnapshotMockMvc.perform(get("/api/referentiels/_snapshot").header(HttpHeaders.IF_NONE_MATCH, eTag))
+      .andExpect(status().isNotModified());
+  }
+}
@@ -0,0 +1,133 @@
+package sn.ssi.sigmap.web.rest;
+
+import sn.ssi.sigmap.ReferentielmsApp;
+import sn.ssi.sigmap.domain.Pays;
+import sn.ssi.sigmap.repository.PaysRepository;
+import sn.ssi.sigmap.service.referentiel.WriteBehindService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the write-behind of the partial updates.
+ * <p>
+ * The updates are written by other transactions, so the test data is committed and removed after each test.
+ */
+@SpringBootTest(classes = ReferentielmsApp.class)
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = {
+  "application.referentiel.write-behind.enabled=true",
+  "application.referentiel.write-behind.flush-interval-ms=3600000"
+})
+class WriteBehindIT {
+
+  @Autowired
+  private PaysRepository paysRepository;
+
+  @Autowired
+  private WriteBehindService writeBehindService;
+
+  @Autowired
+  private MockMvc restMockMvc;
+
+  private Pays pays;
+
+  @BeforeEach
+  void initTest() {
+    pays = paysRepository.saveAndFlush(new Pays().libelle("AAAAAAAAAA").codepays("AAAAAAAAAA"));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    writeBehindService.flush();
+    paysRepository.deleteById(pays.getId());
+  }
+
+  @Test
+  void partialUpdatesAreMergedAndWrittenOnRead() throws Exception {
+    restMockMvc.perform(patch("/api/pays/{id}", pays.getId())
+      .contentType("application/merge-patch+json")
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(pays.getId()).libelle("BBBBBBBBBB"))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.libelle").value("BBBBBBBBBB"))
+      .andExpect(jsonPath("$.codepays").value("AAAAAAAAAA"));
+
+    restMockMvc.perform(patch("/api/pays/{id}", pays.getId())
+      .contentType("application/merge-patch+json")
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(pays.getId()).codepays("BBBBBBBBBB"))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.libelle").value("BBBBBBBBBB"))
+      .andExpect(jsonPath("$.codepays").value("BBBBBBBBBB"));
+
+    // Not written yet
+    assertThat(paysRepository.findById(pays.getId()).get().getLibelle()).isEqualTo("AAAAAAAAAA");
+
+    // Read-your-write
+    restMockMvc.perform(get("/api/pays/{id}", pays.getId()))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.libelle").value("BBBBBBBBBB"))
+      .andExpect(jsonPath("$.codepays").value("BBBBBBBBBB"));
+
+    Pays written = paysRepository.findById(pays.getId()).get();
+    assertThat(written.getLibelle()).isEqualTo("BBBBBBBBBB");
+    assertThat(written.getCodepays()).isEqualTo("BBBBBBBBBB");
+  }
+
+  @Test
+  void partialUpdatesAreWrittenOnBatchRead() throws Exception {
+    restMockMvc.perform(patch("/api/pays/{id}", pays.getId())
+      .contentType("application/merge-patch+json")
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(pays.getId()).libelle("BBBBBBBBBB"))))
+      .andExpect(status().isOk());
+
+    restMockMvc.perform(post("/api/pays/_mget")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content("[" + pays.getId() + "]"))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.[0].entity.libelle").value("BBBBBBBBBB"));
+
+    assertThat(paysRepository.findById(pays.getId()).get().getLibelle()).isEqualTo("BBBBBBBBBB");
+  }
+
+  @Test
+  void conditionalPartialUpdatesAreRejected() throws Exception {
+    Pays versioned = new Pays().id(pays.getId()).libelle("BBBBBBBBBB");
+    versioned.setVersion(pays.getVersion());
+    restMockMvc.perform(patch("/api/pays/{id}", pays.getId())
+      .contentType("application/merge-patch+json")
+      .content(TestUtil.convertObjectToJsonBytes(versioned)))
+      .andExpect(status().isBadRequest());
+
+    restMockMvc.perform(patch("/api/pays/{id}", pays.getId())
+      .contentType("application/merge-patch+json")
+      .header(HttpHeaders.IF_MATCH, "\"" + pays.getVersion() + "\"")
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(pays.getId()).libelle("BBBBBBBBBB"))))
+      .andExpect(status().isBadRequest());
+
+    assertThat(paysRepository.findById(pays.getId()).get().getLibelle()).isEqualTo("AAAAAAAAAA");
+  }
+
+  @Test
+  void partialUpdateOfUnknownEntityIsRejected() throws Exception {
+    restMockMvc.perform(patch("/api/pays/{id}", Long.MAX_VALUE)
+      .contentType("application/merge-patch+json")
+      .content(TestUtil.convertObjectToJsonBytes(new Pays().id(Long.MAX_VALUE).libelle("BBBBBBBBBB"))))
+      .andExpect(status().isBadRequest());
+  }
+}
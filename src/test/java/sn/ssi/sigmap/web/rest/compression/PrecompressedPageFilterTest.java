@@ -0,0 +1,99 @@
+package sn.ssi.sigmap.web.rest.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import sn.ssi.sigmap.config.ApplicationProperties;
+import sn.ssi.sigmap.service.referentiel.Referentiel;
+import sn.ssi.sigmap.service.referentiel.ReferentielGenerations;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the {@link PrecompressedPageFilter}.
+ */
+class PrecompressedPageFilterTest {
+
+    private ReferentielGenerations referentielGenerations;
+
+    private PrecompressedPageFilter filter;
+
+    private AtomicInteger calls;
+
+    private FilterChain chain;
+
+    @BeforeEach
+    void setup() {
+        referentielGenerations = mock(ReferentielGenerations.class);
+        filter = new PrecompressedPageFilter(new PrecompressedResponses(new ApplicationProperties(), new SimpleMeterRegistry()),
+            referentielGenerations);
+        calls = new AtomicInteger();
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            json.append("{\"id\":").append(i).append(",\"libelle\":\"AAAAAAAAAA\"},");
+        }
+        byte[] body = json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+        chain = (request, response) -> {
+            calls.incrementAndGet();
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ((HttpServletResponse) response).addHeader("X-Total-Count", "201");
+            response.getOutputStream().write(body);
+        };
+    }
+
+    @Test
+    void keepsThePageUntilTheNextGeneration() throws ServletException, IOException {
+        MockHttpServletResponse first = get("page=0&size=20");
+        MockHttpServletResponse second = get("page=0&size=20");
+
+        assertThat(calls).hasValue(1);
+        assertThat(second.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(second.getHeader("X-Total-Count")).isEqualTo("201");
+        assertThat(second.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(second.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+
+        when(referentielGenerations.get(Referentiel.PAYS)).thenReturn(1L);
+        get("page=0&size=20");
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void pagesAreKeptByUrl() throws ServletException, IOException {
+        get("page=0&size=20");
+        get("page=1&size=20");
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void otherRequestsAreNotFiltered() {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/pays");
+        MockHttpServletRequest entity = new MockHttpServletRequest("GET", "/api/pays/1");
+
+        assertThat(filter.shouldNotFilter(post)).isTrue();
+        assertThat(filter.shouldNotFilter(entity)).isTrue();
+    }
+
+    private MockHttpServletResponse get(String query) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/pays");
+        request.setQueryString(query);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,142 @@
+package sn.ssi.sigmap.web.rest.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import sn.ssi.sigmap.config.ApplicationProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the {@link PrecompressedResponses}.
+ */
+class PrecompressedResponsesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PrecompressedResponses precompressedResponses;
+
+    private byte[] body;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        precompressedResponses = new PrecompressedResponses(new ApplicationProperties(), meterRegistry);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            json.append("{\"id\":").append(i).append(",\"libelle\":\"AAAAAAAAAA\"},");
+        }
+        body = json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void servesTheGzipVariantWhenAccepted() throws IOException {
+        ResponseEntity<byte[]> response = precompressedResponses.ok("key", "version", "gzip, deflate, br", MediaType.APPLICATION_JSON, () -> body);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"version-gzip\"");
+        assertThat(gunzip(response.getBody())).isEqualTo(body);
+        assertThat(meterRegistry.get("http.precompression.bytes.saved").counter().count())
+            .isEqualTo(body.length - response.getBody().length);
+    }
+
+    @Test
+    void servesTheIdentityVariantOtherwise() {
+        ResponseEntity<byte[]> response = precompressedResponses.ok("key", "version", "gzip;q=0, br", MediaType.APPLICATION_JSON, () -> body);
+
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"version\"");
+        assertThat(response.getBody()).isEqualTo(body);
+    }
+
+    @Test
+    void compressesEachBodyOnce() {
+        AtomicInteger serializations = new AtomicInteger();
+
+        precompressedResponses.ok("key", "version", "gzip", MediaType.APPLICATION_JSON, () -> {
+            serializations.incrementAndGet();
+            return body;
+        });
+        precompressedResponses.ok("key", "version", null, MediaType.APPLICATION_JSON, () -> {
+            serializations.incrementAndGet();
+            return body;
+        });
+
+        assertThat(serializations.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("http.precompression.cpu").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedBodiesAboveTheByteBound() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCompression().setMaxCachedBytes(body.length + body.length / 2);
+        PrecompressedResponses bounded = new PrecompressedResponses(applicationProperties, meterRegistry);
+        AtomicInteger serializations = new AtomicInteger();
+
+        for (String key : new String[] { "first", "second", "first" }) {
+            bounded.ok(key, "version", "gzip", MediaType.APPLICATION_JSON, () -> {
+                serializations.incrementAndGet();
+                return body;
+            });
+        }
+
+        assertThat(serializations.get()).isEqualTo(3);
+        assertThat(bounded.getCachedBytes()).isGreaterThan(body.length).isLessThanOrEqualTo(body.length + body.length / 2);
+    }
+
+    @Test
+    void servesButDoesNotKeepBodiesLargerThanTheCache() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCompression().setMaxCachedBytes(body.length / 2);
+        PrecompressedResponses bounded = new PrecompressedResponses(applicationProperties, meterRegistry);
+
+        ResponseEntity<byte[]> response = bounded.ok("key", "version", null, MediaType.APPLICATION_JSON, () -> body);
+
+        assertThat(response.getBody()).isEqualTo(body);
+        assertThat(bounded.getCachedBytes()).isZero();
+    }
+
+    @Test
+    void doesNotCompressSmallBodies() {
+        byte[] small = "[]".getBytes(StandardCharsets.UTF_8);
+
+        ResponseEntity<byte[]> response = precompressedResponses.ok("small", "version", "gzip", MediaType.APPLICATION_JSON, () -> small);
+
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getBody()).isEqualTo(small);
+    }
+
+    @Test
+    void parsesAcceptEncoding() {
+        assertThat(PrecompressedResponses.acceptsGzip(null)).isFalse();
+        assertThat(PrecompressedResponses.acceptsGzip("identity")).isFalse();
+        assertThat(PrecompressedResponses.acceptsGzip("GZIP")).isTrue();
+        assertThat(PrecompressedResponses.acceptsGzip("br;q=1.0, gzip;q=0.8")).isTrue();
+        assertThat(PrecompressedResponses.acceptsGzip("*")).isTrue();
+        assertThat(PrecompressedResponses.acceptsGzip("gzip;q=0")).isFalse();
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+}